@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.example"
@@ -15,6 +16,77 @@ dependencies {
     implementation("com.opencsv:opencsv:5.6")
 }
 
+// Precompiles the bundled tooltype.csv and tools.csv into the binary catalog snapshot on the classpath, which services
+// built with CheckoutService.builder().lazyCatalog() map on first use instead of parsing CSV
+val catalogSnapshot by tasks.registering(JavaExec::class) {
+    val csvDirectory = layout.projectDirectory.dir("src/main/resources")
+    val snapshotDirectory = layout.buildDirectory.dir("generated/catalog-snapshot")
+    inputs.files(csvDirectory.file("tooltype.csv"), csvDirectory.file("tools.csv"))
+    outputs.dir(snapshotDirectory)
+    classpath = sourceSets.main.get().output.classesDirs + configurations.runtimeClasspath.get()
+    mainClass.set("com.kn0824.service.catalog.CatalogSnapshot")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(csvDirectory.asFile.absolutePath, snapshotDirectory.get().file("catalog.snapshot").asFile.absolutePath)
+    })
+}
+
+sourceSets.main {
+    resources.srcDir(catalogSnapshot)
+}
+
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Load test harness in src/loadtest/java. generateTraffic records a synthetic request mix over the bundled tools.csv,
+// replayTraffic replays a recording against CheckoutService and prints latency percentiles. For example
+// ./gradlew generateTraffic -Prequests=1000000 -Pseed=7 and ./gradlew replayTraffic -Pthreads=8 -Prate=50000, where a
+// rate of 0 replays as fast as possible. -PtrafficFile=<path> picks the recording, build/loadtest/traffic.bin by default.
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+val trafficFile = providers.gradleProperty("trafficFile").orElse(layout.buildDirectory.file("loadtest/traffic.bin").map { it.asFile.absolutePath })
+
+tasks.register<JavaExec>("generateTraffic") {
+    group = "load test"
+    description = "Records a synthetic checkout request mix."
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.kn0824.loadtest.LoadTest")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("generate", trafficFile.get(), providers.gradleProperty("requests").getOrElse("1000000"), providers.gradleProperty("seed").getOrElse("1"))
+    })
+}
+
+tasks.register<JavaExec>("replayTraffic") {
+    group = "load test"
+    description = "Replays a recorded checkout request mix and reports latency percentiles."
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.kn0824.loadtest.LoadTest")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("replay", trafficFile.get(), providers.gradleProperty("threads").getOrElse("4"), providers.gradleProperty("rate").getOrElse("0"),
+                providers.gradleProperty("warmup").getOrElse("200000"))
+    })
+}
+
+// Benchmarks live in src/jmh/java and run with ./gradlew jmh. Results are written as JSON so they can be compared
+// across releases; pass -PjmhInclude=<regex> to run a subset.
+jmh {
+    jmhVersion.set("1.37")
+    benchmarkMode.set(listOf("thrpt", "avgt"))
+    timeUnit.set("us")
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    if (project.hasProperty("jmhInclude")) {
+        includes.set(listOf(project.property("jmhInclude").toString()))
+    }
+}
@@ -0,0 +1,93 @@
+package com.kn0824.benchmark;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.agreement.RentalAgreementRenderer;
+import com.kn0824.core.agreement.codec.BinaryAgreementWriter;
+import com.kn0824.core.agreement.codec.JsonAgreementWriter;
+import com.kn0824.service.CheckoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serialization cost per agreement for the binary codec, the JSON writer, and the text renderer, each writing a batch
+ * of agreements to a channel that discards the bytes. Bytes written per agreement are printed once during setup.
+ */
+@State(Scope.Benchmark)
+public class AgreementCodecBenchmark {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    private List<RentalAgreement> agreements;
+    private CountingChannel channel;
+
+    @Setup
+    public void setup() throws IOException {
+        CheckoutService checkoutService = new CheckoutService();
+        agreements = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            agreements.add(checkoutService.checkout(TOOL_CODES[i % TOOL_CODES.length], LocalDate.of(2015, 6, 1).plusDays(i % 365), 1 + i % 30, i % 51));
+        }
+        channel = new CountingChannel();
+        System.out.printf("%nBytes per agreement: binary %d, json %d, text %d%n", binary() / BATCH_SIZE, json() / BATCH_SIZE, text() / BATCH_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long binary() throws IOException {
+        channel.bytes = 0;
+        BinaryAgreementWriter writer = new BinaryAgreementWriter(channel);
+        writer.writeAll(agreements);
+        writer.flush();
+        return channel.bytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long json() throws IOException {
+        channel.bytes = 0;
+        JsonAgreementWriter writer = JsonAgreementWriter.forChannel(channel);
+        writer.writeAll(agreements);
+        writer.flush();
+        return channel.bytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long text() throws IOException {
+        channel.bytes = 0;
+        RentalAgreementRenderer.DEFAULT.renderAll(agreements, channel, "\n\n");
+        return channel.bytes;
+    }
+
+    private static final class CountingChannel implements WritableByteChannel {
+        private long bytes;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int written = source.remaining();
+            source.position(source.limit());
+            bytes += written;
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.kn0824.benchmark;
+
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.calendar.ObservedHolidayCalendar;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.ChargeableDayCalculator;
+import com.kn0824.service.QuoteCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Chargeable day counting on its own, for each combination of charge flags used by the shipped tool types
+ */
+@State(Scope.Benchmark)
+public class ChargeableDaysBenchmark {
+
+    // weekday,weekend,holiday charge flags of the Ladder, Chainsaw, and Jackhammer tool types
+    @Param({"true,true,false", "true,false,true", "true,false,false"})
+    public String chargeFlags;
+
+    @Param({"1", "7", "30", "365", "3650"})
+    public int rentalDays;
+
+    @Param({"2015-07-02", "2015-09-03", "2020-01-15"})
+    public String checkoutDate;
+
+    private ChargeableDayCalculator calculator;
+    private ChargeableDayCalculator ruleCalculator;
+    private QuoteCache quoteCache;
+    private ToolType toolType;
+    private LocalDate date;
+
+    @Setup
+    public void setup() {
+        String[] flags = chargeFlags.split(",");
+        calculator = new ChargeableDayCalculator(HolidayCalendar.defaultCalendar());
+        ruleCalculator = new ChargeableDayCalculator(new ObservedHolidayCalendar(HolidayCalendar.DEFAULT_RULES));
+        quoteCache = new QuoteCache(1024);
+        toolType = new ToolType("Benchmark", new BigDecimal("1.99"), Boolean.parseBoolean(flags[0]), Boolean.parseBoolean(flags[1]), Boolean.parseBoolean(flags[2]));
+        date = LocalDate.parse(checkoutDate);
+    }
+
+    @Benchmark
+    public int calculateChargeableDays() {
+        return calculator.calculate(toolType, date, rentalDays);
+    }
+
+    // The same count from the per-year holiday bitsets instead of the default day classification table
+    @Benchmark
+    public int calculateChargeableDaysFromRules() {
+        return ruleCalculator.calculate(toolType, date, rentalDays);
+    }
+
+    // Every call after the first is a hit, so this is the cost of the lookup itself
+    @Benchmark
+    public int cachedChargeableDays() {
+        return quoteCache.chargeableDays(calculator, toolType, date, rentalDays);
+    }
+}
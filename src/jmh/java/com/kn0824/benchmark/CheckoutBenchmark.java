@@ -0,0 +1,55 @@
+package com.kn0824.benchmark;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.metrics.CheckoutMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+
+/**
+ * Full checkout cost: validation, chargeable day counting, and pricing. The checkout dates are chosen so that short
+ * rentals cross the observed July 4th (2015-07-03) or Labor Day (2015-09-07), and one that crosses neither.
+ */
+@State(Scope.Benchmark)
+public class CheckoutBenchmark {
+
+    // One tool per tool type: Ladder, Chainsaw, Jackhammer
+    @Param({"LADW", "CHNS", "JAKR"})
+    public String toolCode;
+
+    @Param({"1", "7", "30", "365", "3650"})
+    public int rentalDays;
+
+    @Param({"0", "10", "50"})
+    public int discount;
+
+    @Param({"2015-07-02", "2015-09-03", "2020-01-15"})
+    public String checkoutDate;
+
+    private CheckoutService checkoutService;
+    private CheckoutService instrumentedCheckoutService;
+    private LocalDate date;
+
+    @Setup
+    public void setup() {
+        checkoutService = new CheckoutService();
+        instrumentedCheckoutService = CheckoutService.builder().metrics(new CheckoutMetrics()).build();
+        date = LocalDate.parse(checkoutDate);
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() {
+        return checkoutService.checkout(toolCode, date, rentalDays, discount);
+    }
+
+    // Same checkout with metrics enabled, the difference to checkout() is the cost of instrumentation
+    @Benchmark
+    public RentalAgreement checkoutWithMetrics() {
+        return instrumentedCheckoutService.checkout(toolCode, date, rentalDays, discount);
+    }
+}
@@ -0,0 +1,42 @@
+package com.kn0824.benchmark;
+
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.CheckoutValidation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+
+/**
+ * Cost of turning away a request for a tool code that doesn't exist, as probing clients of a quote API do: through the
+ * validation result, and through the exception the throwing checkout raises
+ */
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2015, 7, 2);
+
+    private CheckoutService checkoutService;
+
+    @Setup
+    public void setup() {
+        checkoutService = new CheckoutService();
+    }
+
+    @Benchmark
+    public CheckoutValidation validateUnknownTool() {
+        return checkoutService.validate("NOPE", 5, 10);
+    }
+
+    @Benchmark
+    public String checkoutUnknownTool() {
+        try {
+            checkoutService.checkout("NOPE", CHECKOUT_DATE, 5, 10);
+            throw new AssertionError("The unknown tool code was accepted");
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
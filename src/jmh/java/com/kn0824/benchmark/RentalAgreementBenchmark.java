@@ -0,0 +1,60 @@
+package com.kn0824.benchmark;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.agreement.RentalAgreementRenderer;
+import com.kn0824.service.CheckoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Cost of rendering an agreement as text, independent of pricing, as a new String and into reused outputs
+ */
+@State(Scope.Benchmark)
+public class RentalAgreementBenchmark {
+
+    @Param({"LADW", "CHNS", "JAKR"})
+    public String toolCode;
+
+    @Param({"1", "3650"})
+    public int rentalDays;
+
+    @Param({"0", "50"})
+    public int discount;
+
+    private RentalAgreement agreement;
+    private StringBuilder text;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        agreement = new CheckoutService().checkout(toolCode, LocalDate.of(2015, 7, 2), rentalDays, discount);
+        text = new StringBuilder(512);
+        buffer = ByteBuffer.allocate(512);
+    }
+
+    @Benchmark
+    public String prettyPrint() {
+        return agreement.prettyPrint();
+    }
+
+    @Benchmark
+    public StringBuilder renderToReusedBuilder() throws IOException {
+        text.setLength(0);
+        RentalAgreementRenderer.DEFAULT.render(agreement, text);
+        return text;
+    }
+
+    @Benchmark
+    public ByteBuffer renderToReusedBuffer() {
+        buffer.clear();
+        RentalAgreementRenderer.DEFAULT.render(agreement, buffer);
+        return buffer;
+    }
+}
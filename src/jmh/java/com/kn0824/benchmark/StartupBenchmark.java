@@ -0,0 +1,54 @@
+package com.kn0824.benchmark;
+
+import com.kn0824.service.CheckoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Cold start cost of the two catalog startup modes: a fresh JVM creates a service and prices one checkout, once parsing
+ * the bundled CSV files up front and once mapping the precompiled catalog snapshot on first use. Every invocation starts
+ * its own JVM, so the benchmark's warmup settings don't warm up the code being measured. The JVM's own start time is
+ * the same in both modes and shows up in the difference between them only as noise.
+ */
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"csv", "snapshot"})
+    public String catalogMode;
+
+    private List<String> command;
+
+    @Setup
+    public void setup() {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        command = List.of(java, "-cp", System.getProperty("java.class.path"), FirstCheckout.class.getName(), catalogMode);
+    }
+
+    @Benchmark
+    public int coldStart() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Startup run failed with exit code " + exitCode);
+        }
+        return exitCode;
+    }
+
+    /**
+     * The program started for every invocation
+     */
+    public static final class FirstCheckout {
+        public static void main(String[] args) {
+            CheckoutService checkoutService = args[0].equals("snapshot") ? CheckoutService.builder().lazyCatalog().build() : new CheckoutService();
+            System.out.println(checkoutService.checkout("LADW", LocalDate.of(2020, 7, 2), 3, 10).getFinalAmount());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kn0824.loadtest;
+
+import com.kn0824.service.CheckoutRequest;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.catalog.ToolCatalogLoader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command line entry point of the generateTraffic and replayTraffic build tasks:
+ * <pre>
+ * LoadTest generate &lt;file&gt; &lt;requests&gt; &lt;seed&gt;
+ * LoadTest replay &lt;file&gt; &lt;threads&gt; &lt;requests per second, 0 for unpaced&gt; &lt;warm-up requests&gt;
+ * </pre>
+ * Requests are generated over the bundled tools.csv. The replay runs against a service with the bundled catalog.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 4 && args[0].equals("generate")) {
+            Path file = Path.of(args[1]);
+            TrafficProfile profile = TrafficProfile.defaults(Integer.parseInt(args[2]), Long.parseLong(args[3]));
+            TrafficFile.write(new TrafficGenerator(ToolCatalogLoader.fromClasspath()).generate(profile), file);
+            System.out.println("Recorded " + profile.requests() + " requests with seed " + profile.seed() + " to " + file);
+        } else if (args.length == 5 && args[0].equals("replay")) {
+            List<CheckoutRequest> requests = TrafficFile.read(Path.of(args[1]));
+            ReplayRunner runner = new ReplayRunner(new CheckoutService(), Integer.parseInt(args[2]), Double.parseDouble(args[3]));
+            runner.warmUp(requests.subList(0, Math.min(requests.size(), Integer.parseInt(args[4]))));
+            System.out.print(runner.replay(requests).format());
+        } else {
+            throw new IllegalArgumentException("Usage: LoadTest generate <file> <requests> <seed> | replay <file> <threads> <requests per second> <warm-up requests>. ");
+        }
+    }
+}
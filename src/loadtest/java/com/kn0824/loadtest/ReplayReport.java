@@ -0,0 +1,53 @@
+package com.kn0824.loadtest;
+
+import com.kn0824.service.metrics.MetricsSnapshot;
+
+import java.util.Locale;
+
+/**
+ * Outcome of replaying a recording
+ * @param requests - Number of requests replayed
+ * @param agreements - Requests that produced an agreement
+ * @param rejections - Requests rejected by validation or because the tool was booked
+ * @param failures - Requests that failed with any other exception
+ * @param elapsedNanos - Time from the first request's start to the last request's end
+ * @param targetRate - Requests per second the replay was paced at, 0 if it wasn't paced
+ * @param responseTime - Nanoseconds from when each request was due to when it completed, corrected for coordinated omission
+ * @param serviceTime - Nanoseconds from when each request actually started to when it completed
+ */
+public record ReplayReport(int requests, long agreements, long rejections, long failures, long elapsedNanos, double targetRate,
+                           MetricsSnapshot.HistogramSample responseTime, MetricsSnapshot.HistogramSample serviceTime) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9", "p99.99"};
+
+    public double throughput() {
+        return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return A plain text summary with the latency percentiles in microseconds
+     */
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "requests %d, agreements %d, rejections %d, failures %d%n", requests, agreements, rejections, failures));
+        report.append(String.format(Locale.ROOT, "elapsed %.3f s, %.0f requests/s", elapsedNanos / 1e9, throughput()));
+        report.append(targetRate > 0 ? String.format(Locale.ROOT, " (target %.0f requests/s)%n", targetRate) : String.format(Locale.ROOT, " (unpaced)%n"));
+        report.append(String.format(Locale.ROOT, "%-15s", "latency (us)"));
+        for (String label : PERCENTILE_LABELS) {
+            report.append(String.format(Locale.ROOT, "%12s", label));
+        }
+        report.append(String.format(Locale.ROOT, "%12s%n", "max"));
+        appendRow(report, "response time", responseTime);
+        appendRow(report, "service time", serviceTime);
+        return report.toString();
+    }
+
+    private static void appendRow(StringBuilder report, String name, MetricsSnapshot.HistogramSample histogram) {
+        report.append(String.format(Locale.ROOT, "%-15s", name));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(Locale.ROOT, "%12.1f", histogram.valueAtPercentile(percentile) / 1e3));
+        }
+        report.append(String.format(Locale.ROOT, "%12.1f%n", histogram.max() / 1e3));
+    }
+}
@@ -0,0 +1,129 @@
+package com.kn0824.loadtest;
+
+import com.kn0824.service.CheckoutRequest;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.metrics.LogHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays recorded requests against a {@link CheckoutService} from a number of threads, either as fast as the threads
+ * can go or paced at a fixed rate.
+ * <p>
+ * A paced replay gives request i a due time of i / rate after the start, whichever thread picks it up. Its response
+ * time is measured from that due time, not from when a thread got to it. When the service stalls, the requests that
+ * should have been sent during the stall are then charged for the wait, as they would be with real clients, instead of
+ * being silently delayed by a load generator that waits for each answer (coordinated omission). The service time from
+ * the actual start is reported next to it. An unpaced replay has no schedule, so both measure from the actual start.
+ */
+public final class ReplayRunner {
+
+    // Waits longer than this are parked, the rest is spun so that requests start close to their due time
+    private static final long SPIN_NANOS = 50_000;
+
+    private final CheckoutService service;
+    private final int threads;
+    private final double requestsPerSecond;
+
+    /**
+     * @param service - Service to replay against
+     * @param threads - Number of threads sending requests
+     * @param requestsPerSecond - Rate to pace the replay at, 0 to replay as fast as possible
+     */
+    public ReplayRunner(CheckoutService service, int threads, double requestsPerSecond) {
+        if (threads < 1 || !(requestsPerSecond >= 0)) {
+            throw new IllegalArgumentException("A replay needs at least 1 thread and a rate of 0 or more requests per second. ");
+        }
+        this.service = service;
+        this.threads = threads;
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * Sends requests without recording anything, so that the measured replay doesn't include JIT compilation
+     */
+    public void warmUp(List<CheckoutRequest> requests) {
+        for (CheckoutRequest request : requests) {
+            send(request);
+        }
+    }
+
+    public ReplayReport replay(List<CheckoutRequest> requests) {
+        LogHistogram responseTime = new LogHistogram();
+        LogHistogram serviceTime = new LogHistogram();
+        LongAdder agreements = new LongAdder();
+        LongAdder rejections = new LongAdder();
+        LongAdder failures = new LongAdder();
+        AtomicInteger next = new AtomicInteger();
+        double intervalNanos = requestsPerSecond > 0 ? 1e9 / requestsPerSecond : 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> senders = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                senders.add(executor.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < requests.size(); i = next.getAndIncrement()) {
+                        long due = intervalNanos > 0 ? start + (long) (i * intervalNanos) : 0;
+                        if (intervalNanos > 0) {
+                            waitUntil(due);
+                        }
+                        long begin = System.nanoTime();
+                        Outcome outcome = send(requests.get(i));
+                        long end = System.nanoTime();
+                        serviceTime.record(end - begin);
+                        responseTime.record(end - (intervalNanos > 0 ? due : begin));
+                        (outcome == Outcome.AGREEMENT ? agreements : outcome == Outcome.REJECTION ? rejections : failures).increment();
+                    }
+                }));
+            }
+            for (Future<?> sender : senders) {
+                sender.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A replay thread failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new ReplayReport(requests.size(), agreements.sum(), rejections.sum(), failures.sum(), elapsed, requestsPerSecond,
+                responseTime.snapshot("response_time", Map.of()), serviceTime.snapshot("service_time", Map.of()));
+    }
+
+    private Outcome send(CheckoutRequest request) {
+        try {
+            service.checkout(request.toolCode(), request.checkoutDate(), request.rentalDays(), request.discount());
+            return Outcome.AGREEMENT;
+        } catch (IllegalArgumentException e) {
+            return Outcome.REJECTION;
+        } catch (RuntimeException e) {
+            return Outcome.FAILURE;
+        }
+    }
+
+    private static void waitUntil(long due) {
+        for (long remaining = due - System.nanoTime(); remaining > 0; remaining = due - System.nanoTime()) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private enum Outcome {
+        AGREEMENT, REJECTION, FAILURE
+    }
+}
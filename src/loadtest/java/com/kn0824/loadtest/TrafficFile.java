@@ -0,0 +1,93 @@
+package com.kn0824.loadtest;
+
+import com.kn0824.service.CheckoutRequest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A recording of checkout requests. The file is {@link #MAGIC}, the number of distinct tool codes followed by the
+ * codes, the number of requests, and 12 bytes per request: the tool code's index as a short, the checkout epoch day
+ * and the rental days as ints, and the discount as a short. Integers are big-endian.
+ */
+public final class TrafficFile {
+
+    // "KNT1"
+    static final int MAGIC = 0x4B4E5431;
+
+    private TrafficFile() {
+    }
+
+    /**
+     * @throws IllegalArgumentException If a request has no tool code, there are more distinct tool codes than fit a
+     * short, or a discount doesn't fit a short
+     */
+    public static void write(List<CheckoutRequest> requests, Path file) throws IOException {
+        Map<String, Integer> codeIndexes = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        for (CheckoutRequest request : requests) {
+            if (request.toolCode() == null || request.discount() != (short) request.discount()) {
+                throw new IllegalArgumentException("Recorded requests need a tool code and a discount that fits a short. ");
+            }
+            if (codeIndexes.putIfAbsent(request.toolCode(), codes.size()) == null) {
+                codes.add(request.toolCode());
+            }
+        }
+        if (codes.size() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("A recording can hold at most " + Short.MAX_VALUE + " tool codes. ");
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(codes.size());
+            for (String code : codes) {
+                out.writeUTF(code);
+            }
+            out.writeInt(requests.size());
+            for (CheckoutRequest request : requests) {
+                out.writeShort(codeIndexes.get(request.toolCode()));
+                out.writeInt(Math.toIntExact(request.checkoutDate().toEpochDay()));
+                out.writeInt(request.rentalDays());
+                out.writeShort(request.discount());
+            }
+        }
+    }
+
+    /**
+     * @throws StreamCorruptedException If the file isn't a recording
+     */
+    public static List<CheckoutRequest> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new StreamCorruptedException("Not a traffic recording: " + file);
+            }
+            String[] codes = new String[in.readInt()];
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = in.readUTF();
+            }
+            int count = in.readInt();
+            List<CheckoutRequest> requests = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int codeIndex = in.readShort();
+                if (codeIndex < 0 || codeIndex >= codes.length) {
+                    throw new StreamCorruptedException("Request " + i + " refers to tool code " + codeIndex + " of " + codes.length);
+                }
+                requests.add(new CheckoutRequest(codes[codeIndex], LocalDate.ofEpochDay(in.readInt()), in.readInt(), in.readShort()));
+            }
+            return requests;
+        }
+    }
+}
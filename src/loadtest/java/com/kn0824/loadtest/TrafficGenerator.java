@@ -0,0 +1,87 @@
+package com.kn0824.loadtest;
+
+import com.kn0824.core.calendar.HolidayRule;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.service.CheckoutRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthesizes checkout requests over the tools of a catalog. Tools are picked with a Zipf distribution over their
+ * position in the catalog. Most rentals last a few days, fewer a few weeks, and a tail up to a year. Checkout dates are
+ * spread over 2015 to 2030, with a share placed just before July 4th or Labor Day so that rentals cross the holiday.
+ */
+public final class TrafficGenerator {
+
+    static final String UNKNOWN_TOOL_CODE = "NONE";
+
+    private static final int FIRST_YEAR = 2015;
+    private static final int LAST_YEAR = 2030;
+    private static final HolidayRule[] HOLIDAYS = {HolidayRule.INDEPENDENCE_DAY, HolidayRule.LABOR_DAY};
+
+    private final String[] toolCodes;
+    private final double[] cumulativePopularity;
+
+    public TrafficGenerator(ToolCatalog catalog) {
+        this.toolCodes = catalog.getTools().stream().map(Tool::getToolCode).toArray(String[]::new);
+        if (toolCodes.length == 0) {
+            throw new IllegalArgumentException("The catalog has no tools to request. ");
+        }
+        this.cumulativePopularity = new double[toolCodes.length];
+    }
+
+    public List<CheckoutRequest> generate(TrafficProfile profile) {
+        double total = 0;
+        for (int rank = 0; rank < toolCodes.length; rank++) {
+            total += 1 / Math.pow(rank + 1, profile.popularitySkew());
+            cumulativePopularity[rank] = total;
+        }
+        Random random = new Random(profile.seed());
+        List<CheckoutRequest> requests = new ArrayList<>(profile.requests());
+        for (int i = 0; i < profile.requests(); i++) {
+            String toolCode = toolCodes[pickTool(random.nextDouble() * total)];
+            LocalDate checkoutDate = random.nextDouble() < profile.holidayShare() ? nearHoliday(random) : anyDay(random);
+            int rentalDays = rentalDays(random);
+            int discount = random.nextDouble() < 0.7 ? 0 : 5 * (1 + random.nextInt(20));
+            if (random.nextDouble() < profile.invalidShare()) {
+                switch (random.nextInt(3)) {
+                    case 0 -> toolCode = UNKNOWN_TOOL_CODE;
+                    case 1 -> rentalDays = 0;
+                    default -> discount = 101;
+                }
+            }
+            requests.add(new CheckoutRequest(toolCode, checkoutDate, rentalDays, discount));
+        }
+        return requests;
+    }
+
+    private int pickTool(double point) {
+        int index = Arrays.binarySearch(cumulativePopularity, point);
+        return Math.min(index >= 0 ? index : -index - 1, toolCodes.length - 1);
+    }
+
+    // Up to a week before the holiday and a few days after it
+    private static LocalDate nearHoliday(Random random) {
+        int year = FIRST_YEAR + random.nextInt(LAST_YEAR - FIRST_YEAR + 1);
+        long holiday = HOLIDAYS[random.nextInt(HOLIDAYS.length)].observedEpochDay(year);
+        return LocalDate.ofEpochDay(holiday - 7 + random.nextInt(11));
+    }
+
+    private static LocalDate anyDay(Random random) {
+        LocalDate first = LocalDate.of(FIRST_YEAR, 1, 1);
+        return first.plusDays(random.nextInt((int) (LocalDate.of(LAST_YEAR + 1, 1, 1).toEpochDay() - first.toEpochDay())));
+    }
+
+    private static int rentalDays(Random random) {
+        double length = random.nextDouble();
+        if (length < 0.6) {
+            return 1 + random.nextInt(7);
+        }
+        return length < 0.9 ? 8 + random.nextInt(23) : 31 + random.nextInt(335);
+    }
+}
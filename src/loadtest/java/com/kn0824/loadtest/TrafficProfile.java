@@ -0,0 +1,25 @@
+package com.kn0824.loadtest;
+
+/**
+ * The shape of a synthetic request mix
+ * @param requests - Number of requests to generate
+ * @param seed - Seed of the generator, the same profile always generates the same requests
+ * @param popularitySkew - Zipf exponent of tool popularity, the n-th tool of the catalog is requested in proportion to 1 / n^skew
+ * @param holidayShare - Share of the requests checked out in the week around July 4th or Labor Day, 0 to 1
+ * @param invalidShare - Share of the requests with an unknown tool code, no rental days, or a discount over 100, 0 to 1
+ */
+public record TrafficProfile(int requests, long seed, double popularitySkew, double holidayShare, double invalidShare) {
+
+    public TrafficProfile {
+        if (requests < 0 || popularitySkew < 0 || !(holidayShare >= 0 && holidayShare <= 1) || !(invalidShare >= 0 && invalidShare <= 1)) {
+            throw new IllegalArgumentException("The request count and skew must not be negative, and the shares must be between 0 and 1. ");
+        }
+    }
+
+    /**
+     * @return A mix where a few tools get most of the requests, a third of the rentals touch a holiday, and 2% are invalid
+     */
+    public static TrafficProfile defaults(int requests, long seed) {
+        return new TrafficProfile(requests, seed, 1.1, 0.35, 0.02);
+    }
+}
@@ -0,0 +1,112 @@
+package com.kn0824.core.agreement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Encodes appended characters as UTF-8 into a {@link ByteBuffer}. When a channel is given the buffer is written to it
+ * whenever it fills up, otherwise a full buffer raises {@link java.nio.BufferOverflowException}. A surrogate pair may
+ * be split across appends, so {@link #finish()} must be called after the last one.
+ */
+final class ByteBufferAppendable implements Appendable {
+
+    // Room for the longest UTF-8 encoding of a single code point
+    private static final int MAX_BYTES_PER_CODE_POINT = 4;
+
+    private final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+    private char highSurrogate;
+
+    ByteBufferAppendable(ByteBuffer buffer, WritableByteChannel channel) {
+        this.buffer = buffer;
+        this.channel = channel;
+    }
+
+    @Override
+    public Appendable append(CharSequence text) throws IOException {
+        CharSequence value = text == null ? "null" : text;
+        return append(value, 0, value.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence text, int start, int end) throws IOException {
+        CharSequence value = text == null ? "null" : text;
+        for (int i = start; i < end; i++) {
+            append(value.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (channel != null && buffer.remaining() < MAX_BYTES_PER_CODE_POINT) {
+            flush();
+        }
+        if (c < 0x80 && highSurrogate == 0) {
+            buffer.put((byte) c);
+        } else if (Character.isHighSurrogate(c)) {
+            if (highSurrogate != 0) {
+                buffer.put((byte) '?');
+            }
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c) && highSurrogate != 0) {
+            putCodePoint(Character.toCodePoint(highSurrogate, c));
+            highSurrogate = 0;
+        } else {
+            if (highSurrogate != 0) {
+                // An unpaired surrogate is replaced the same way String.getBytes(UTF_8) does
+                buffer.put((byte) '?');
+                highSurrogate = 0;
+            }
+            putCodePoint(Character.isSurrogate(c) ? '?' : c);
+        }
+        return this;
+    }
+
+    /**
+     * Ends the text: a high surrogate still waiting for its low surrogate is written as '?', and with a channel
+     * everything buffered is written to it
+     */
+    void finish() throws IOException {
+        if (highSurrogate != 0) {
+            if (channel != null && !buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) '?');
+            highSurrogate = 0;
+        }
+        if (channel != null) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes everything buffered so far to the channel
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            buffer.put((byte) codePoint);
+        } else if (codePoint < 0x800) {
+            buffer.put((byte) (0xC0 | (codePoint >> 6)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (codePoint < 0x10000) {
+            buffer.put((byte) (0xE0 | (codePoint >> 12)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        }
+    }
+}
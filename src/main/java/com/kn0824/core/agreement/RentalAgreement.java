@@ -3,16 +3,15 @@ package com.kn0824.core.agreement;
 import com.kn0824.core.tools.Tool;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+import java.util.Objects;
 
+/**
+ * The priced outcome of a checkout. An agreement made with the public constructor is a mutable bean. An agreement made
+ * by {@link #builder()} or {@link #toImmutable()} is immutable, and its setters throw, so it can be handed to any number
+ * of threads without copying. Use {@link #toBuilder()} to derive a changed copy.
+ */
 public class RentalAgreement {
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yy");
-    private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance(Locale.US);
-
     private Tool tool;
     private int rentalDays;
     private LocalDate checkoutDate;
@@ -23,10 +22,18 @@ public class RentalAgreement {
     private int discountPercent;
     private BigDecimal discountAmount;
     private BigDecimal finalAmount;
+    private final boolean immutable;
 
     public RentalAgreement(Tool tool, int rentalDays, LocalDate checkoutDate, LocalDate dueDate, BigDecimal dailyRentalCharge,
                            int chargeDays, BigDecimal preDiscountCharge, int discountPercent,
                            BigDecimal discountAmount, BigDecimal finalAmount) {
+        this(tool, rentalDays, checkoutDate, dueDate, dailyRentalCharge, chargeDays, preDiscountCharge, discountPercent,
+                discountAmount, finalAmount, false);
+    }
+
+    private RentalAgreement(Tool tool, int rentalDays, LocalDate checkoutDate, LocalDate dueDate, BigDecimal dailyRentalCharge,
+                            int chargeDays, BigDecimal preDiscountCharge, int discountPercent,
+                            BigDecimal discountAmount, BigDecimal finalAmount, boolean immutable) {
         this.tool = tool;
         this.rentalDays = rentalDays;
         this.checkoutDate = checkoutDate;
@@ -37,13 +44,20 @@ public class RentalAgreement {
         this.discountPercent = discountPercent;
         this.discountAmount = discountAmount;
         this.finalAmount = finalAmount;
+        this.immutable = immutable;
     }
 
     public Tool getTool() {
         return tool;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setTool(Tool tool) {
+        checkMutable();
         this.tool = tool;
     }
 
@@ -51,7 +65,13 @@ public class RentalAgreement {
         return rentalDays;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setRentalDays(int rentalDays) {
+        checkMutable();
         this.rentalDays = rentalDays;
     }
 
@@ -59,7 +79,13 @@ public class RentalAgreement {
         return checkoutDate;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setCheckoutDate(LocalDate checkoutDate) {
+        checkMutable();
         this.checkoutDate = checkoutDate;
     }
 
@@ -67,7 +93,13 @@ public class RentalAgreement {
         return dailyRentalCharge;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setDailyRentalCharge(BigDecimal dailyRentalCharge) {
+        checkMutable();
         this.dailyRentalCharge = dailyRentalCharge;
     }
 
@@ -75,7 +107,13 @@ public class RentalAgreement {
         return chargeDays;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setChargeDays(int chargeDays) {
+        checkMutable();
         this.chargeDays = chargeDays;
     }
 
@@ -83,7 +121,13 @@ public class RentalAgreement {
         return preDiscountCharge;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setPreDiscountCharge(BigDecimal preDiscountCharge) {
+        checkMutable();
         this.preDiscountCharge = preDiscountCharge;
     }
 
@@ -91,7 +135,13 @@ public class RentalAgreement {
         return discountPercent;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setDiscountPercent(int discountPercent) {
+        checkMutable();
         this.discountPercent = discountPercent;
     }
 
@@ -99,7 +149,13 @@ public class RentalAgreement {
         return discountAmount;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setDiscountAmount(BigDecimal discountAmount) {
+        checkMutable();
         this.discountAmount = discountAmount;
     }
 
@@ -107,7 +163,13 @@ public class RentalAgreement {
         return finalAmount;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setFinalAmount(BigDecimal finalAmount) {
+        checkMutable();
         this.finalAmount = finalAmount;
     }
 
@@ -115,22 +177,148 @@ public class RentalAgreement {
         return dueDate;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the agreement is immutable
+     * @deprecated Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setDueDate(LocalDate dueDate) {
+        checkMutable();
         this.dueDate = dueDate;
     }
 
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * @return This agreement if it and its tool are immutable, otherwise an immutable copy with an immutable copy of the tool
+     */
+    public RentalAgreement toImmutable() {
+        Tool immutableTool = tool == null ? null : tool.toImmutable();
+        return immutable && immutableTool == tool ? this : toBuilder().tool(immutableTool).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return A builder starting from the values of this agreement
+     */
+    public Builder toBuilder() {
+        return new Builder().tool(tool).rentalDays(rentalDays).checkoutDate(checkoutDate).dueDate(dueDate)
+                .dailyRentalCharge(dailyRentalCharge).chargeDays(chargeDays).preDiscountCharge(preDiscountCharge)
+                .discountPercent(discountPercent).discountAmount(discountAmount).finalAmount(finalAmount);
+    }
+
+    /**
+     * @return The agreement as text, laid out by {@link RentalAgreementTemplate#DEFAULT}
+     * @see RentalAgreementRenderer for rendering directly into a writer, buffer, or channel
+     */
     public String prettyPrint() {
-        return String.format("Tool code: %s\n", tool.getToolCode()) +
-                String.format("Tool type: %s\n", tool.getToolType().getType()) +
-                String.format("Tool brand: %s\n", tool.getBrand()) +
-                String.format("Rental days: %d\n", rentalDays) +
-                String.format("Check out date: %s\n", checkoutDate.format(DATE_FORMAT)) +
-                String.format("Due date: %s\n", dueDate.format(DATE_FORMAT)) +
-                String.format("Daily rental charge: %s\n", CURRENCY_FORMAT.format(dailyRentalCharge.setScale(2, RoundingMode.CEILING))) +
-                String.format("Charge days: %d\n", chargeDays) +
-                String.format("Pre-discount charge: %s\n", CURRENCY_FORMAT.format(preDiscountCharge.setScale(2, RoundingMode.CEILING))) +
-                String.format("Discount percent: %d%%\n", discountPercent) +
-                String.format("Discount amount: %s\n", CURRENCY_FORMAT.format(discountAmount.setScale(2, RoundingMode.CEILING))) +
-                String.format("Final charge: %s", CURRENCY_FORMAT.format(finalAmount.setScale(2, RoundingMode.CEILING)));
+        return RentalAgreementRenderer.DEFAULT.render(this);
+    }
+
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("The agreement is immutable. ");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RentalAgreement agreement = (RentalAgreement) o;
+        return rentalDays == agreement.rentalDays && chargeDays == agreement.chargeDays && discountPercent == agreement.discountPercent
+                && Objects.equals(tool, agreement.tool) && Objects.equals(checkoutDate, agreement.checkoutDate)
+                && Objects.equals(dueDate, agreement.dueDate) && Objects.equals(dailyRentalCharge, agreement.dailyRentalCharge)
+                && Objects.equals(preDiscountCharge, agreement.preDiscountCharge) && Objects.equals(discountAmount, agreement.discountAmount)
+                && Objects.equals(finalAmount, agreement.finalAmount);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tool, rentalDays, checkoutDate, dueDate, dailyRentalCharge, chargeDays, preDiscountCharge, discountPercent,
+                discountAmount, finalAmount);
+    }
+
+    /**
+     * Collects the values of an immutable {@link RentalAgreement}
+     */
+    public static final class Builder {
+        private Tool tool;
+        private int rentalDays;
+        private LocalDate checkoutDate;
+        private LocalDate dueDate;
+        private BigDecimal dailyRentalCharge;
+        private int chargeDays;
+        private BigDecimal preDiscountCharge;
+        private int discountPercent;
+        private BigDecimal discountAmount;
+        private BigDecimal finalAmount;
+
+        private Builder() {
+        }
+
+        public Builder tool(Tool tool) {
+            this.tool = tool;
+            return this;
+        }
+
+        public Builder rentalDays(int rentalDays) {
+            this.rentalDays = rentalDays;
+            return this;
+        }
+
+        public Builder checkoutDate(LocalDate checkoutDate) {
+            this.checkoutDate = checkoutDate;
+            return this;
+        }
+
+        public Builder dueDate(LocalDate dueDate) {
+            this.dueDate = dueDate;
+            return this;
+        }
+
+        public Builder dailyRentalCharge(BigDecimal dailyRentalCharge) {
+            this.dailyRentalCharge = dailyRentalCharge;
+            return this;
+        }
+
+        public Builder chargeDays(int chargeDays) {
+            this.chargeDays = chargeDays;
+            return this;
+        }
+
+        public Builder preDiscountCharge(BigDecimal preDiscountCharge) {
+            this.preDiscountCharge = preDiscountCharge;
+            return this;
+        }
+
+        public Builder discountPercent(int discountPercent) {
+            this.discountPercent = discountPercent;
+            return this;
+        }
+
+        public Builder discountAmount(BigDecimal discountAmount) {
+            this.discountAmount = discountAmount;
+            return this;
+        }
+
+        public Builder finalAmount(BigDecimal finalAmount) {
+            this.finalAmount = finalAmount;
+            return this;
+        }
+
+        public RentalAgreement build() {
+            return new RentalAgreement(tool, rentalDays, checkoutDate, dueDate, dailyRentalCharge, chargeDays, preDiscountCharge,
+                    discountPercent, discountAmount, finalAmount, true);
+        }
     }
 }
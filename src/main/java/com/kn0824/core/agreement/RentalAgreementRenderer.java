@@ -0,0 +1,184 @@
+package com.kn0824.core.agreement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+
+/**
+ * Renders {@link RentalAgreement}s from a {@link RentalAgreementTemplate} straight into a caller supplied
+ * {@link Appendable}, {@link ByteBuffer}, or channel. Dates are written as MM/dd/yy and amounts as US currency by hand
+ * rather than through {@code String.format}, {@code NumberFormat}, or {@code DateTimeFormatter}, producing the same text.
+ * Renderers are immutable and can be shared between threads.
+ */
+public final class RentalAgreementRenderer {
+
+    public static final RentalAgreementRenderer DEFAULT = new RentalAgreementRenderer(RentalAgreementTemplate.DEFAULT);
+
+    private static final int CHANNEL_BUFFER_SIZE = 64 * 1024;
+    private static final BigInteger MAX_LONG_CENTS = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final RentalAgreementTemplate template;
+
+    public RentalAgreementRenderer(RentalAgreementTemplate template) {
+        this.template = template;
+    }
+
+    public String render(RentalAgreement agreement) {
+        StringBuilder text = new StringBuilder(320);
+        try {
+            render(agreement, text);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw IOException
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    public void render(RentalAgreement agreement, Appendable out) throws IOException {
+        int fields = template.fieldCount();
+        for (int i = 0; i < fields; i++) {
+            out.append(template.literal(i));
+            appendField(agreement, template.field(i), out);
+        }
+        out.append(template.literal(fields));
+    }
+
+    /**
+     * Renders the agreement as UTF-8 at the buffer's position
+     * @throws java.nio.BufferOverflowException If the buffer doesn't have room for the whole agreement
+     */
+    public void render(RentalAgreement agreement, ByteBuffer buffer) {
+        try {
+            ByteBufferAppendable out = new ByteBufferAppendable(buffer, null);
+            render(agreement, out);
+            out.finish();
+        } catch (IOException e) {
+            // Without a channel nothing is flushed, so no IOException can occur
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Renders agreements one after the other with the separator between them
+     */
+    public void renderAll(Iterable<RentalAgreement> agreements, Appendable out, CharSequence separator) throws IOException {
+        boolean first = true;
+        for (RentalAgreement agreement : agreements) {
+            if (!first) {
+                out.append(separator);
+            }
+            render(agreement, out);
+            first = false;
+        }
+    }
+
+    /**
+     * Renders agreements as UTF-8 to a channel through a single reusable buffer, with the separator between them
+     */
+    public void renderAll(Iterable<RentalAgreement> agreements, WritableByteChannel channel, CharSequence separator) throws IOException {
+        ByteBufferAppendable out = new ByteBufferAppendable(ByteBuffer.allocate(CHANNEL_BUFFER_SIZE), channel);
+        renderAll(agreements, out, separator);
+        out.finish();
+    }
+
+    private static void appendField(RentalAgreement agreement, RentalAgreementTemplate.Field field, Appendable out) throws IOException {
+        switch (field) {
+            case TOOL_CODE -> out.append(agreement.getTool().getToolCode());
+            case TOOL_TYPE -> out.append(agreement.getTool().getToolType().getType());
+            case BRAND -> out.append(agreement.getTool().getBrand());
+            case RENTAL_DAYS -> appendLong(agreement.getRentalDays(), out);
+            case CHECKOUT_DATE -> appendDate(agreement.getCheckoutDate(), out);
+            case DUE_DATE -> appendDate(agreement.getDueDate(), out);
+            case DAILY_RENTAL_CHARGE -> appendCurrency(agreement.getDailyRentalCharge(), out);
+            case CHARGE_DAYS -> appendLong(agreement.getChargeDays(), out);
+            case PRE_DISCOUNT_CHARGE -> appendCurrency(agreement.getPreDiscountCharge(), out);
+            case DISCOUNT_PERCENT -> appendLong(agreement.getDiscountPercent(), out);
+            case DISCOUNT_AMOUNT -> appendCurrency(agreement.getDiscountAmount(), out);
+            case FINAL_AMOUNT -> appendCurrency(agreement.getFinalAmount(), out);
+        }
+    }
+
+    /*
+    MM/dd/yy, where yy is the last two digits of the year of era as DateTimeFormatter prints it
+     */
+    static void appendDate(LocalDate date, Appendable out) throws IOException {
+        int year = date.getYear();
+        int yearOfEra = year >= 1 ? year : 1 - year;
+        appendTwoDigits(date.getMonthValue(), out);
+        out.append('/');
+        appendTwoDigits(date.getDayOfMonth(), out);
+        out.append('/');
+        appendTwoDigits(yearOfEra % 100, out);
+    }
+
+    /*
+    US currency as NumberFormat.getCurrencyInstance(Locale.US) prints it, for example $1,234.56 or -$0.40. Amounts are
+    rounded up to the cent first, matching the setScale(2, RoundingMode.CEILING) the text output has always applied.
+     */
+    static void appendCurrency(BigDecimal amount, Appendable out) throws IOException {
+        BigInteger cents = amount.setScale(2, RoundingMode.CEILING).unscaledValue();
+        if (cents.signum() < 0) {
+            out.append('-');
+            cents = cents.negate();
+        }
+        out.append('$');
+        if (cents.compareTo(MAX_LONG_CENTS) <= 0) {
+            long value = cents.longValue();
+            appendGrouped(value / 100, out);
+            out.append('.');
+            appendTwoDigits((int) (value % 100), out);
+        } else {
+            String digits = cents.toString();
+            int integerDigits = digits.length() - 2;
+            for (int i = 0; i < integerDigits; i++) {
+                if (i > 0 && (integerDigits - i) % 3 == 0) {
+                    out.append(',');
+                }
+                out.append(digits.charAt(i));
+            }
+            out.append('.').append(digits, integerDigits, digits.length());
+        }
+    }
+
+    static void appendLong(long value, Appendable out) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            out.append(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private static void appendGrouped(long value, Appendable out) throws IOException {
+        long divisor = 1;
+        int digits = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+            digits++;
+        }
+        for (; divisor > 0; divisor /= 10, digits--) {
+            out.append((char) ('0' + (value / divisor) % 10));
+            if (digits > 1 && (digits - 1) % 3 == 0) {
+                out.append(',');
+            }
+        }
+    }
+
+    private static void appendTwoDigits(int value, Appendable out) throws IOException {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
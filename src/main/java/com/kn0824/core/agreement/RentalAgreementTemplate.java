@@ -0,0 +1,107 @@
+package com.kn0824.core.agreement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precompiled layout for rendering a {@link RentalAgreement} as text. Templates are written with {@code {field}}
+ * placeholders, for example {@code "Tool code: {toolCode}\n"}, and parsed once into literal and field segments.
+ */
+public final class RentalAgreementTemplate {
+
+    /**
+     * The layout produced by {@link RentalAgreement#prettyPrint()}
+     */
+    public static final RentalAgreementTemplate DEFAULT = compile(
+            "Tool code: {toolCode}\n" +
+            "Tool type: {toolType}\n" +
+            "Tool brand: {brand}\n" +
+            "Rental days: {rentalDays}\n" +
+            "Check out date: {checkoutDate}\n" +
+            "Due date: {dueDate}\n" +
+            "Daily rental charge: {dailyRentalCharge}\n" +
+            "Charge days: {chargeDays}\n" +
+            "Pre-discount charge: {preDiscountCharge}\n" +
+            "Discount percent: {discountPercent}%\n" +
+            "Discount amount: {discountAmount}\n" +
+            "Final charge: {finalAmount}");
+
+    /**
+     * The values a template can refer to, with their placeholder names
+     */
+    public enum Field {
+        TOOL_CODE("toolCode"),
+        TOOL_TYPE("toolType"),
+        BRAND("brand"),
+        RENTAL_DAYS("rentalDays"),
+        CHECKOUT_DATE("checkoutDate"),
+        DUE_DATE("dueDate"),
+        DAILY_RENTAL_CHARGE("dailyRentalCharge"),
+        CHARGE_DAYS("chargeDays"),
+        PRE_DISCOUNT_CHARGE("preDiscountCharge"),
+        DISCOUNT_PERCENT("discountPercent"),
+        DISCOUNT_AMOUNT("discountAmount"),
+        FINAL_AMOUNT("finalAmount");
+
+        private final String placeholder;
+
+        Field(String placeholder) {
+            this.placeholder = placeholder;
+        }
+
+        public String getPlaceholder() {
+            return placeholder;
+        }
+
+        private static Field forPlaceholder(String placeholder) {
+            for (Field field : values()) {
+                if (field.placeholder.equals(placeholder)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unknown template field: " + placeholder);
+        }
+    }
+
+    // Segments alternate between a literal and a field, literals[i] is written before fields[i]
+    private final String[] literals;
+    private final Field[] fields;
+
+    private RentalAgreementTemplate(String[] literals, Field[] fields) {
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    public static RentalAgreementTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<Field> fields = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = template.indexOf('{', position);
+            if (open < 0) {
+                literals.add(template.substring(position));
+                break;
+            }
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed template field at position " + open);
+            }
+            literals.add(template.substring(position, open));
+            fields.add(Field.forPlaceholder(template.substring(open + 1, close)));
+            position = close + 1;
+        }
+        return new RentalAgreementTemplate(literals.toArray(new String[0]), fields.toArray(new Field[0]));
+    }
+
+    int fieldCount() {
+        return fields.length;
+    }
+
+    String literal(int index) {
+        return literals[index];
+    }
+
+    Field field(int index) {
+        return fields[index];
+    }
+}
@@ -0,0 +1,52 @@
+package com.kn0824.core.agreement.codec;
+
+/**
+ * Layout of the binary agreement stream written by {@link BinaryAgreementWriter}.
+ * <p>
+ * The stream starts with {@link #MAGIC} and is followed by records, each introduced by a tag byte:
+ * <ul>
+ *     <li>{@link #TOOL_DEFINITION}: the next tool id, then tool code, type, brand, daily charge, and a byte of charge flags.
+ *     When the flags include {@link #HAS_RATES}, an amount encoding byte and the weekly and monthly rates follow. A tool
+ *     is defined once per stream, the first time an agreement for it is written.</li>
+ *     <li>{@link #AGREEMENT}: an amount encoding byte, tool id, checkout epoch day, days from checkout to due date, rental
+ *     days, charge days, discount percent, then the daily, pre-discount, discount, and final amounts.</li>
+ * </ul>
+ * Integers are zigzag varints. Amounts are normally varint cents, the encoding byte holds two bits per amount marking
+ * amounts that are null, whole cents with a scale above 2, which are written as the scale beyond 2 and the cents, or
+ * that have fractions of a cent, which are written as a scale and the unscaled two's complement bytes. Every amount
+ * is read back with the scale it was written with.
+ * Strings are a varint of the UTF-8 length plus one, with zero meaning null, followed by the bytes.
+ * <p>
+ * Streams starting with {@link #MAGIC_V1} were written before tools carried rates. They are read the same way, since
+ * their tool definitions never set {@link #HAS_RATES}.
+ */
+final class BinaryAgreementFormat {
+
+    // "RAG2"
+    static final int MAGIC = 0x52414732;
+    // "RAG1"
+    static final int MAGIC_V1 = 0x52414731;
+    static final byte TOOL_DEFINITION = 1;
+    static final byte AGREEMENT = 2;
+
+    static final int AMOUNT_CENTS = 0;
+    static final int AMOUNT_DECIMAL = 1;
+    static final int AMOUNT_NULL = 2;
+    static final int AMOUNT_SCALED_CENTS = 3;
+
+    static final int WEEKDAY_CHARGE = 1;
+    static final int WEEKEND_CHARGE = 2;
+    static final int HOLIDAY_CHARGE = 4;
+    static final int HAS_RATES = 8;
+
+    private BinaryAgreementFormat() {
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
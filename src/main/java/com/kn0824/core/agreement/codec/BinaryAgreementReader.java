@@ -0,0 +1,214 @@
+package com.kn0824.core.agreement.codec;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolType;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads agreements written by {@link BinaryAgreementWriter} from a channel. Tools defined in the stream are rebuilt once
+ * and shared by every agreement that refers to them. Not thread safe.
+ */
+public class BinaryAgreementReader implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final List<Tool> tools = new ArrayList<>();
+    private boolean headerRead;
+
+    public BinaryAgreementReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BinaryAgreementReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 256));
+        buffer.flip();
+    }
+
+    /**
+     * @return The next agreement, or null at the end of the stream
+     * @throws EOFException If the stream ends in the middle of a record
+     */
+    public RentalAgreement read() throws IOException {
+        if (!headerRead) {
+            if (!fill(4)) {
+                throw new EOFException("Missing agreement stream header");
+            }
+            int magic = buffer.getInt();
+            if (magic != BinaryAgreementFormat.MAGIC && magic != BinaryAgreementFormat.MAGIC_V1) {
+                throw new StreamCorruptedException("Not a binary agreement stream");
+            }
+            headerRead = true;
+        }
+        while (fill(1)) {
+            byte tag = buffer.get();
+            if (tag == BinaryAgreementFormat.TOOL_DEFINITION) {
+                readToolDefinition();
+            } else if (tag == BinaryAgreementFormat.AGREEMENT) {
+                return readAgreement();
+            } else {
+                throw new StreamCorruptedException("Unknown record tag " + tag);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Every remaining agreement in the stream
+     */
+    public List<RentalAgreement> readAll() throws IOException {
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (RentalAgreement agreement = read(); agreement != null; agreement = read()) {
+            agreements.add(agreement);
+        }
+        return agreements;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void readToolDefinition() throws IOException {
+        int toolId = (int) readVarint();
+        if (toolId != tools.size()) {
+            throw new StreamCorruptedException("Tool " + toolId + " defined out of order");
+        }
+        String toolCode = readString();
+        String type = readString();
+        String brand = readString();
+        int encoding = readByte();
+        BigDecimal dailyCharge = readAmount(encoding);
+        int flags = readByte();
+        BigDecimal weeklyCharge = null;
+        BigDecimal monthlyCharge = null;
+        if ((flags & BinaryAgreementFormat.HAS_RATES) != 0) {
+            int rateEncoding = readByte();
+            weeklyCharge = readAmount(rateEncoding);
+            monthlyCharge = readAmount(rateEncoding >> 2);
+        }
+        ToolType toolType = ToolType.builder().type(type).dailyCharge(dailyCharge).weekdayCharge((flags & BinaryAgreementFormat.WEEKDAY_CHARGE) != 0)
+                .weekendCharge((flags & BinaryAgreementFormat.WEEKEND_CHARGE) != 0).holidayCharge((flags & BinaryAgreementFormat.HOLIDAY_CHARGE) != 0)
+                .weeklyCharge(weeklyCharge).monthlyCharge(monthlyCharge).build();
+        // Immutable, since every agreement of the stream that refers to the tool shares it
+        tools.add(Tool.builder().toolCode(toolCode).toolType(toolType).brand(brand).build());
+    }
+
+    private RentalAgreement readAgreement() throws IOException {
+        int encoding = readByte();
+        int toolId = (int) readVarint();
+        if (toolId >= tools.size()) {
+            throw new StreamCorruptedException("Agreement refers to undefined tool " + toolId);
+        }
+        long checkoutEpochDay = readSigned();
+        long dueOffset = readSigned();
+        int rentalDays = (int) readSigned();
+        int chargeDays = (int) readSigned();
+        int discountPercent = (int) readSigned();
+        BigDecimal dailyCharge = readAmount(encoding);
+        BigDecimal preDiscountCharge = readAmount(encoding >> 2);
+        BigDecimal discountAmount = readAmount(encoding >> 4);
+        BigDecimal finalAmount = readAmount(encoding >> 6);
+        return new RentalAgreement(tools.get(toolId), rentalDays, LocalDate.ofEpochDay(checkoutEpochDay),
+                LocalDate.ofEpochDay(checkoutEpochDay + dueOffset), dailyCharge, chargeDays, preDiscountCharge,
+                discountPercent, discountAmount, finalAmount);
+    }
+
+    private BigDecimal readAmount(int encoding) throws IOException {
+        switch (encoding & 3) {
+            case BinaryAgreementFormat.AMOUNT_CENTS:
+                return BigDecimal.valueOf(readSigned(), 2);
+            case BinaryAgreementFormat.AMOUNT_DECIMAL:
+                int scale = (int) readSigned();
+                byte[] unscaled = readBytes((int) readVarint());
+                return new BigDecimal(new BigInteger(unscaled), scale);
+            case BinaryAgreementFormat.AMOUNT_NULL:
+                return null;
+            case BinaryAgreementFormat.AMOUNT_SCALED_CENTS:
+                int extraScale = (int) readVarint();
+                return BigDecimal.valueOf(readSigned(), 2).setScale(2 + extraScale);
+            default:
+                throw new StreamCorruptedException("Unknown amount encoding " + (encoding & 3));
+        }
+    }
+
+    private String readString() throws IOException {
+        long length = readVarint();
+        if (length == 0) {
+            return null;
+        }
+        return new String(readBytes((int) (length - 1)), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (!fill(1)) {
+                throw new EOFException("Agreement stream ended in the middle of a record");
+            }
+            int chunk = Math.min(length - offset, buffer.remaining());
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return bytes;
+    }
+
+    private long readSigned() throws IOException {
+        return BinaryAgreementFormat.unzigzag(readVarint());
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    private int readByte() throws IOException {
+        if (!fill(1)) {
+            throw new EOFException("Agreement stream ended in the middle of a record");
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /*
+    Makes at least the given number of bytes available in the buffer, returning false if the channel ends first
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+}
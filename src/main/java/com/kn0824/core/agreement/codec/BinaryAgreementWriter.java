@@ -0,0 +1,199 @@
+package com.kn0824.core.agreement.codec;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolType;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Writes a sequence of {@link RentalAgreement}s to a channel in the compact binary layout described by
+ * {@link BinaryAgreementFormat}. Records are encoded straight into one reusable buffer that is written to the channel as
+ * it fills. Tools are interned by instance, so agreements sharing catalog tools only carry a small tool id. Not thread
+ * safe.
+ */
+public class BinaryAgreementWriter implements Closeable, Flushable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    // Upper bound on an agreement record with four amounts in cents, each with a scale
+    private static final int MAX_CENTS_RECORD_SIZE = 2 + 10 * 10 + 4 * 5;
+    private static final long NOT_CENTS = Long.MIN_VALUE;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<Tool, Integer> toolIds = new IdentityHashMap<>();
+
+    public BinaryAgreementWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BinaryAgreementWriter(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 256));
+        buffer.putInt(BinaryAgreementFormat.MAGIC);
+    }
+
+    public void write(RentalAgreement agreement) throws IOException {
+        Tool tool = agreement.getTool();
+        Integer toolId = toolIds.get(tool);
+        if (toolId == null) {
+            toolId = toolIds.size();
+            defineTool(toolId, tool);
+            toolIds.put(tool, toolId);
+        }
+
+        long dailyCents = cents(agreement.getDailyRentalCharge());
+        long preDiscountCents = cents(agreement.getPreDiscountCharge());
+        long discountCents = cents(agreement.getDiscountAmount());
+        long finalCents = cents(agreement.getFinalAmount());
+        int encoding = encoding(agreement.getDailyRentalCharge(), dailyCents)
+                | encoding(agreement.getPreDiscountCharge(), preDiscountCents) << 2
+                | encoding(agreement.getDiscountAmount(), discountCents) << 4
+                | encoding(agreement.getFinalAmount(), finalCents) << 6;
+
+        ensure(MAX_CENTS_RECORD_SIZE);
+        long checkoutEpochDay = agreement.getCheckoutDate().toEpochDay();
+        buffer.put(BinaryAgreementFormat.AGREEMENT);
+        buffer.put((byte) encoding);
+        putVarint(toolId);
+        putSigned(checkoutEpochDay);
+        putSigned(agreement.getDueDate().toEpochDay() - checkoutEpochDay);
+        putSigned(agreement.getRentalDays());
+        putSigned(agreement.getChargeDays());
+        putSigned(agreement.getDiscountPercent());
+        putAmount(agreement.getDailyRentalCharge(), dailyCents);
+        putAmount(agreement.getPreDiscountCharge(), preDiscountCents);
+        putAmount(agreement.getDiscountAmount(), discountCents);
+        putAmount(agreement.getFinalAmount(), finalCents);
+    }
+
+    public void writeAll(Iterable<RentalAgreement> agreements) throws IOException {
+        for (RentalAgreement agreement : agreements) {
+            write(agreement);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Flushes the buffered records and closes the channel
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void defineTool(int toolId, Tool tool) throws IOException {
+        ToolType toolType = tool.getToolType();
+        ensure(16);
+        buffer.put(BinaryAgreementFormat.TOOL_DEFINITION);
+        putVarint(toolId);
+        putString(tool.getToolCode());
+        putString(toolType.getType());
+        putString(tool.getBrand());
+        long dailyCents = cents(toolType.getDailyCharge());
+        ensure(12);
+        buffer.put((byte) encoding(toolType.getDailyCharge(), dailyCents));
+        putAmount(toolType.getDailyCharge(), dailyCents);
+        boolean hasRates = toolType.getWeeklyCharge() != null || toolType.getMonthlyCharge() != null;
+        ensure(1);
+        buffer.put((byte) ((toolType.isWeekdayCharge() ? BinaryAgreementFormat.WEEKDAY_CHARGE : 0)
+                | (toolType.isWeekendCharge() ? BinaryAgreementFormat.WEEKEND_CHARGE : 0)
+                | (toolType.isHolidayCharge() ? BinaryAgreementFormat.HOLIDAY_CHARGE : 0)
+                | (hasRates ? BinaryAgreementFormat.HAS_RATES : 0)));
+        if (hasRates) {
+            long weeklyCents = cents(toolType.getWeeklyCharge());
+            long monthlyCents = cents(toolType.getMonthlyCharge());
+            ensure(21);
+            buffer.put((byte) (encoding(toolType.getWeeklyCharge(), weeklyCents) | encoding(toolType.getMonthlyCharge(), monthlyCents) << 2));
+            putAmount(toolType.getWeeklyCharge(), weeklyCents);
+            putAmount(toolType.getMonthlyCharge(), monthlyCents);
+        }
+    }
+
+    private void putAmount(BigDecimal amount, long cents) throws IOException {
+        int encoding = encoding(amount, cents);
+        if (encoding == BinaryAgreementFormat.AMOUNT_CENTS) {
+            putSigned(cents);
+        } else if (encoding == BinaryAgreementFormat.AMOUNT_SCALED_CENTS) {
+            putVarint(amount.scale() - 2);
+            putSigned(cents);
+        } else if (encoding == BinaryAgreementFormat.AMOUNT_DECIMAL) {
+            byte[] unscaled = amount.unscaledValue().toByteArray();
+            ensure(15 + unscaled.length);
+            putSigned(amount.scale());
+            putVarint(unscaled.length);
+            buffer.put(unscaled);
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            ensure(1);
+            putVarint(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(5 + bytes.length);
+        putVarint(bytes.length + 1L);
+        buffer.put(bytes);
+    }
+
+    private void putSigned(long value) {
+        putVarint(BinaryAgreementFormat.zigzag(value));
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            if (buffer.remaining() < bytes) {
+                throw new IOException("A single field of " + bytes + " bytes doesn't fit in the write buffer");
+            }
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        if (amount == null) {
+            return NOT_CENTS;
+        }
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return NOT_CENTS;
+        }
+    }
+
+    private static int encoding(BigDecimal amount, long cents) {
+        if (amount == null) {
+            return BinaryAgreementFormat.AMOUNT_NULL;
+        }
+        if (cents == NOT_CENTS || amount.scale() < 2) {
+            return BinaryAgreementFormat.AMOUNT_DECIMAL;
+        }
+        return amount.scale() == 2 ? BinaryAgreementFormat.AMOUNT_CENTS : BinaryAgreementFormat.AMOUNT_SCALED_CENTS;
+    }
+}
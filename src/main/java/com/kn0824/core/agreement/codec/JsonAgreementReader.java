@@ -0,0 +1,192 @@
+package com.kn0824.core.agreement.codec;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads agreements written by {@link JsonAgreementWriter}. Each object is parsed field by field by a
+ * {@link JsonTokenizer}, unknown fields are skipped. Malformed input, including values of the wrong kind, raises a
+ * {@link StreamCorruptedException}. Tools are rebuilt from the tool fields and shared between agreements for the same
+ * tool. Not thread safe.
+ */
+public class JsonAgreementReader implements Closeable {
+
+    private final Reader in;
+    private final JsonTokenizer tokenizer;
+    private final Map<String, Tool> tools = new HashMap<>();
+
+    public JsonAgreementReader(Reader in) {
+        this.in = in;
+        this.tokenizer = new JsonTokenizer(in);
+    }
+
+    /**
+     * @return A reader decoding UTF-8 from the channel
+     */
+    public static JsonAgreementReader forChannel(ReadableByteChannel channel) {
+        return new JsonAgreementReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return The next agreement, or null at the end of the input
+     */
+    public RentalAgreement read() throws IOException {
+        int c = tokenizer.skipWhitespace();
+        if (c < 0) {
+            return null;
+        }
+        tokenizer.expect(c, '{');
+
+        String toolCode = null;
+        String type = null;
+        String brand = null;
+        boolean weekdayCharge = false;
+        boolean weekendCharge = false;
+        boolean holidayCharge = false;
+        BigDecimal weeklyCharge = null;
+        BigDecimal monthlyCharge = null;
+        int rentalDays = 0;
+        int chargeDays = 0;
+        int discountPercent = 0;
+        LocalDate checkoutDate = null;
+        LocalDate dueDate = null;
+        BigDecimal dailyRentalCharge = null;
+        BigDecimal preDiscountCharge = null;
+        BigDecimal discountAmount = null;
+        BigDecimal finalAmount = null;
+
+        c = tokenizer.skipWhitespace();
+        while (c != '}') {
+            tokenizer.expect(c, '"');
+            String field = tokenizer.readString();
+            tokenizer.expect(tokenizer.skipWhitespace(), ':');
+            switch (field) {
+                case "toolCode" -> toolCode = tokenizer.readNullableString();
+                case "toolType" -> type = tokenizer.readNullableString();
+                case "brand" -> brand = tokenizer.readNullableString();
+                case "weekdayCharge" -> weekdayCharge = readBoolean();
+                case "weekendCharge" -> weekendCharge = readBoolean();
+                case "holidayCharge" -> holidayCharge = readBoolean();
+                case "weeklyCharge" -> weeklyCharge = readAmount();
+                case "monthlyCharge" -> monthlyCharge = readAmount();
+                case "rentalDays" -> rentalDays = readInt();
+                case "chargeDays" -> chargeDays = readInt();
+                case "discountPercent" -> discountPercent = readInt();
+                case "checkoutDate" -> checkoutDate = readDate();
+                case "dueDate" -> dueDate = readDate();
+                case "dailyRentalCharge" -> dailyRentalCharge = readAmount();
+                case "preDiscountCharge" -> preDiscountCharge = readAmount();
+                case "discountAmount" -> discountAmount = readAmount();
+                case "finalAmount" -> finalAmount = readAmount();
+                default -> tokenizer.skipValue();
+            }
+            c = tokenizer.skipWhitespace();
+            if (c == ',') {
+                // Another field must follow, a trailing comma before '}' is not JSON
+                c = tokenizer.skipWhitespace();
+                tokenizer.expect(c, '"');
+            } else if (c != '}') {
+                throw new StreamCorruptedException("Expected ',' or '}' but found " + JsonTokenizer.describe(c));
+            }
+        }
+
+        Tool tool = internTool(toolCode, type, brand, dailyRentalCharge, weekdayCharge, weekendCharge, holidayCharge, weeklyCharge, monthlyCharge);
+        return new RentalAgreement(tool, rentalDays, checkoutDate, dueDate, dailyRentalCharge, chargeDays, preDiscountCharge,
+                discountPercent, discountAmount, finalAmount);
+    }
+
+    /**
+     * @return Every remaining agreement in the input
+     */
+    public List<RentalAgreement> readAll() throws IOException {
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (RentalAgreement agreement = read(); agreement != null; agreement = read()) {
+            agreements.add(agreement);
+        }
+        return agreements;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private Tool internTool(String toolCode, String type, String brand, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge,
+                            BigDecimal weeklyCharge, BigDecimal monthlyCharge) {
+        Tool tool = tools.get(toolCode);
+        if (tool != null) {
+            ToolType toolType = tool.getToolType();
+            if (Objects.equals(type, toolType.getType()) && Objects.equals(brand, tool.getBrand()) && Objects.equals(dailyCharge, toolType.getDailyCharge())
+                    && weekdayCharge == toolType.isWeekdayCharge() && weekendCharge == toolType.isWeekendCharge() && holidayCharge == toolType.isHolidayCharge()
+                    && Objects.equals(weeklyCharge, toolType.getWeeklyCharge()) && Objects.equals(monthlyCharge, toolType.getMonthlyCharge())) {
+                return tool;
+            }
+        }
+        // Immutable, since every agreement of the stream that refers to the tool shares it
+        ToolType toolType = ToolType.builder().type(type).dailyCharge(dailyCharge).weekdayCharge(weekdayCharge).weekendCharge(weekendCharge)
+                .holidayCharge(holidayCharge).weeklyCharge(weeklyCharge).monthlyCharge(monthlyCharge).build();
+        tool = Tool.builder().toolCode(toolCode).toolType(toolType).brand(brand).build();
+        tools.put(toolCode, tool);
+        return tool;
+    }
+
+    private boolean readBoolean() throws IOException {
+        String value = tokenizer.readLiteral();
+        if (value.equals("true")) {
+            return true;
+        } else if (value.equals("false")) {
+            return false;
+        }
+        throw new StreamCorruptedException("Expected true or false but found " + value);
+    }
+
+    private int readInt() throws IOException {
+        String value = tokenizer.readLiteral();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw corrupted("Expected an integer but found " + value, e);
+        }
+    }
+
+    private LocalDate readDate() throws IOException {
+        String value = tokenizer.readNullableString();
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw corrupted("Expected a date but found " + value, e);
+        }
+    }
+
+    private BigDecimal readAmount() throws IOException {
+        String value = tokenizer.readLiteral();
+        try {
+            return value.equals("null") ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw corrupted("Expected an amount but found " + value, e);
+        }
+    }
+
+    private static StreamCorruptedException corrupted(String message, Exception cause) {
+        StreamCorruptedException exception = new StreamCorruptedException(message);
+        exception.initCause(cause);
+        return exception;
+    }
+}
@@ -0,0 +1,181 @@
+package com.kn0824.core.agreement.codec;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolType;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Writes {@link RentalAgreement}s as newline delimited JSON, one flat object per agreement, for example
+ * <pre>
+ * {"toolCode":"LADW","toolType":"Ladder","brand":"Werner","weekdayCharge":true,"weekendCharge":true,"holidayCharge":false,
+ *  "rentalDays":3,"checkoutDate":"2020-07-02","dueDate":"2020-07-05","dailyRentalCharge":1.99,"chargeDays":2,
+ *  "preDiscountCharge":3.9800,"discountPercent":10,"discountAmount":0.40,"finalAmount":3.5800}
+ * </pre>
+ * (shown wrapped). Tool types with weekly or monthly rates also get "weeklyCharge" and "monthlyCharge" fields after
+ * "holidayCharge". Values are written directly to the output without building intermediate strings for dates and
+ * whole-cent amounts. Not thread safe.
+ */
+public class JsonAgreementWriter implements Closeable, Flushable {
+
+    private final Appendable out;
+
+    public JsonAgreementWriter(Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * @return A writer encoding UTF-8 to the channel
+     */
+    public static JsonAgreementWriter forChannel(WritableByteChannel channel) {
+        return new JsonAgreementWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    public void write(RentalAgreement agreement) throws IOException {
+        Tool tool = agreement.getTool();
+        ToolType toolType = tool.getToolType();
+        out.append("{\"toolCode\":");
+        appendString(tool.getToolCode());
+        out.append(",\"toolType\":");
+        appendString(toolType.getType());
+        out.append(",\"brand\":");
+        appendString(tool.getBrand());
+        out.append(",\"weekdayCharge\":").append(Boolean.toString(toolType.isWeekdayCharge()));
+        out.append(",\"weekendCharge\":").append(Boolean.toString(toolType.isWeekendCharge()));
+        out.append(",\"holidayCharge\":").append(Boolean.toString(toolType.isHolidayCharge()));
+        // Rates are only written for tool types that have them, so agreements for other tools look as they always have
+        if (toolType.getWeeklyCharge() != null) {
+            out.append(",\"weeklyCharge\":");
+            appendAmount(toolType.getWeeklyCharge());
+        }
+        if (toolType.getMonthlyCharge() != null) {
+            out.append(",\"monthlyCharge\":");
+            appendAmount(toolType.getMonthlyCharge());
+        }
+        out.append(",\"rentalDays\":");
+        appendLong(agreement.getRentalDays());
+        out.append(",\"checkoutDate\":");
+        appendDate(agreement.getCheckoutDate());
+        out.append(",\"dueDate\":");
+        appendDate(agreement.getDueDate());
+        out.append(",\"dailyRentalCharge\":");
+        appendAmount(agreement.getDailyRentalCharge());
+        out.append(",\"chargeDays\":");
+        appendLong(agreement.getChargeDays());
+        out.append(",\"preDiscountCharge\":");
+        appendAmount(agreement.getPreDiscountCharge());
+        out.append(",\"discountPercent\":");
+        appendLong(agreement.getDiscountPercent());
+        out.append(",\"discountAmount\":");
+        appendAmount(agreement.getDiscountAmount());
+        out.append(",\"finalAmount\":");
+        appendAmount(agreement.getFinalAmount());
+        out.append("}\n");
+    }
+
+    public void writeAll(Iterable<RentalAgreement> agreements) throws IOException {
+        for (RentalAgreement agreement : agreements) {
+            write(agreement);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (out instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private void appendString(String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    // ISO-8601, the format LocalDate.parse reads back
+    private void appendDate(LocalDate date) throws IOException {
+        if (date == null) {
+            out.append("null");
+            return;
+        }
+        int year = date.getYear();
+        out.append('"');
+        if (year >= 0 && year <= 9999) {
+            appendPadded(year, 4);
+            out.append('-');
+            appendPadded(date.getMonthValue(), 2);
+            out.append('-');
+            appendPadded(date.getDayOfMonth(), 2);
+        } else {
+            // Signed and expanded years
+            out.append(date.toString());
+        }
+        out.append('"');
+    }
+
+    private void appendAmount(BigDecimal amount) throws IOException {
+        if (amount == null) {
+            out.append("null");
+        } else if (amount.scale() == 2 && amount.precision() < 18) {
+            long cents = amount.movePointRight(2).longValue();
+            if (cents < 0) {
+                out.append('-');
+                cents = -cents;
+            }
+            appendLong(cents / 100);
+            out.append('.');
+            appendPadded((int) (cents % 100), 2);
+        } else {
+            out.append(amount.toPlainString());
+        }
+    }
+
+    private void appendLong(long value) throws IOException {
+        if (value < 0) {
+            out.append(Long.toString(value));
+            return;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    private void appendPadded(int value, int width) throws IOException {
+        for (int divisor = width == 4 ? 1000 : 10; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+}
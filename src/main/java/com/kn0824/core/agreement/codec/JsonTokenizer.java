@@ -0,0 +1,194 @@
+package com.kn0824.core.agreement.codec;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+
+/**
+ * Reads the tokens of flat JSON objects: strings, literals such as numbers, booleans and null, and single structural
+ * characters. Nested objects and arrays are not supported. The input is either a reader, buffered internally, or one
+ * line at a time through {@link #reset(String)}. Malformed input raises a {@link StreamCorruptedException}. Not thread
+ * safe.
+ */
+public final class JsonTokenizer {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Reader in;
+    private final StringBuilder token = new StringBuilder(32);
+    private char[] buffer;
+    private int position;
+    private int limit;
+
+    /**
+     * @param in - The input, read in blocks as the tokens are consumed
+     */
+    public JsonTokenizer(Reader in) {
+        this.in = in;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * A tokenizer without a reader, whose input is set line by line with {@link #reset(String)}
+     */
+    public JsonTokenizer() {
+        this.in = null;
+        this.buffer = new char[128];
+    }
+
+    /**
+     * Replaces the input of a tokenizer made without a reader. The end of the line is the end of the input.
+     */
+    public void reset(String line) {
+        if (in != null) {
+            throw new IllegalStateException("A tokenizer reading from a reader can't be reset. ");
+        }
+        if (line.length() > buffer.length) {
+            buffer = new char[Math.max(line.length(), buffer.length * 2)];
+        }
+        line.getChars(0, line.length(), buffer, 0);
+        position = 0;
+        limit = line.length();
+    }
+
+    /**
+     * @return The next character that isn't whitespace, or -1 at the end of the input
+     */
+    public int skipWhitespace() throws IOException {
+        int c = next();
+        while (c >= 0 && Character.isWhitespace(c)) {
+            c = next();
+        }
+        return c;
+    }
+
+    /**
+     * Steps back over a character just returned by {@link #skipWhitespace()}, so that the next read returns it again.
+     * The end of the input is never stepped over.
+     */
+    public void unread(int c) {
+        if (c >= 0) {
+            position--;
+        }
+    }
+
+    /**
+     * @throws StreamCorruptedException If c isn't the expected character
+     */
+    public void expect(int c, char expected) throws StreamCorruptedException {
+        if (c != expected) {
+            throw new StreamCorruptedException("Expected '" + expected + "' but found " + describe(c));
+        }
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been consumed
+     */
+    public String readString() throws IOException {
+        token.setLength(0);
+        while (true) {
+            int c = next();
+            if (c < 0) {
+                throw new StreamCorruptedException("Unterminated string");
+            } else if (c == '"') {
+                return token.toString();
+            } else if (c == '\\') {
+                int escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> token.append((char) escaped);
+                    case 'n' -> token.append('\n');
+                    case 't' -> token.append('\t');
+                    case 'r' -> token.append('\r');
+                    case 'b' -> token.append('\b');
+                    case 'f' -> token.append('\f');
+                    case 'u' -> {
+                        int codeUnit = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = next();
+                            int value = digit < 0 ? -1 : Character.digit(digit, 16);
+                            if (value < 0) {
+                                throw new StreamCorruptedException("Expected a hex digit in a \\u escape but found " + describe(digit));
+                            }
+                            codeUnit = codeUnit << 4 | value;
+                        }
+                        token.append((char) codeUnit);
+                    }
+                    case -1 -> throw new StreamCorruptedException("Unterminated string");
+                    default -> throw new StreamCorruptedException("Invalid escape \\" + (char) escaped);
+                }
+            } else {
+                token.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * @return A string value, or null for a null literal
+     */
+    public String readNullableString() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            return readString();
+        }
+        unread(c);
+        String literal = readLiteral();
+        if (!literal.equals("null")) {
+            throw new StreamCorruptedException("Expected a string but found " + literal);
+        }
+        return null;
+    }
+
+    /**
+     * @return The text of a number, boolean or null literal, which is not validated
+     */
+    public String readLiteral() throws IOException {
+        token.setLength(0);
+        int c = skipWhitespace();
+        while (c >= 0 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            token.append((char) c);
+            c = next();
+        }
+        unread(c);
+        if (token.isEmpty()) {
+            throw new StreamCorruptedException("Expected a value but found " + describe(c));
+        }
+        return token.toString();
+    }
+
+    /**
+     * Reads and discards a string or literal value
+     */
+    public void skipValue() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            throw new StreamCorruptedException("Nested values are not supported");
+        } else {
+            unread(c);
+            readLiteral();
+        }
+    }
+
+    /**
+     * @return The character quoted for an error message, or "end of input" for -1
+     */
+    public static String describe(int c) {
+        return c < 0 ? "end of input" : "'" + (char) c + "'";
+    }
+
+    private int next() throws IOException {
+        if (position == limit) {
+            if (in == null) {
+                return -1;
+            }
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,62 @@
+package com.kn0824.core.calendar;
+
+/**
+ * Helpers for bitsets stored in {@code long[]} words, least significant bit first.
+ */
+final class BitRanges {
+
+    private BitRanges() {
+    }
+
+    static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    static void set(long[] words, int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    static boolean get(long[] words, int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Counts the set bits between two indexes, both inclusive
+     */
+    static int count(long[] words, int from, int to) {
+        if (to < from) {
+            return 0;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[firstWord] & firstMask);
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            count += Long.bitCount(words[word]);
+        }
+        return count + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    /**
+     * @return For each word, the number of set bits in the words before it
+     */
+    static int[] ranks(long[] words) {
+        int[] ranks = new int[words.length];
+        for (int word = 1; word < words.length; word++) {
+            ranks[word] = ranks[word - 1] + Long.bitCount(words[word - 1]);
+        }
+        return ranks;
+    }
+
+    /**
+     * Counts the set bits before an index in constant time, using the {@link #ranks(long[])} of the words
+     */
+    static int rank(long[] words, int[] ranks, int index) {
+        int word = index >>> 6;
+        return ranks[word] + Long.bitCount(words[word] & ~(-1L << index));
+    }
+}
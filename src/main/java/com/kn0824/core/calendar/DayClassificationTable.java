@@ -0,0 +1,165 @@
+package com.kn0824.core.calendar;
+
+/**
+ * Classifies every day of a fixed range of years as a weekday, a weekend day, or a holiday, so that pricing never
+ * evaluates a holiday rule. Weekend days, holidays, and weekday holidays are each a bitmap over the days of the range,
+ * with the number of set bits before every word stored alongside. Counting the days of a kind in any range is then two
+ * lookups and two popcounts, however long the range.
+ * <p>
+ * The default table covers 1970 to 2100, about 48,000 days, in under 30 KB, and is built once per JVM the first time
+ * the {@link HolidayCalendar#defaultCalendar() default calendar} is asked for. Days outside the range are answered by
+ * the calendar the table was built from. The table is never modified after it is built, so it can be shared freely.
+ */
+public final class DayClassificationTable implements HolidayCalendar {
+
+    public static final int DEFAULT_FIRST_YEAR = 1970;
+    public static final int DEFAULT_LAST_YEAR = 2100;
+
+    private static final int WEEKEND_PERIOD_WORDS = 7;
+
+    private final HolidayCalendar source;
+    private final long firstEpochDay;
+    private final long lastEpochDay;
+    private final long[] weekendDays;
+    private final int[] weekendDayRanks;
+    private final long[] holidays;
+    private final long[] weekdayHolidays;
+    private final int[] weekdayHolidayRanks;
+
+    private DayClassificationTable(HolidayCalendar source, long firstEpochDay, long lastEpochDay, long[] weekendDays, long[] holidays, long[] weekdayHolidays) {
+        this.source = source;
+        this.firstEpochDay = firstEpochDay;
+        this.lastEpochDay = lastEpochDay;
+        this.weekendDays = weekendDays;
+        this.weekendDayRanks = BitRanges.ranks(weekendDays);
+        this.holidays = holidays;
+        this.weekdayHolidays = weekdayHolidays;
+        this.weekdayHolidayRanks = BitRanges.ranks(weekdayHolidays);
+    }
+
+    /**
+     * Classifies every day of the years from January 1st of the first year through December 31st of the last
+     * @param source - Decides which days are holidays, and answers for days outside the years
+     */
+    public static DayClassificationTable build(HolidayCalendar source, int firstYear, int lastYear) {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException("The last year of the table must not be before the first. ");
+        }
+        long firstEpochDay = EpochDays.firstDayOfYear(firstYear);
+        long lastEpochDay = EpochDays.firstDayOfYear(lastYear + 1) - 1;
+        if (lastEpochDay - firstEpochDay >= Integer.MAX_VALUE - 64) {
+            throw new IllegalArgumentException("The table can't hold more than an int range of days. ");
+        }
+        int days = (int) (lastEpochDay - firstEpochDay + 1);
+        // One spare bit so that the day after the last day has a rank
+        int words = BitRanges.wordsFor(days + 1);
+        long[] weekendDays = new long[words];
+        long[] holidays = new long[words];
+        long[] weekdayHolidays = new long[words];
+        // Weeks repeat every 7 words, so only the first 7 words are classified day by day. The copies also set bits past
+        // the last day, which no count ever reads.
+        for (int day = 0; day < Math.min(days, WEEKEND_PERIOD_WORDS * 64); day++) {
+            if (EpochDays.isWeekend(firstEpochDay + day)) {
+                BitRanges.set(weekendDays, day);
+            }
+        }
+        for (int word = WEEKEND_PERIOD_WORDS; word < words; word++) {
+            weekendDays[word] = weekendDays[word - WEEKEND_PERIOD_WORDS];
+        }
+        if (source instanceof ObservedHolidayCalendar observed) {
+            // A handful of observed dates per year, rather than asking the calendar about every day
+            for (HolidayRule rule : observed.getRules()) {
+                for (int year = firstYear - 1; year <= lastYear + 1; year++) {
+                    long holiday = rule.observedEpochDay(year);
+                    if (holiday >= firstEpochDay && holiday <= lastEpochDay) {
+                        BitRanges.set(holidays, (int) (holiday - firstEpochDay));
+                    }
+                }
+            }
+        } else {
+            for (int day = 0; day < days; day++) {
+                if (source.isHoliday(firstEpochDay + day)) {
+                    BitRanges.set(holidays, day);
+                }
+            }
+        }
+        for (int word = 0; word < words; word++) {
+            weekdayHolidays[word] = holidays[word] & ~weekendDays[word];
+        }
+        return new DayClassificationTable(source, firstEpochDay, lastEpochDay, weekendDays, holidays, weekdayHolidays);
+    }
+
+    /**
+     * @return The table of the default holiday rules from {@link #DEFAULT_FIRST_YEAR} to {@link #DEFAULT_LAST_YEAR}, built on first use
+     */
+    public static DayClassificationTable defaultTable() {
+        return DefaultTableHolder.TABLE;
+    }
+
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public long getLastEpochDay() {
+        return lastEpochDay;
+    }
+
+    /**
+     * @return Whether the inclusive range of epoch days lies inside the table
+     */
+    public boolean covers(long firstEpochDay, long lastEpochDay) {
+        return firstEpochDay >= this.firstEpochDay && lastEpochDay <= this.lastEpochDay;
+    }
+
+    @Override
+    public boolean isHoliday(long epochDay) {
+        if (!covers(epochDay, epochDay)) {
+            return source.isHoliday(epochDay);
+        }
+        return BitRanges.get(holidays, (int) (epochDay - firstEpochDay));
+    }
+
+    @Override
+    public int countWeekdayHolidays(long firstEpochDay, long lastEpochDay) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+        if (!covers(firstEpochDay, lastEpochDay)) {
+            return source.countWeekdayHolidays(firstEpochDay, lastEpochDay);
+        }
+        return count(weekdayHolidays, weekdayHolidayRanks, firstEpochDay, lastEpochDay);
+    }
+
+    /**
+     * Counts the chargeable days in an inclusive range of epoch days, the same count as
+     * {@code ChargeableDayCalculator.calculate} gives with this table as its calendar
+     * @throws IllegalArgumentException If the range isn't inside the table
+     */
+    public int chargeableDays(boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge, long firstEpochDay, long lastEpochDay) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+        if (!covers(firstEpochDay, lastEpochDay)) {
+            throw new IllegalArgumentException("The range " + firstEpochDay + " to " + lastEpochDay + " is outside the table. ");
+        }
+        int weekendDayCount = count(weekendDays, weekendDayRanks, firstEpochDay, lastEpochDay);
+        int chargeableDays = weekendCharge ? weekendDayCount : 0;
+        if (weekdayCharge) {
+            // Holidays only matter on weekdays, weekend days follow the weekend rule regardless
+            chargeableDays += (int) (lastEpochDay - firstEpochDay + 1) - weekendDayCount;
+            if (!holidayCharge) {
+                chargeableDays -= count(weekdayHolidays, weekdayHolidayRanks, firstEpochDay, lastEpochDay);
+            }
+        }
+        return chargeableDays;
+    }
+
+    // Set bits of an inclusive range of epoch days inside the table
+    private int count(long[] words, int[] ranks, long firstEpochDay, long lastEpochDay) {
+        return BitRanges.rank(words, ranks, (int) (lastEpochDay - this.firstEpochDay + 1)) - BitRanges.rank(words, ranks, (int) (firstEpochDay - this.firstEpochDay));
+    }
+
+    private static final class DefaultTableHolder {
+        private static final DayClassificationTable TABLE = build(new ObservedHolidayCalendar(DEFAULT_RULES), DEFAULT_FIRST_YEAR, DEFAULT_LAST_YEAR);
+    }
+}
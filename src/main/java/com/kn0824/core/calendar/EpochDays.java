@@ -0,0 +1,60 @@
+package com.kn0824.core.calendar;
+
+/**
+ * Calendar arithmetic on epoch days (days since 1970-01-01) that avoids creating {@link java.time.LocalDate} objects
+ * on hot paths.
+ */
+public final class EpochDays {
+
+    // 1970-01-01 (epoch day 0) was a Thursday, so shifting by 3 lines epoch days up with a Monday-based week
+    private static final int MONDAY_ALIGNMENT = 3;
+    private static final int DAYS_PER_400_YEARS = 146097;
+    // Days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar
+    private static final int DAYS_0000_TO_1970 = 719468;
+
+    private EpochDays() {
+    }
+
+    /**
+     * @return The ISO day of the week, 1 for Monday through 7 for Sunday
+     */
+    public static int dayOfWeek(long epochDay) {
+        return Math.floorMod(epochDay + MONDAY_ALIGNMENT, 7) + 1;
+    }
+
+    public static boolean isWeekend(long epochDay) {
+        return dayOfWeek(epochDay) >= 6;
+    }
+
+    /**
+     * Number of weekdays in the epoch days strictly before the given one, relative to an arbitrary Monday. Only
+     * differences of this value are meaningful.
+     */
+    public static long weekdaysBefore(long epochDay) {
+        long aligned = epochDay + MONDAY_ALIGNMENT;
+        return Math.floorDiv(aligned, 7) * 5 + Math.min(Math.floorMod(aligned, 7), 5);
+    }
+
+    /**
+     * @return The proleptic Gregorian year containing the epoch day
+     */
+    public static int yearOf(long epochDay) {
+        // Works on years starting March 1st so the leap day is the last day of the year
+        long shifted = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(shifted, DAYS_PER_400_YEARS);
+        long dayOfEra = shifted - era * DAYS_PER_400_YEARS;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long year = yearOfEra + era * 400;
+        return (int) (shiftedMonth >= 10 ? year + 1 : year);
+    }
+
+    /**
+     * @return The epoch day of January 1st of the year
+     */
+    public static long firstDayOfYear(int year) {
+        long previous = (long) year - 1;
+        return 365 * previous + Math.floorDiv(previous, 4) - Math.floorDiv(previous, 100) + Math.floorDiv(previous, 400) - 719162;
+    }
+}
@@ -0,0 +1,50 @@
+package com.kn0824.core.calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+
+/**
+ * Answers whether a day is a holiday for the purpose of rental charges. Days are identified by their epoch day
+ * ({@link LocalDate#toEpochDay()}) so that callers iterating over a range don't need to build date objects.
+ */
+public interface HolidayCalendar {
+
+    /**
+     * The holidays the rental rules were written for. The rental rules treat every Monday of September as Labor Day,
+     * not only the first, so the second through last Mondays of September are observed as well.
+     */
+    List<HolidayRule> DEFAULT_RULES = List.of(HolidayRule.INDEPENDENCE_DAY, HolidayRule.LABOR_DAY,
+            HolidayRule.nthDayOfWeek(2, DayOfWeek.MONDAY, Month.SEPTEMBER),
+            HolidayRule.nthDayOfWeek(3, DayOfWeek.MONDAY, Month.SEPTEMBER),
+            HolidayRule.nthDayOfWeek(4, DayOfWeek.MONDAY, Month.SEPTEMBER),
+            HolidayRule.lastDayOfWeek(DayOfWeek.MONDAY, Month.SEPTEMBER));
+
+    /**
+     * @param epochDay - The day to check, as days since 1970-01-01
+     * @return true if the day is an observed holiday
+     */
+    boolean isHoliday(long epochDay);
+
+    /**
+     * Counts the observed holidays falling on a weekday within an inclusive range of days. Holidays on a weekend are
+     * excluded since weekend charging rules apply to them regardless.
+     * @param firstEpochDay - First day of the range, inclusive
+     * @param lastEpochDay - Last day of the range, inclusive
+     * @return The number of weekday holidays in the range
+     */
+    int countWeekdayHolidays(long firstEpochDay, long lastEpochDay);
+
+    default boolean isHoliday(LocalDate date) {
+        return isHoliday(date.toEpochDay());
+    }
+
+    /**
+     * @return A calendar observing the {@link #DEFAULT_RULES}, Independence Day and the Mondays of September. Every
+     * call returns the same {@link DayClassificationTable}, shared by all pricing in the JVM.
+     */
+    static HolidayCalendar defaultCalendar() {
+        return DayClassificationTable.defaultTable();
+    }
+}
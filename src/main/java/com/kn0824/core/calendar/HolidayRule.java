@@ -0,0 +1,67 @@
+package com.kn0824.core.calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+/**
+ * Determines the day on which a holiday is observed in a given year. Rules are only evaluated when a
+ * {@link ObservedHolidayCalendar} builds the table for a year, never while pricing a rental.
+ */
+@FunctionalInterface
+public interface HolidayRule {
+
+    HolidayRule INDEPENDENCE_DAY = fixedDate(Month.JULY, 4);
+    HolidayRule LABOR_DAY = nthDayOfWeek(1, DayOfWeek.MONDAY, Month.SEPTEMBER);
+    HolidayRule MEMORIAL_DAY = lastDayOfWeek(DayOfWeek.MONDAY, Month.MAY);
+    HolidayRule THANKSGIVING = nthDayOfWeek(4, DayOfWeek.THURSDAY, Month.NOVEMBER);
+
+    /**
+     * @param year - The year to evaluate the rule for
+     * @return The epoch day on which the holiday is observed in that year. This may fall in an adjacent year, for example
+     * when a January 1st holiday on a Saturday is observed on the preceding Friday.
+     */
+    long observedEpochDay(int year);
+
+    /**
+     * A holiday on a fixed date. When it falls on a Saturday it is observed the Friday before, and when it falls on a
+     * Sunday it is observed the Monday after.
+     */
+    static HolidayRule fixedDate(Month month, int dayOfMonth) {
+        return year -> {
+            LocalDate date = LocalDate.of(year, month, dayOfMonth);
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.SATURDAY) {
+                return date.toEpochDay() - 1;
+            } else if (dayOfWeek == DayOfWeek.SUNDAY) {
+                return date.toEpochDay() + 1;
+            }
+            return date.toEpochDay();
+        };
+    }
+
+    /**
+     * A holiday on the nth occurrence of a day of the week in a month, such as the first Monday of September
+     */
+    static HolidayRule nthDayOfWeek(int n, DayOfWeek dayOfWeek, Month month) {
+        if (n < 1 || n > 4) {
+            throw new IllegalArgumentException("Only the first through fourth occurrence of a day in a month can be used. ");
+        }
+        return year -> {
+            LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+            int daysUntilFirst = (dayOfWeek.getValue() - firstOfMonth.getDayOfWeek().getValue() + 7) % 7;
+            return firstOfMonth.toEpochDay() + daysUntilFirst + 7L * (n - 1);
+        };
+    }
+
+    /**
+     * A holiday on the last occurrence of a day of the week in a month, such as the last Monday of May
+     */
+    static HolidayRule lastDayOfWeek(DayOfWeek dayOfWeek, Month month) {
+        return year -> {
+            LocalDate lastOfMonth = LocalDate.of(year, month, 1).plusMonths(1).minusDays(1);
+            int daysSinceLast = (lastOfMonth.getDayOfWeek().getValue() - dayOfWeek.getValue() + 7) % 7;
+            return lastOfMonth.toEpochDay() - daysSinceLast;
+        };
+    }
+}
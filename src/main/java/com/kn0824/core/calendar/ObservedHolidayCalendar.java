@@ -0,0 +1,96 @@
+package com.kn0824.core.calendar;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link HolidayCalendar} built from a set of {@link HolidayRule}s. The observed holidays of a year are computed once
+ * into a bitset indexed by day of year and kept in a small direct-mapped cache, so a lookup is a cache slot read
+ * followed by a bit test. Cache slots are replaced without locking, a lost race only means a year is computed twice.
+ */
+public class ObservedHolidayCalendar implements HolidayCalendar {
+
+    private static final int DEFAULT_CACHED_YEARS = 64;
+
+    private final List<HolidayRule> rules;
+    private final AtomicReferenceArray<YearHolidays> years;
+    private final int slotMask;
+
+    public ObservedHolidayCalendar(List<HolidayRule> rules) {
+        this(rules, DEFAULT_CACHED_YEARS);
+    }
+
+    /**
+     * @param rules - The holidays to observe
+     * @param cachedYears - Upper bound on the number of years kept in the cache, rounded up to a power of two
+     */
+    public ObservedHolidayCalendar(List<HolidayRule> rules, int cachedYears) {
+        if (cachedYears < 1) {
+            throw new IllegalArgumentException("At least one year must be cached. ");
+        }
+        this.rules = List.copyOf(rules);
+        int slots = cachedYears == 1 ? 1 : Integer.highestOneBit(cachedYears - 1) << 1;
+        this.years = new AtomicReferenceArray<>(slots);
+        this.slotMask = slots - 1;
+    }
+
+    public List<HolidayRule> getRules() {
+        return rules;
+    }
+
+    @Override
+    public boolean isHoliday(long epochDay) {
+        YearHolidays year = yearHolidays(EpochDays.yearOf(epochDay));
+        return BitRanges.get(year.holidays, (int) (epochDay - year.firstEpochDay));
+    }
+
+    @Override
+    public int countWeekdayHolidays(long firstEpochDay, long lastEpochDay) {
+        int count = 0;
+        for (long rangeStart = firstEpochDay; rangeStart <= lastEpochDay; ) {
+            YearHolidays year = yearHolidays(EpochDays.yearOf(rangeStart));
+            long rangeEnd = Math.min(lastEpochDay, year.lastEpochDay);
+            count += BitRanges.count(year.weekdayHolidays, (int) (rangeStart - year.firstEpochDay), (int) (rangeEnd - year.firstEpochDay));
+            rangeStart = rangeEnd + 1;
+        }
+        return count;
+    }
+
+    private YearHolidays yearHolidays(int year) {
+        int slot = year & slotMask;
+        YearHolidays cached = years.get(slot);
+        if (cached != null && cached.year == year) {
+            return cached;
+        }
+        YearHolidays computed = computeYear(year);
+        years.set(slot, computed);
+        return computed;
+    }
+
+    /*
+    Observed dates can move across a year boundary, so the rules for the neighbouring years are evaluated as well and
+    only the dates inside this year are kept.
+     */
+    private YearHolidays computeYear(int year) {
+        long firstEpochDay = EpochDays.firstDayOfYear(year);
+        long lastEpochDay = EpochDays.firstDayOfYear(year + 1) - 1;
+        int length = (int) (lastEpochDay - firstEpochDay + 1);
+        long[] holidays = new long[BitRanges.wordsFor(length)];
+        long[] weekdayHolidays = new long[holidays.length];
+        for (HolidayRule rule : rules) {
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                long observed = rule.observedEpochDay(ruleYear);
+                if (observed >= firstEpochDay && observed <= lastEpochDay) {
+                    BitRanges.set(holidays, (int) (observed - firstEpochDay));
+                    if (!EpochDays.isWeekend(observed)) {
+                        BitRanges.set(weekdayHolidays, (int) (observed - firstEpochDay));
+                    }
+                }
+            }
+        }
+        return new YearHolidays(year, firstEpochDay, lastEpochDay, holidays, weekdayHolidays);
+    }
+
+    private record YearHolidays(int year, long firstEpochDay, long lastEpochDay, long[] holidays, long[] weekdayHolidays) {
+    }
+}
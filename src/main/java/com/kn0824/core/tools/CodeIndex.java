@@ -0,0 +1,69 @@
+package com.kn0824.core.tools;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing index from strings to dense ids, with linear probing over a power-of-two table. The hash of every key
+ * is kept next to its id, so a probe only calls equals on a full hash match. Built once and then only read.
+ */
+final class CodeIndex {
+
+    private static final int EMPTY = -1;
+
+    private final String[] keys;
+    private final int[] hashes;
+    private final int[] ids;
+    private final int mask;
+
+    /**
+     * @param maxKeys - Most keys that will be added, the table is sized to stay at most half full
+     */
+    CodeIndex(int maxKeys) {
+        int capacity = Integer.highestOneBit(Math.max(2, maxKeys) * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.hashes = new int[capacity];
+        this.ids = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(ids, EMPTY);
+    }
+
+    /**
+     * @return The id of the key, or -1 if it isn't indexed
+     */
+    int get(String key) {
+        if (key == null) {
+            return EMPTY;
+        }
+        int hash = spread(key.hashCode());
+        for (int slot = hash & mask; ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && key.equals(keys[slot])) {
+                return ids[slot];
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Indexes the key under the id unless it is already indexed
+     * @return The id the key is indexed under after the call
+     */
+    int putIfAbsent(String key, int id) {
+        int hash = spread(key.hashCode());
+        int slot = hash & mask;
+        for (; ids[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && key.equals(keys[slot])) {
+                return ids[slot];
+            }
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        ids[slot] = id;
+        return id;
+    }
+
+    // String hashes of short codes differ mostly in the low bits, mix the high bits in before masking
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ hash >>> 16;
+    }
+}
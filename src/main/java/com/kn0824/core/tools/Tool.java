@@ -2,22 +2,39 @@ package com.kn0824.core.tools;
 
 import java.util.Objects;
 
+/**
+ * A rentable tool. A tool made with the public constructor is a mutable bean. A tool made by {@link #builder()},
+ * {@link #withToolType(ToolType)} or {@link #toImmutable()} is immutable, and its setters throw. A {@link ToolCatalog}
+ * only holds immutable tools, so it can share them with any number of threads without copying.
+ */
 public class Tool {
     private String toolCode;
     private ToolType toolType;
     private String brand;
+    private final boolean immutable;
 
     public Tool(String toolCode, ToolType toolType, String brand) {
+        this(toolCode, toolType, brand, false);
+    }
+
+    private Tool(String toolCode, ToolType toolType, String brand, boolean immutable) {
         this.toolCode = toolCode;
         this.toolType = toolType;
         this.brand = brand;
+        this.immutable = immutable;
     }
 
     public String getToolCode() {
         return toolCode;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool is immutable
+     * @deprecated Tools shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setToolCode(String toolCode) {
+        checkMutable();
         this.toolCode = toolCode;
     }
 
@@ -25,7 +42,13 @@ public class Tool {
         return toolType;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool is immutable
+     * @deprecated Tools shared through a {@link ToolCatalog} are immutable. Use {@link #withToolType(ToolType)} instead.
+     */
+    @Deprecated
     public void setToolType(ToolType toolType) {
+        checkMutable();
         this.toolType = toolType;
     }
 
@@ -33,10 +56,54 @@ public class Tool {
         return brand;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool is immutable
+     * @deprecated Tools shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setBrand(String brand) {
+        checkMutable();
         this.brand = brand;
     }
 
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * @return An immutable tool with this code and brand and the given tool type
+     */
+    public Tool withToolType(ToolType toolType) {
+        return new Tool(toolCode, toolType, brand, true);
+    }
+
+    /**
+     * @return This tool if it and its tool type are immutable, otherwise an immutable copy with an immutable copy of the tool type
+     */
+    public Tool toImmutable() {
+        if (immutable && (toolType == null || toolType.isImmutable())) {
+            return this;
+        }
+        return withToolType(toolType == null ? null : toolType.toImmutable());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return A builder starting from the values of this tool
+     */
+    public Builder toBuilder() {
+        return new Builder().toolCode(toolCode).toolType(toolType).brand(brand);
+    }
+
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("Tool " + toolCode + " is immutable. ");
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -53,4 +120,35 @@ public class Tool {
     public int hashCode() {
         return Objects.hash(toolCode, toolType, brand);
     }
+
+    /**
+     * Collects the values of an immutable {@link Tool}
+     */
+    public static final class Builder {
+        private String toolCode;
+        private ToolType toolType;
+        private String brand;
+
+        private Builder() {
+        }
+
+        public Builder toolCode(String toolCode) {
+            this.toolCode = toolCode;
+            return this;
+        }
+
+        public Builder toolType(ToolType toolType) {
+            this.toolType = toolType;
+            return this;
+        }
+
+        public Builder brand(String brand) {
+            this.brand = brand;
+            return this;
+        }
+
+        public Tool build() {
+            return new Tool(toolCode, toolType, brand, true);
+        }
+    }
 }
@@ -0,0 +1,232 @@
+package com.kn0824.core.tools;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the tools that can be rented and their tool types. A new snapshot is built whenever the
+ * catalog is reloaded, so a reader holding on to one always sees a complete, consistent set of tools.
+ * <p>
+ * Tools and tool types get dense integer ids when the snapshot is built. Tool codes and type names are looked up
+ * through open-addressing indexes, and the pricing inputs of every tool type (daily, weekly and monthly charges in
+ * cents and charge flags) are copied into parallel primitive arrays, so a checkout can be priced from a tool id without
+ * touching the {@link Tool} and {@link ToolType} objects. Those objects are kept once per id for building agreements.
+ * <p>
+ * The catalog only holds immutable tools and tool types. Mutable ones passed to the constructor are replaced by
+ * immutable copies, so a caller changing them afterwards doesn't change the catalog. Every field is final and every
+ * array is filled in the constructor, so a snapshot is fully visible to any thread that obtains a reference to it, even
+ * one published without synchronization. Readers never see a half built catalog or a tool whose charges change
+ * underneath them.
+ */
+public final class ToolCatalog {
+
+    public static final int WEEKDAY_CHARGE = 1;
+    public static final int WEEKEND_CHARGE = 2;
+    public static final int HOLIDAY_CHARGE = 4;
+
+    /**
+     * Returned by the id lookups for a code or name that isn't in the catalog
+     */
+    public static final int NOT_FOUND = -1;
+
+    private final CodeIndex toolIndex;
+    private final String[] toolCodes;
+    private final Tool[] tools;
+    private final int[] toolTypeIds;
+    private final int toolCount;
+
+    private final CodeIndex typeIndex;
+    private final ToolType[] toolTypes;
+    private final BigDecimal[] dailyCharges;
+    private final long[] dailyChargeCents;
+    private final byte[] chargeFlags;
+    private final long[] weeklyChargeCents;
+    private final long[] monthlyChargeCents;
+    private final int toolTypeCount;
+    private final List<ToolType> registeredTypes;
+
+    /**
+     * @param toolTypes - The tool types that can be looked up by name. For duplicate names the last one wins.
+     * @param tools - The tools that can be looked up by code. For duplicate codes the last one wins. A tool whose tool
+     *              type isn't in toolTypes still gets a type id, but its type can't be looked up by name.
+     */
+    public ToolCatalog(Collection<ToolType> toolTypes, Collection<Tool> tools) {
+        Map<ToolType, ToolType> immutableTypes = new IdentityHashMap<>();
+        int maxTypes = toolTypes.size() + tools.size();
+        this.typeIndex = new CodeIndex(toolTypes.size());
+        this.toolTypes = new ToolType[maxTypes];
+        Map<ToolType, Integer> typeIds = new IdentityHashMap<>();
+        int typeCount = 0;
+        for (ToolType passedType : toolTypes) {
+            ToolType toolType = immutable(passedType, immutableTypes);
+            int id = toolType.getType() == null ? typeCount : typeIndex.putIfAbsent(toolType.getType(), typeCount);
+            if (id == typeCount) {
+                typeCount++;
+            } else {
+                // Tools still referring to the replaced type get their own id for it below
+                typeIds.remove(this.toolTypes[id]);
+            }
+            this.toolTypes[id] = toolType;
+            typeIds.put(toolType, id);
+        }
+        this.registeredTypes = List.copyOf(Arrays.asList(this.toolTypes).subList(0, typeCount));
+
+        this.toolIndex = new CodeIndex(tools.size());
+        this.toolCodes = new String[tools.size()];
+        this.tools = new Tool[tools.size()];
+        this.toolTypeIds = new int[tools.size()];
+        int toolCount = 0;
+        for (Tool passedTool : tools) {
+            if (passedTool.getToolCode() == null) {
+                continue;
+            }
+            ToolType toolType = immutable(passedTool.getToolType(), immutableTypes);
+            Tool tool = passedTool.isImmutable() && passedTool.getToolType() == toolType ? passedTool : passedTool.withToolType(toolType);
+            int id = toolIndex.putIfAbsent(tool.getToolCode(), toolCount);
+            if (id == toolCount) {
+                toolCount++;
+            }
+            Integer typeId = typeIds.get(tool.getToolType());
+            if (typeId == null) {
+                typeId = typeCount++;
+                this.toolTypes[typeId] = tool.getToolType();
+                typeIds.put(tool.getToolType(), typeId);
+            }
+            this.toolCodes[id] = tool.getToolCode();
+            this.tools[id] = tool;
+            this.toolTypeIds[id] = typeId;
+        }
+        this.toolCount = toolCount;
+        this.toolTypeCount = typeCount;
+
+        this.dailyCharges = new BigDecimal[typeCount];
+        this.dailyChargeCents = new long[typeCount];
+        this.chargeFlags = new byte[typeCount];
+        this.weeklyChargeCents = new long[typeCount];
+        this.monthlyChargeCents = new long[typeCount];
+        for (int id = 0; id < typeCount; id++) {
+            ToolType toolType = this.toolTypes[id];
+            if (toolType != null) {
+                dailyCharges[id] = toolType.getDailyCharge();
+                dailyChargeCents[id] = toolType.getDailyChargeCents();
+                chargeFlags[id] = (byte) ((toolType.isWeekdayCharge() ? WEEKDAY_CHARGE : 0) | (toolType.isWeekendCharge() ? WEEKEND_CHARGE : 0)
+                        | (toolType.isHolidayCharge() ? HOLIDAY_CHARGE : 0));
+                weeklyChargeCents[id] = toolType.getWeeklyChargeCents();
+                monthlyChargeCents[id] = toolType.getMonthlyChargeCents();
+            } else {
+                dailyChargeCents[id] = ToolType.NOT_WHOLE_CENTS;
+                weeklyChargeCents[id] = ToolType.NOT_WHOLE_CENTS;
+                monthlyChargeCents[id] = ToolType.NOT_WHOLE_CENTS;
+            }
+        }
+    }
+
+    /**
+     * @return The tool with the given code, or null if the catalog doesn't contain it
+     */
+    public Tool getTool(String toolCode) {
+        int id = toolIndex.get(toolCode);
+        return id == NOT_FOUND ? null : tools[id];
+    }
+
+    /**
+     * @return The tool type with the given name, or null if the catalog doesn't contain it
+     */
+    public ToolType getToolType(String type) {
+        int id = typeIndex.get(type);
+        return id == NOT_FOUND ? null : toolTypes[id];
+    }
+
+    public Collection<Tool> getTools() {
+        return Collections.unmodifiableList(Arrays.asList(tools).subList(0, toolCount));
+    }
+
+    public Collection<ToolType> getToolTypes() {
+        return registeredTypes;
+    }
+
+    public int size() {
+        return toolCount;
+    }
+
+    /**
+     * @return The id of the tool with the given code, or {@link #NOT_FOUND}
+     */
+    public int toolId(String toolCode) {
+        return toolIndex.get(toolCode);
+    }
+
+    /**
+     * @param toolId - Id between 0 and {@link #size()}
+     */
+    public Tool getTool(int toolId) {
+        return tools[toolId];
+    }
+
+    public String toolCode(int toolId) {
+        return toolCodes[toolId];
+    }
+
+    public int toolTypeId(int toolId) {
+        return toolTypeIds[toolId];
+    }
+
+    /**
+     * @return The number of tool type ids, including types of tools that weren't passed in as tool types
+     */
+    public int toolTypeCount() {
+        return toolTypeCount;
+    }
+
+    /**
+     * @param toolTypeId - Id between 0 and {@link #toolTypeCount()}
+     */
+    public ToolType getToolType(int toolTypeId) {
+        return toolTypes[toolTypeId];
+    }
+
+    public BigDecimal dailyCharge(int toolTypeId) {
+        return dailyCharges[toolTypeId];
+    }
+
+    /**
+     * @return The daily charge in whole cents, or {@link ToolType#NOT_WHOLE_CENTS}
+     */
+    public long dailyChargeCents(int toolTypeId) {
+        return dailyChargeCents[toolTypeId];
+    }
+
+    /**
+     * @return The weekly rate in whole cents, or {@link ToolType#NOT_WHOLE_CENTS} if the type has none
+     */
+    public long weeklyChargeCents(int toolTypeId) {
+        return weeklyChargeCents[toolTypeId];
+    }
+
+    /**
+     * @return The monthly rate in whole cents, or {@link ToolType#NOT_WHOLE_CENTS} if the type has none
+     */
+    public long monthlyChargeCents(int toolTypeId) {
+        return monthlyChargeCents[toolTypeId];
+    }
+
+    /**
+     * @return The {@link #WEEKDAY_CHARGE}, {@link #WEEKEND_CHARGE} and {@link #HOLIDAY_CHARGE} bits of the tool type
+     */
+    public int chargeFlags(int toolTypeId) {
+        return chargeFlags[toolTypeId];
+    }
+
+    // The same immutable copy for every use of a mutable tool type, so tools sharing a type keep sharing its id
+    private static ToolType immutable(ToolType toolType, Map<ToolType, ToolType> immutableTypes) {
+        if (toolType == null || toolType.isImmutable()) {
+            return toolType;
+        }
+        return immutableTypes.computeIfAbsent(toolType, ToolType::toImmutable);
+    }
+}
@@ -3,27 +3,71 @@ package com.kn0824.core.tools;
 import java.math.BigDecimal;
 import java.util.Objects;
 
+/**
+ * How a kind of tool is charged: a daily charge for the day kinds flagged as chargeable, and optionally weekly and
+ * monthly rates that bill a whole block of 7 or 30 consecutive days at a fixed price. A tool type made with a public
+ * constructor is a mutable bean. A tool type made by {@link #builder()} or {@link #toImmutable()} is immutable, and its
+ * setters throw. A {@link ToolCatalog} only holds immutable tool types, so their charges never change underneath a
+ * checkout. Use {@link #toBuilder()} to derive a changed copy.
+ */
 public class ToolType {
 
+    /**
+     * Returned by {@link #getDailyChargeCents()} when the daily charge has a fraction of a cent
+     */
+    public static final long NOT_WHOLE_CENTS = Long.MIN_VALUE;
+
     private String type;
     private BigDecimal dailyCharge;
+    private long dailyChargeCents;
     private boolean weekdayCharge;
     private boolean weekendCharge;
     private boolean holidayCharge;
+    private BigDecimal weeklyCharge;
+    private long weeklyChargeCents;
+    private BigDecimal monthlyCharge;
+    private long monthlyChargeCents;
+    private final boolean immutable;
 
     public ToolType(String type, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        this(type, dailyCharge, weekdayCharge, weekendCharge, holidayCharge, null, null);
+    }
+
+    /**
+     * @param weeklyCharge - Price of 7 consecutive days, or null if the tool type has no weekly rate
+     * @param monthlyCharge - Price of 30 consecutive days, or null if the tool type has no monthly rate
+     */
+    public ToolType(String type, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge,
+                    BigDecimal weeklyCharge, BigDecimal monthlyCharge) {
+        this(type, dailyCharge, weekdayCharge, weekendCharge, holidayCharge, weeklyCharge, monthlyCharge, false);
+    }
+
+    private ToolType(String type, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge,
+                     BigDecimal weeklyCharge, BigDecimal monthlyCharge, boolean immutable) {
         this.type = type;
         this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = toCents(dailyCharge);
         this.weekdayCharge = weekdayCharge;
         this.weekendCharge = weekendCharge;
         this.holidayCharge = holidayCharge;
+        this.weeklyCharge = weeklyCharge;
+        this.weeklyChargeCents = toCents(weeklyCharge);
+        this.monthlyCharge = monthlyCharge;
+        this.monthlyChargeCents = toCents(monthlyCharge);
+        this.immutable = immutable;
     }
 
     public String getType() {
         return type;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool type is immutable
+     * @deprecated Tool types shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setType(String type) {
+        checkMutable();
         this.type = type;
     }
 
@@ -31,15 +75,35 @@ public class ToolType {
         return dailyCharge;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool type is immutable
+     * @deprecated Tool types shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setDailyCharge(BigDecimal dailyCharge) {
+        checkMutable();
         this.dailyCharge = dailyCharge;
+        this.dailyChargeCents = toCents(dailyCharge);
+    }
+
+    /**
+     * @return The daily charge as a whole number of cents, or {@link #NOT_WHOLE_CENTS} if it can't be represented exactly
+     */
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
     }
 
     public boolean isWeekdayCharge() {
         return weekdayCharge;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool type is immutable
+     * @deprecated Tool types shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setWeekdayCharge(boolean weekdayCharge) {
+        checkMutable();
         this.weekdayCharge = weekdayCharge;
     }
 
@@ -47,7 +111,13 @@ public class ToolType {
         return weekendCharge;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool type is immutable
+     * @deprecated Tool types shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setWeekendCharge(boolean weekendCharge) {
+        checkMutable();
         this.weekendCharge = weekendCharge;
     }
 
@@ -55,10 +125,106 @@ public class ToolType {
         return holidayCharge;
     }
 
+    /**
+     * @throws UnsupportedOperationException If the tool type is immutable
+     * @deprecated Tool types shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
     public void setHolidayCharge(boolean holidayCharge) {
+        checkMutable();
         this.holidayCharge = holidayCharge;
     }
 
+    /**
+     * @return The price of 7 consecutive days, or null if the tool type has no weekly rate
+     */
+    public BigDecimal getWeeklyCharge() {
+        return weeklyCharge;
+    }
+
+    /**
+     * @throws UnsupportedOperationException If the tool type is immutable
+     * @deprecated Tool types shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
+    public void setWeeklyCharge(BigDecimal weeklyCharge) {
+        checkMutable();
+        this.weeklyCharge = weeklyCharge;
+        this.weeklyChargeCents = toCents(weeklyCharge);
+    }
+
+    /**
+     * @return The weekly rate in whole cents, or {@link #NOT_WHOLE_CENTS} if there is none or it has a fraction of a cent
+     */
+    public long getWeeklyChargeCents() {
+        return weeklyChargeCents;
+    }
+
+    /**
+     * @return The price of 30 consecutive days, or null if the tool type has no monthly rate
+     */
+    public BigDecimal getMonthlyCharge() {
+        return monthlyCharge;
+    }
+
+    /**
+     * @throws UnsupportedOperationException If the tool type is immutable
+     * @deprecated Tool types shared through a {@link ToolCatalog} are immutable. Use {@link #toBuilder()} to derive a changed copy.
+     */
+    @Deprecated
+    public void setMonthlyCharge(BigDecimal monthlyCharge) {
+        checkMutable();
+        this.monthlyCharge = monthlyCharge;
+        this.monthlyChargeCents = toCents(monthlyCharge);
+    }
+
+    /**
+     * @return The monthly rate in whole cents, or {@link #NOT_WHOLE_CENTS} if there is none or it has a fraction of a cent
+     */
+    public long getMonthlyChargeCents() {
+        return monthlyChargeCents;
+    }
+
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * @return This tool type if it is immutable, otherwise an immutable copy of it
+     */
+    public ToolType toImmutable() {
+        return immutable ? this : toBuilder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return A builder starting from the values of this tool type
+     */
+    public Builder toBuilder() {
+        return new Builder().type(type).dailyCharge(dailyCharge).weekdayCharge(weekdayCharge).weekendCharge(weekendCharge)
+                .holidayCharge(holidayCharge).weeklyCharge(weeklyCharge).monthlyCharge(monthlyCharge);
+    }
+
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("Tool type " + type + " is immutable. ");
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return NOT_WHOLE_CENTS;
+        }
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return NOT_WHOLE_CENTS;
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -70,11 +236,73 @@ public class ToolType {
         ToolType toolType = (ToolType) o;
         return weekdayCharge == toolType.weekdayCharge && weekendCharge == toolType.weekendCharge
                 && holidayCharge == toolType.holidayCharge && Objects.equals(type, toolType.type)
-                && Objects.equals(dailyCharge, toolType.dailyCharge);
+                && Objects.equals(dailyCharge, toolType.dailyCharge) && Objects.equals(weeklyCharge, toolType.weeklyCharge)
+                && Objects.equals(monthlyCharge, toolType.monthlyCharge);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, dailyCharge, weekdayCharge, weekendCharge, holidayCharge);
+        return Objects.hash(type, dailyCharge, weekdayCharge, weekendCharge, holidayCharge, weeklyCharge, monthlyCharge);
+    }
+
+    /**
+     * Collects the values of an immutable {@link ToolType}
+     */
+    public static final class Builder {
+        private String type;
+        private BigDecimal dailyCharge;
+        private boolean weekdayCharge;
+        private boolean weekendCharge;
+        private boolean holidayCharge;
+        private BigDecimal weeklyCharge;
+        private BigDecimal monthlyCharge;
+
+        private Builder() {
+        }
+
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder dailyCharge(BigDecimal dailyCharge) {
+            this.dailyCharge = dailyCharge;
+            return this;
+        }
+
+        public Builder weekdayCharge(boolean weekdayCharge) {
+            this.weekdayCharge = weekdayCharge;
+            return this;
+        }
+
+        public Builder weekendCharge(boolean weekendCharge) {
+            this.weekendCharge = weekendCharge;
+            return this;
+        }
+
+        public Builder holidayCharge(boolean holidayCharge) {
+            this.holidayCharge = holidayCharge;
+            return this;
+        }
+
+        /**
+         * @param weeklyCharge - Price of 7 consecutive days, or null for no weekly rate
+         */
+        public Builder weeklyCharge(BigDecimal weeklyCharge) {
+            this.weeklyCharge = weeklyCharge;
+            return this;
+        }
+
+        /**
+         * @param monthlyCharge - Price of 30 consecutive days, or null for no monthly rate
+         */
+        public Builder monthlyCharge(BigDecimal monthlyCharge) {
+            this.monthlyCharge = monthlyCharge;
+            return this;
+        }
+
+        public ToolType build() {
+            return new ToolType(type, dailyCharge, weekdayCharge, weekendCharge, holidayCharge, weeklyCharge, monthlyCharge, true);
+        }
     }
 }
@@ -0,0 +1,78 @@
+package com.kn0824.service;
+
+import com.kn0824.core.agreement.RentalAgreement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of a batch checkout. Each row of the batch either produced a {@link RentalAgreement} or was rejected with the
+ * validation errors that {@link CheckoutService#checkout} would have thrown for it.
+ */
+public class BatchCheckoutResult {
+
+    private final RentalAgreement[] agreements;
+    private final CheckoutValidation[] errors;
+
+    BatchCheckoutResult(RentalAgreement[] agreements, CheckoutValidation[] errors) {
+        this.agreements = agreements;
+        this.errors = errors;
+    }
+
+    public int size() {
+        return agreements.length;
+    }
+
+    /**
+     * @return The agreement for the row, or null if the row was rejected
+     */
+    public RentalAgreement getAgreement(int row) {
+        return agreements[row];
+    }
+
+    /**
+     * @return The validation errors for the row, empty if the row produced an agreement
+     */
+    public Set<CheckoutValidationError> getErrors(int row) {
+        return getValidation(row).errors();
+    }
+
+    /**
+     * @return The validation of the row, {@link CheckoutValidation#VALID} if the row produced an agreement
+     */
+    public CheckoutValidation getValidation(int row) {
+        CheckoutValidation validation = errors[row];
+        return validation == null ? CheckoutValidation.VALID : validation;
+    }
+
+    public boolean isSuccessful(int row) {
+        return agreements[row] != null;
+    }
+
+    /**
+     * @return The agreements of the successful rows, in row order
+     */
+    public List<RentalAgreement> getAgreements() {
+        List<RentalAgreement> successful = new ArrayList<>(agreements.length);
+        for (RentalAgreement agreement : agreements) {
+            if (agreement != null) {
+                successful.add(agreement);
+            }
+        }
+        return successful;
+    }
+
+    /**
+     * @return The indexes of the rejected rows, in row order
+     */
+    public List<Integer> getFailedRows() {
+        List<Integer> failed = new ArrayList<>();
+        for (int row = 0; row < agreements.length; row++) {
+            if (agreements[row] == null) {
+                failed.add(row);
+            }
+        }
+        return failed;
+    }
+}
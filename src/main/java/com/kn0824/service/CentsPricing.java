@@ -0,0 +1,82 @@
+package com.kn0824.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Rental charge arithmetic on whole cents held in {@code long}s.
+ * <p>
+ * The results match the original {@link BigDecimal} computation exactly, including its use of
+ * {@code new BigDecimal(discount / 100.0)}: that value carries the binary representation error of the double, which
+ * matters when the exact discount is a whole number of cents. A discount rate whose double is slightly above the true
+ * percentage then rounds up by one more cent under {@code CEILING}, so those rates are recorded in {@link #ROUNDS_UP}.
+ */
+public final class CentsPricing {
+
+    /**
+     * Returned when an amount is too large for the exact long arithmetic, callers then fall back to BigDecimal
+     */
+    public static final long OUT_OF_RANGE = -1;
+
+    /*
+    The representation error of discount / 100.0 is below 2^-54. Keeping pre-discount amounts below 10^14 cents keeps
+    that error under a hundredth of a cent, so it can't move the ceiling except where the exact value is a whole cent.
+     */
+    static final long MAX_EXACT_CENTS = 100_000_000_000_000L;
+    private static final boolean[] ROUNDS_UP = new boolean[101];
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L};
+
+    static {
+        for (int discount = 0; discount <= 100; discount++) {
+            ROUNDS_UP[discount] = new BigDecimal(discount / 100.0).compareTo(BigDecimal.valueOf(discount, 2)) > 0;
+        }
+    }
+
+    private CentsPricing() {
+    }
+
+    /**
+     * @return The daily charge multiplied by the chargeable days, or {@link #OUT_OF_RANGE}
+     */
+    public static long preDiscountCents(long dailyChargeCents, int chargeDays) {
+        if (dailyChargeCents < 0 || chargeDays < 0 || (chargeDays > 0 && dailyChargeCents > MAX_EXACT_CENTS / chargeDays)) {
+            return OUT_OF_RANGE;
+        }
+        return dailyChargeCents * chargeDays;
+    }
+
+    /**
+     * @param preDiscountCents - A pre-discount amount returned by {@link #preDiscountCents(long, int)}
+     * @param discountPercent - Discount percentage, 0-100
+     * @return The discount amount in cents, rounded up to the next cent
+     */
+    public static long discountCents(long preDiscountCents, int discountPercent) {
+        long scaled = preDiscountCents * discountPercent;
+        long discount = scaled / 100;
+        if (scaled % 100 != 0) {
+            discount++;
+        } else if (preDiscountCents > 0 && ROUNDS_UP[discountPercent]) {
+            discount++;
+        }
+        return discount;
+    }
+
+    /**
+     * @return A BigDecimal with a scale of 2 for the cents amount
+     */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * @param scale - Scale of the result, the BigDecimal computation gives the pre-discount and final amounts the
+     * scale of the daily charge plus 2
+     * @return A BigDecimal with the given scale for the cents amount
+     * @throws ArithmeticException If the cents amount can't be written exactly with the scale
+     */
+    public static BigDecimal toAmount(long cents, int scale) {
+        if (scale >= 2 && scale - 2 < POWERS_OF_TEN.length && Math.abs(cents) <= Long.MAX_VALUE / POWERS_OF_TEN[scale - 2]) {
+            return BigDecimal.valueOf(cents * POWERS_OF_TEN[scale - 2], scale);
+        }
+        return BigDecimal.valueOf(cents, 2).setScale(scale);
+    }
+}
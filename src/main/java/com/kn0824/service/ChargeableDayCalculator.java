@@ -0,0 +1,81 @@
+package com.kn0824.service;
+
+import com.kn0824.core.calendar.DayClassificationTable;
+import com.kn0824.core.calendar.EpochDays;
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+
+import java.time.LocalDate;
+
+/**
+ * Counts chargeable days for a rental without walking the individual dates.
+ * Weekdays and weekend days are counted arithmetically from the epoch day numbers of the range, and the result is then
+ * adjusted for the holidays that fall on a weekday inside it, as reported by the {@link HolidayCalendar}. When the
+ * calendar is a {@link DayClassificationTable} covering the range, the table counts the days from its bitmaps instead.
+ */
+public final class ChargeableDayCalculator {
+
+    private final HolidayCalendar holidayCalendar;
+    // The calendar when it is a table, null otherwise
+    private final DayClassificationTable table;
+
+    public ChargeableDayCalculator(HolidayCalendar holidayCalendar) {
+        this.holidayCalendar = holidayCalendar;
+        this.table = holidayCalendar instanceof DayClassificationTable dayTable ? dayTable : null;
+    }
+
+    public HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
+    }
+
+    /**
+     * Counts the chargeable days for a rental
+     * @param toolType - Tool type whose weekday, weekend, and holiday charge flags apply
+     * @param checkoutDate - The checkout date. This date is not charged, counting starts on the following day.
+     * @param rentalDays - The number of days to rent the tool for
+     * @return The number of days from the day after checkout through the due date that are charged
+     */
+    public int calculate(ToolType toolType, LocalDate checkoutDate, int rentalDays) {
+        long firstDay = checkoutDate.toEpochDay() + 1;
+        return calculate(toolType.isWeekdayCharge(), toolType.isWeekendCharge(), toolType.isHolidayCharge(), firstDay, firstDay + rentalDays - 1);
+    }
+
+    /**
+     * Counts the chargeable days for a rental
+     * @param chargeFlags - The {@link ToolCatalog#chargeFlags(int) charge flags} of the tool type
+     * @see #calculate(ToolType, LocalDate, int)
+     */
+    public int calculate(int chargeFlags, LocalDate checkoutDate, int rentalDays) {
+        long firstDay = checkoutDate.toEpochDay() + 1;
+        return calculate((chargeFlags & ToolCatalog.WEEKDAY_CHARGE) != 0, (chargeFlags & ToolCatalog.WEEKEND_CHARGE) != 0,
+                (chargeFlags & ToolCatalog.HOLIDAY_CHARGE) != 0, firstDay, firstDay + rentalDays - 1);
+    }
+
+    /**
+     * Counts the chargeable days in an inclusive range of epoch days
+     */
+    public int calculate(boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge, long firstDay, long lastDay) {
+        if (lastDay < firstDay) {
+            return 0;
+        }
+        if (table != null && table.covers(firstDay, lastDay)) {
+            return table.chargeableDays(weekdayCharge, weekendCharge, holidayCharge, firstDay, lastDay);
+        }
+
+        long weekdays = EpochDays.weekdaysBefore(lastDay + 1) - EpochDays.weekdaysBefore(firstDay);
+        long weekendDays = (lastDay - firstDay + 1) - weekdays;
+        long chargeableDays = 0;
+        if (weekdayCharge) {
+            chargeableDays += weekdays;
+            // Holidays only matter on weekdays, weekend days follow the weekend rule regardless
+            if (!holidayCharge) {
+                chargeableDays -= holidayCalendar.countWeekdayHolidays(firstDay, lastDay);
+            }
+        }
+        if (weekendCharge) {
+            chargeableDays += weekendDays;
+        }
+        return Math.toIntExact(chargeableDays);
+    }
+}
@@ -0,0 +1,14 @@
+package com.kn0824.service;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The parameters of a single {@link CheckoutService#checkout(String, LocalDate, int, int)} call, used for batch checkouts
+ */
+public record CheckoutRequest(String toolCode, LocalDate checkoutDate, int rentalDays, int discount) {
+
+    public CheckoutRequest {
+        Objects.requireNonNull(checkoutDate, "checkoutDate");
+    }
+}
@@ -1,35 +1,98 @@
 package com.kn0824.service;
 
 import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.calendar.HolidayCalendar;
 import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
 import com.kn0824.core.tools.ToolType;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
+import com.kn0824.service.catalog.ToolCatalogLoader;
+import com.kn0824.service.catalog.SnapshotToolCatalogProvider;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import com.kn0824.service.ledger.RentalLedger;
+import com.kn0824.service.metrics.CheckoutMetrics;
+import com.kn0824.service.reservation.AvailableWindow;
+import com.kn0824.service.reservation.Reservation;
+import com.kn0824.service.reservation.ReservationBook;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.Month;
-import java.time.temporal.TemporalAdjusters;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 public class CheckoutService {
 
-    // Note: Normally I would not implement in this manner. The tools and the tool types would be better served being
-    // stored in a database so that they could be added, modified, and removed without requiring code updates.
-    // For the sake of the scope of this demonstration, we are just going to read the file from stored csv files
-    private static final String TOOLTYPE_CSV_FILE = "/tooltype.csv";
-    private static final String TOOLS_CSV_FILE = "/tools.csv";
-    private Map<String, Tool> toolMapping;
+    private static final Reservation NOT_TRACKED = new Reservation("", 0, 1);
+    private static final CheckoutValidation UNAVAILABLE = CheckoutValidation.of(CheckoutValidationError.TOOL_UNAVAILABLE);
 
+    private final ToolCatalogProvider catalogProvider;
+    private final ChargeableDayCalculator chargeableDayCalculator;
+    private final RentalLedger ledger;
+    private final ReservationBook reservationBook;
+    private final QuoteCache quoteCache;
+    private final CheckoutMetrics metrics;
+
+    /**
+     * Creates a service using the tool catalog bundled on the classpath
+     * @throws UncheckedIOException If the bundled catalog can't be read
+     */
     public CheckoutService() {
-        initialize();
+        this(HolidayCalendar.defaultCalendar());
+    }
+
+    /**
+     * Creates a service using the tool catalog bundled on the classpath
+     * @param holidayCalendar - Calendar deciding which days are treated as holidays when counting chargeable days
+     * @throws UncheckedIOException If the bundled catalog can't be read
+     */
+    public CheckoutService(HolidayCalendar holidayCalendar) {
+        this(ToolCatalogProvider.of(loadBundledCatalog()), holidayCalendar);
+    }
+
+    /**
+     * @param catalogProvider - Source of the tool catalog, consulted on every checkout so that reloaded catalogs take effect
+     */
+    public CheckoutService(ToolCatalogProvider catalogProvider) {
+        this(catalogProvider, HolidayCalendar.defaultCalendar());
+    }
+
+    /**
+     * @param catalogProvider - Source of the tool catalog, consulted on every checkout so that reloaded catalogs take effect
+     * @param holidayCalendar - Calendar deciding which days are treated as holidays when counting chargeable days
+     */
+    public CheckoutService(ToolCatalogProvider catalogProvider, HolidayCalendar holidayCalendar) {
+        this(catalogProvider, holidayCalendar, null);
+    }
+
+    /**
+     * @param catalogProvider - Source of the tool catalog, consulted on every checkout so that reloaded catalogs take effect
+     * @param holidayCalendar - Calendar deciding which days are treated as holidays when counting chargeable days
+     * @param ledger - Ledger every generated agreement is recorded in, or null to not record agreements
+     */
+    public CheckoutService(ToolCatalogProvider catalogProvider, HolidayCalendar holidayCalendar, RentalLedger ledger) {
+        this(builder().catalogProvider(catalogProvider).holidayCalendar(holidayCalendar).ledger(ledger));
+    }
+
+    private CheckoutService(Builder builder) {
+        this.metrics = builder.metrics;
+        this.catalogProvider = builder.catalogProvider != null ? builder.catalogProvider : ToolCatalogProvider.of(loadBundledCatalog(metrics));
+        this.chargeableDayCalculator = new ChargeableDayCalculator(builder.holidayCalendar);
+        this.ledger = builder.ledger;
+        this.reservationBook = builder.reservationBook;
+        this.quoteCache = builder.quoteCache;
+    }
+
+    /**
+     * @return A builder for a service with optional collaborators, defaulting to the bundled catalog and the default holiday calendar
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -39,114 +102,432 @@ public class CheckoutService {
      * @param rentalDays - The number of days to rent the tool for
      * @param discount - Discount Percentage (0-100)
      * @return RentalAgreement for the given parameters
-     * @throws IllegalArgumentException If we are given an invalid tool code, a non-positive number of rental days, or a discount that doesn't fall within the proper range of 0-100
+     * @throws CheckoutValidationException If we are given an invalid tool code, a non-positive number of rental days, or a discount that doesn't fall within the proper range of 0-100,
+     * or if reservations are tracked and the tool is already rented out for any of the days
+     * @throws UncheckedIOException If the agreement can't be recorded in the ledger
+     * @throws IllegalArgumentException If a ledger is configured and can't hold the agreement, for example because the tool's daily charge has fractions of a cent
      */
     public RentalAgreement checkout(String toolCode, LocalDate checkoutDate, int rentalDays, int discount) throws IllegalArgumentException {
-        StringBuilder errMessage = new StringBuilder();
-        Tool toolBeingRequested = toolMapping.get(toolCode);
+        long start = metrics != null ? System.nanoTime() : 0;
+        ToolCatalog catalog = catalogProvider.current();
+        int toolId = catalog.toolId(toolCode);
+        CheckoutValidation validation = validate(toolId, rentalDays, discount);
+        if (!validation.isValid()) {
+            throw reject(validation);
+        }
+        Reservation reservation = reserve(toolCode, checkoutDate, rentalDays);
+        if (reservation == null) {
+            throw reject(UNAVAILABLE);
+        }
+        try {
+            RentalAgreement agreement = price(catalog, toolId, checkoutDate, rentalDays, discount);
+            record(agreement);
+            if (metrics != null) {
+                metrics.recordCheckout(agreement.getTool().getToolType().getType(), rentalDays, System.nanoTime() - start);
+            }
+            return agreement;
+        } catch (RuntimeException e) {
+            release(reservation);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks a request against the current catalog without checking it out. Nothing is thrown and nothing is allocated,
+     * so quote and batch callers can screen requests cheaply. Whether the tool is free isn't checked, since that can
+     * change before the checkout.
+     * @return {@link CheckoutValidation#VALID}, or the errors {@link #checkout(String, LocalDate, int, int)} would reject the request with
+     */
+    public CheckoutValidation validate(String toolCode, int rentalDays, int discount) {
+        return validate(catalogProvider.current().toolId(toolCode), rentalDays, discount);
+    }
+
+    /**
+     * Checks a list of requests against one snapshot of the catalog
+     * @return The validation of each request, indexed by the position of the request
+     * @see #validate(String, int, int)
+     */
+    public CheckoutValidation[] validateAll(List<CheckoutRequest> requests) {
+        ToolCatalog catalog = catalogProvider.current();
+        CheckoutValidation[] validations = new CheckoutValidation[requests.size()];
+        for (int row = 0; row < validations.length; row++) {
+            CheckoutRequest request = requests.get(row);
+            validations[row] = validate(catalog.toolId(request.toolCode()), request.rentalDays(), request.discount());
+        }
+        return validations;
+    }
+
+    /**
+     * Finds the tool of a tool type that is free for the rental period the soonest
+     * @param type - Tool type name, for example "Jackhammer"
+     * @param earliestDate - Earliest acceptable checkout date
+     * @param rentalDays - Number of days the tool is needed
+     * @return The earliest free window, or null if the catalog has no tools of the type. Without reservation tracking every tool is always free.
+     */
+    public AvailableWindow findAvailableTool(String type, LocalDate earliestDate, int rentalDays) {
+        List<Tool> candidates = new ArrayList<>();
+        for (Tool tool : catalogProvider.current().getTools()) {
+            if (tool.getToolType() != null && type.equals(tool.getToolType().getType())) {
+                candidates.add(tool);
+            }
+        }
+        ReservationBook book = reservationBook != null ? reservationBook : new ReservationBook();
+        return book.firstAvailableWindow(candidates, earliestDate, rentalDays);
+    }
+
+    /**
+     * Generates Rental Agreements for a batch of requests, spreading the work over the common fork-join pool.
+     * Invalid rows don't stop the batch, they are reported with their validation errors in the result instead.
+     * When a ledger is configured, the agreements are recorded in row order once the whole batch has been priced. If any
+     * of them can't be recorded, for example because its tool's daily charge has fractions of a cent, none of them are and
+     * an IllegalArgumentException is thrown.
+     * When reservations are tracked and rows of the batch compete for the same tool, which row gets the tool is not defined.
+     * If pricing or recording any row throws, the exception is rethrown and every tool the batch reserved is released.
+     * @param requests - The checkout requests, priced in the order given
+     * @return The agreement or validation errors for each request, indexed by the position of the request
+     */
+    public BatchCheckoutResult checkoutAll(List<CheckoutRequest> requests) {
+        return checkoutAll(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generates Rental Agreements for a stream of requests. The stream is collected before pricing starts.
+     * @see #checkoutAll(List)
+     */
+    public BatchCheckoutResult checkoutAll(Stream<CheckoutRequest> requests) {
+        return checkoutAll(requests.toList(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generates Rental Agreements for a batch of requests using the given pool
+     * @see #checkoutAll(List)
+     */
+    public BatchCheckoutResult checkoutAll(List<CheckoutRequest> requests, ForkJoinPool pool) {
+        long start = metrics != null ? System.nanoTime() : 0;
+        RentalAgreement[] agreements = new RentalAgreement[requests.size()];
+        CheckoutValidation[] errors = new CheckoutValidation[requests.size()];
+        Reservation[] reservations = new Reservation[requests.size()];
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        pool.invoke(new BatchCheckoutTask(catalogProvider.current(), requests, 0, requests.size(), agreements, errors, reservations, failure));
+        try {
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            recordAll(agreements);
+        } catch (RuntimeException e) {
+            // The batch fails as a whole, so none of its rows keep their tools
+            for (Reservation reservation : reservations) {
+                if (reservation != null) {
+                    release(reservation);
+                }
+            }
+            throw e;
+        }
+        if (metrics != null) {
+            recordBatchMetrics(agreements, errors, System.nanoTime() - start);
+        }
+        return new BatchCheckoutResult(agreements, errors);
+    }
+
+    /**
+     * @return The metrics this service records into, or null if metrics are disabled
+     */
+    public CheckoutMetrics getMetrics() {
+        return metrics;
+    }
+
+    private CheckoutValidationException reject(CheckoutValidation validation) {
+        if (metrics != null) {
+            metrics.recordRejection(validation.errors());
+        }
+        return new CheckoutValidationException(validation);
+    }
+
+    // Batch rows aren't timed individually, only the batch as a whole
+    private void recordBatchMetrics(RentalAgreement[] agreements, CheckoutValidation[] errors, long latencyNanos) {
+        for (int row = 0; row < agreements.length; row++) {
+            if (agreements[row] != null) {
+                metrics.recordCheckout(agreements[row].getTool().getToolType().getType(), agreements[row].getRentalDays(), -1);
+            } else {
+                metrics.recordRejection(errors[row].errors());
+            }
+        }
+        metrics.recordBatch(agreements.length, latencyNanos);
+    }
+
+    private static CheckoutValidation validate(int toolId, int rentalDays, int discount) {
+        int bits = 0;
         if (rentalDays <= 0) {
-            errMessage.append("The number of days chosen for rental must be at least 1 day. ");
+            bits |= CheckoutValidationError.INVALID_RENTAL_DAYS.bit();
         }
         if (discount < 0 || discount > 100) {
-            errMessage.append("The discount must be a value between 0 and 100. ");
+            bits |= CheckoutValidationError.INVALID_DISCOUNT.bit();
         }
-        if (toolBeingRequested == null) {
-            errMessage.append("Unknown tool code is being requested. Please confirm the code and try again. ");
-        }
-        if (!errMessage.isEmpty()) {
-            throw new IllegalArgumentException(errMessage.toString());
+        if (toolId == ToolCatalog.NOT_FOUND) {
+            bits |= CheckoutValidationError.UNKNOWN_TOOL_CODE.bit();
         }
+        return CheckoutValidation.of(bits);
+    }
 
+    /*
+    Pricing reads the tool type's charge flags and daily charge from the catalog's primitive arrays by id, the Tool is
+    only fetched to go into the agreement. It runs on whole cents whenever the daily charge allows it, BigDecimals are
+    only created for the agreement. Daily charges with fractions of a cent, or amounts too large for exact long
+    arithmetic, use the BigDecimal path.
+    Tool types with weekly or monthly rates are billed the cheapest combination of blocks found by TieredPricing. The
+    agreement still reports the chargeable days of the whole period, but its pre-discount charge is the block price.
+    Rates are only applied on whole cents, which the catalog loader enforces for tool types that have them.
+     */
+    private RentalAgreement price(ToolCatalog catalog, int toolId, LocalDate checkoutDate, int rentalDays, int discount) {
+        int toolTypeId = catalog.toolTypeId(toolId);
+        Tool toolBeingRequested = catalog.getTool(toolId);
+        BigDecimal dailyCharge = catalog.dailyCharge(toolTypeId);
         LocalDate dueDate = checkoutDate.plusDays(rentalDays);
-        int chargeableDays = calculateChargeableDays(toolBeingRequested, checkoutDate, rentalDays);
-        BigDecimal preDiscountCharge = toolBeingRequested.getToolType().getDailyCharge().multiply(new BigDecimal(chargeableDays).setScale(2, RoundingMode.CEILING));
+        int chargeableDays = calculateChargeableDays(catalog.chargeFlags(toolTypeId), checkoutDate, rentalDays);
+        long dailyChargeCents = catalog.dailyChargeCents(toolTypeId);
+        if (dailyChargeCents != ToolType.NOT_WHOLE_CENTS) {
+            long preDiscountCents = CentsPricing.preDiscountCents(dailyChargeCents, chargeableDays);
+            // The scales of the BigDecimal path: the daily charge's plus 2 before the discount, at least 2 after it
+            int preDiscountScale = dailyCharge.scale() + 2;
+            long weeklyChargeCents = catalog.weeklyChargeCents(toolTypeId);
+            long monthlyChargeCents = catalog.monthlyChargeCents(toolTypeId);
+            if (TieredPricing.isTiered(weeklyChargeCents, monthlyChargeCents)) {
+                preDiscountScale = Math.max(preDiscountScale, 2);
+                preDiscountCents = TieredPricing.cheapestCents(chargeableDayCalculator, catalog.chargeFlags(toolTypeId), checkoutDate.toEpochDay() + 1,
+                        rentalDays, chargeableDays, dailyChargeCents, weeklyChargeCents, monthlyChargeCents);
+            }
+            if (preDiscountCents != CentsPricing.OUT_OF_RANGE) {
+                long discountCents = CentsPricing.discountCents(preDiscountCents, discount);
+                return new RentalAgreement(toolBeingRequested, rentalDays, checkoutDate, dueDate, dailyCharge, chargeableDays,
+                        CentsPricing.toAmount(preDiscountCents, preDiscountScale), discount, CentsPricing.toAmount(discountCents),
+                        CentsPricing.toAmount(preDiscountCents - discountCents, Math.max(preDiscountScale, 2)));
+            }
+        }
+
+        BigDecimal preDiscountCharge = dailyCharge.multiply(new BigDecimal(chargeableDays).setScale(2, RoundingMode.CEILING));
         BigDecimal discountAmount = preDiscountCharge.multiply(new BigDecimal(discount / 100.0)).setScale(2, RoundingMode.CEILING);
         BigDecimal finalCharge = preDiscountCharge.subtract(discountAmount);
 
-        return new RentalAgreement(toolBeingRequested, rentalDays, checkoutDate, dueDate, toolBeingRequested.getToolType().getDailyCharge(), chargeableDays, preDiscountCharge, discount, discountAmount, finalCharge);
+        return new RentalAgreement(toolBeingRequested, rentalDays, checkoutDate, dueDate, dailyCharge, chargeableDays, preDiscountCharge, discount, discountAmount, finalCharge);
     }
 
     /*
-    Method calculates the number of days we can actually charge the user based on the Tool settings (holidays, weekends, etc.)
-    The starting checkoutDate is NOT inclusive. In other words, with a checkout date of Aug 1, and remaining rental days is 3,
-    we will consider the date range as Aug 2, Aug 3, Aug 4.
+    Returns a placeholder reservation when reservations aren't tracked, so that only a real conflict returns null
      */
-    private int calculateChargeableDays(Tool toolBeingRequested, LocalDate checkoutDate, int remainingRentalDays) {
-        int chargeableDays = 0;
-        LocalDate startingDate = checkoutDate.plusDays(1);
-        LocalDate endDate = checkoutDate.plusDays(remainingRentalDays);
-        boolean chargeOnHolidays = toolBeingRequested.getToolType().isHolidayCharge();
-        boolean chargeOnWeekends = toolBeingRequested.getToolType().isWeekendCharge();
-        boolean chargeOnWeekdays = toolBeingRequested.getToolType().isWeekdayCharge();
-        for (LocalDate date = startingDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            boolean isWeekday = isWeekday(date);
-            boolean isHoliday = isHoliday(date);
-            boolean isObservedHoliday = isObservedHoliday(date);
-            boolean isWeekend = isWeekend(date);
-
-            if (isWeekday) {
-                if (chargeOnWeekdays) {
-                    if (!isHoliday && !isObservedHoliday) {
-                        chargeableDays++;
-                    } else if (chargeOnHolidays && (isHoliday || isObservedHoliday)) {
-                        chargeableDays++;
-                    }
-                }
-            } else if (isWeekend && chargeOnWeekends) {
-                chargeableDays++;
-            }
+    private Reservation reserve(String toolCode, LocalDate checkoutDate, int rentalDays) {
+        if (reservationBook == null) {
+            return NOT_TRACKED;
         }
-        return chargeableDays;
+        return reservationBook.tryReserve(toolCode, checkoutDate, rentalDays);
     }
 
-    private boolean isHoliday(LocalDate date) {
-        return date.equals(LocalDate.of(date.getYear(), Month.JULY, 4)) || isLaborDay(date);
+    private void release(Reservation reservation) {
+        if (reservationBook != null) {
+            reservationBook.release(reservation);
+        }
     }
 
-    private boolean isObservedHoliday(LocalDate date) {
-        LocalDate july3rd = LocalDate.of(date.getYear(), Month.JULY, 3);
-        LocalDate july5th = LocalDate.of(date.getYear(), Month.JULY, 5);
+    private void record(RentalAgreement agreement) {
+        if (ledger != null) {
+            try {
+                ledger.append(agreement);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to record the agreement in the ledger", e);
+            }
+        }
+    }
 
-        return (date.equals(july3rd) && july3rd.getDayOfWeek() == DayOfWeek.FRIDAY) || (date.equals(july5th) && july5th.getDayOfWeek() == DayOfWeek.MONDAY);
+    // Nothing of the batch is recorded if any of its agreements can't be
+    private void recordAll(RentalAgreement[] agreements) {
+        if (ledger != null) {
+            List<RentalAgreement> priced = new ArrayList<>(agreements.length);
+            for (RentalAgreement agreement : agreements) {
+                if (agreement != null) {
+                    priced.add(agreement);
+                }
+            }
+            try {
+                ledger.appendAll(priced);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to record the agreements in the ledger", e);
+            }
+        }
     }
 
-    private boolean isLaborDay(LocalDate date) {
-        return date.getMonth() == Month.SEPTEMBER && date.getDayOfWeek() == DayOfWeek.MONDAY && date.with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY)).getDayOfMonth() <= 7;
+    /*
+    Method calculates the number of days we can actually charge the user based on the Tool settings (holidays, weekends, etc.)
+    The starting checkoutDate is NOT inclusive. In other words, with a checkout date of Aug 1, and remaining rental days is 3,
+    we will consider the date range as Aug 2, Aug 3, Aug 4.
+     */
+    private int calculateChargeableDays(int chargeFlags, LocalDate checkoutDate, int remainingRentalDays) {
+        if (quoteCache != null) {
+            return quoteCache.chargeableDays(chargeableDayCalculator, chargeFlags, checkoutDate, remainingRentalDays);
+        }
+        return chargeableDayCalculator.calculate(chargeFlags, checkoutDate, remainingRentalDays);
     }
 
-    private boolean isWeekend(LocalDate date) {
-        DayOfWeek dayOfWeek = date.getDayOfWeek();
-        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+    /*
+    Prices a contiguous slice of a batch, splitting it in halves until the slice is small enough to price directly.
+    Every row is written to its own index, so the slices never touch the same array element. The whole batch is priced
+    against one catalog snapshot, which is shared read-only by all slices along with the holiday calendar.
+     */
+    private final class BatchCheckoutTask extends RecursiveAction {
+        private static final int ROWS_PER_TASK = 512;
+
+        private final ToolCatalog catalog;
+        private final List<CheckoutRequest> requests;
+        private final int from;
+        private final int to;
+        private final RentalAgreement[] agreements;
+        private final CheckoutValidation[] errors;
+        private final Reservation[] reservations;
+        private final AtomicReference<RuntimeException> failure;
+
+        private BatchCheckoutTask(ToolCatalog catalog, List<CheckoutRequest> requests, int from, int to, RentalAgreement[] agreements, CheckoutValidation[] errors,
+                                  Reservation[] reservations, AtomicReference<RuntimeException> failure) {
+            this.catalog = catalog;
+            this.requests = requests;
+            this.from = from;
+            this.to = to;
+            this.agreements = agreements;
+            this.errors = errors;
+            this.reservations = reservations;
+            this.failure = failure;
+        }
+
+        /*
+        A row that throws doesn't fail the task, the exception is kept for checkoutAll instead. Otherwise the pool could
+        report the failure while other rows are still reserving tools, and those reservations would never be released.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchCheckoutTask(catalog, requests, from, middle, agreements, errors, reservations, failure),
+                        new BatchCheckoutTask(catalog, requests, middle, to, agreements, errors, reservations, failure));
+                return;
+            }
+            for (int row = from; row < to && failure.get() == null; row++) {
+                try {
+                    CheckoutRequest request = requests.get(row);
+                    int toolId = catalog.toolId(request.toolCode());
+                    CheckoutValidation validation = validate(toolId, request.rentalDays(), request.discount());
+                    if (validation.isValid()) {
+                        reservations[row] = reserve(request.toolCode(), request.checkoutDate(), request.rentalDays());
+                        if (reservations[row] == null) {
+                            validation = UNAVAILABLE;
+                        }
+                    }
+                    if (validation.isValid()) {
+                        agreements[row] = price(catalog, toolId, request.checkoutDate(), request.rentalDays(), request.discount());
+                    } else {
+                        errors[row] = validation;
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        }
     }
 
-    private boolean isWeekday(LocalDate date) {
-        return !isWeekend(date);
+    private static ToolCatalog loadBundledCatalog() {
+        return loadBundledCatalog(null);
     }
 
-    private void initialize() {
-        Map<String, ToolType> types = createToolTypes();
-        this.toolMapping = new HashMap<>();
-        try (InputStream inputStream = CheckoutService.class.getResourceAsStream(TOOLS_CSV_FILE); CSVReader reader = new CSVReader(new InputStreamReader(inputStream))) {
-            List<String[]> rows = reader.readAll();
-            for (String[] row : rows) {
-                toolMapping.put(row[0], new Tool(row[0], types.get(row[1]), row[2]));
+    private static ToolCatalog loadBundledCatalog(CheckoutMetrics metrics) {
+        long start = System.nanoTime();
+        try {
+            ToolCatalog catalog = ToolCatalogLoader.fromClasspath();
+            if (metrics != null) {
+                metrics.recordCatalogLoad(System.nanoTime() - start);
             }
-        } catch (IOException | CsvException e) {
-            e.printStackTrace();
+            return catalog;
+        } catch (IOException e) {
+            if (metrics != null) {
+                metrics.recordCatalogLoadFailure();
+            }
+            throw new UncheckedIOException("Unable to load the bundled tool catalog", e);
         }
     }
 
-    private Map<String, ToolType> createToolTypes() {
-        Map<String, ToolType> types = new HashMap<>();
-        try (InputStream inputStream = CheckoutService.class.getResourceAsStream(TOOLTYPE_CSV_FILE); CSVReader reader = new CSVReader(new InputStreamReader(inputStream))) {
-            List<String[]> rows = reader.readAll();
-            for (String[] row : rows) {
-                types.put(row[0], new ToolType(row[0], new BigDecimal(row[1]), Boolean.parseBoolean(row[2]), Boolean.parseBoolean(row[3]), Boolean.parseBoolean(row[4])));
-            }
-        } catch (IOException | CsvException e) {
-            e.printStackTrace();
+    /**
+     * Collects the optional collaborators of a {@link CheckoutService}
+     */
+    public static final class Builder {
+        private ToolCatalogProvider catalogProvider;
+        private HolidayCalendar holidayCalendar = HolidayCalendar.defaultCalendar();
+        private RentalLedger ledger;
+        private ReservationBook reservationBook;
+        private QuoteCache quoteCache;
+        private CheckoutMetrics metrics;
+
+        private Builder() {
+        }
+
+        /**
+         * @param catalogProvider - Source of the tool catalog, null for the catalog bundled on the classpath
+         */
+        public Builder catalogProvider(ToolCatalogProvider catalogProvider) {
+            this.catalogProvider = catalogProvider;
+            return this;
+        }
+
+        /**
+         * Starts the service without reading the catalog. The bundled catalog is loaded from its precompiled snapshot by
+         * the first checkout, so creating the service neither parses CSV nor loads OpenCSV.
+         * @see SnapshotToolCatalogProvider#bundled()
+         */
+        public Builder lazyCatalog() {
+            this.catalogProvider = SnapshotToolCatalogProvider.bundled();
+            return this;
+        }
+
+        /**
+         * @param holidayCalendar - Calendar deciding which days are treated as holidays when counting chargeable days
+         */
+        public Builder holidayCalendar(HolidayCalendar holidayCalendar) {
+            this.holidayCalendar = holidayCalendar;
+            return this;
+        }
+
+        /**
+         * @param ledger - Ledger every generated agreement is recorded in, or null to not record agreements
+         */
+        public Builder ledger(RentalLedger ledger) {
+            this.ledger = ledger;
+            return this;
+        }
+
+        /**
+         * @param reservationBook - Bookings checked and updated by every checkout, or null to allow any tool to be rented out any number of times
+         */
+        public Builder reservationBook(ReservationBook reservationBook) {
+            this.reservationBook = reservationBook;
+            return this;
+        }
+
+        /**
+         * @param quoteCache - Cache of chargeable day counts for repeated quotes, or null to count them for every checkout.
+         * The cache must not be shared with a service using a different holiday calendar.
+         */
+        public Builder quoteCache(QuoteCache quoteCache) {
+            this.quoteCache = quoteCache;
+            return this;
+        }
+
+        /**
+         * @param metrics - Metrics to record checkouts, rejections, and the bundled catalog load into, or null to not record any
+         */
+        public Builder metrics(CheckoutMetrics metrics) {
+            this.metrics = metrics;
+            return this;
         }
 
-        return types;
+        /**
+         * @throws UncheckedIOException If no catalog provider was given and the bundled catalog can't be read
+         */
+        public CheckoutService build() {
+            return new CheckoutService(this);
+        }
     }
 }
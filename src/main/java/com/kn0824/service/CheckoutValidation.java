@@ -0,0 +1,100 @@
+package com.kn0824.service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The outcome of validating a checkout request, as a bit mask of {@link CheckoutValidationError#bit() error bits}.
+ * <p>
+ * There is one shared instance for each combination of errors, created with its error set and message when the class
+ * is initialised, so validating a request allocates nothing whether it passes or fails. Instances can be compared
+ * with ==.
+ */
+public final class CheckoutValidation {
+
+    private static final CheckoutValidationError[] ERRORS = CheckoutValidationError.values();
+    private static final CheckoutValidation[] RESULTS = new CheckoutValidation[1 << ERRORS.length];
+
+    static {
+        for (int bits = 0; bits < RESULTS.length; bits++) {
+            Set<CheckoutValidationError> errors = EnumSet.noneOf(CheckoutValidationError.class);
+            for (CheckoutValidationError error : ERRORS) {
+                if ((bits & error.bit()) != 0) {
+                    errors.add(error);
+                }
+            }
+            RESULTS[bits] = new CheckoutValidation(bits, Collections.unmodifiableSet(errors), CheckoutValidationError.describe(errors));
+        }
+    }
+
+    public static final CheckoutValidation VALID = RESULTS[0];
+
+    private final int bits;
+    private final Set<CheckoutValidationError> errors;
+    private final String message;
+
+    private CheckoutValidation(int bits, Set<CheckoutValidationError> errors, String message) {
+        this.bits = bits;
+        this.errors = errors;
+        this.message = message;
+    }
+
+    /**
+     * @param bits - The {@link CheckoutValidationError#bit() bits} of the errors, combined with |
+     * @throws IllegalArgumentException If the mask has bits that aren't errors
+     */
+    public static CheckoutValidation of(int bits) {
+        if (bits < 0 || bits >= RESULTS.length) {
+            throw new IllegalArgumentException("The mask " + Integer.toBinaryString(bits) + " has bits that aren't validation errors. ");
+        }
+        return RESULTS[bits];
+    }
+
+    public static CheckoutValidation of(CheckoutValidationError error) {
+        return RESULTS[error.bit()];
+    }
+
+    public boolean isValid() {
+        return bits == 0;
+    }
+
+    public boolean has(CheckoutValidationError error) {
+        return (bits & error.bit()) != 0;
+    }
+
+    /**
+     * @return The bit mask of the errors, 0 if the request is valid
+     */
+    public int bits() {
+        return bits;
+    }
+
+    /**
+     * @return The errors, unmodifiable and empty if the request is valid
+     */
+    public Set<CheckoutValidationError> errors() {
+        return errors;
+    }
+
+    /**
+     * @return The messages of the errors in declaration order, as {@link CheckoutValidationError#describe(Set)} builds them
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @throws CheckoutValidationException If the request isn't valid
+     */
+    public void throwIfInvalid() {
+        if (bits != 0) {
+            throw new CheckoutValidationException(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "VALID" : errors.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.kn0824.service;
+
+import java.util.Set;
+
+/**
+ * The reasons a checkout request can be rejected. The declaration order is the order in which messages are reported.
+ */
+public enum CheckoutValidationError {
+    INVALID_RENTAL_DAYS("The number of days chosen for rental must be at least 1 day. "),
+    INVALID_DISCOUNT("The discount must be a value between 0 and 100. "),
+    UNKNOWN_TOOL_CODE("Unknown tool code is being requested. Please confirm the code and try again. "),
+    TOOL_UNAVAILABLE("The tool is already rented out for some of the requested days. ");
+
+    private final String message;
+
+    CheckoutValidationError(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return The bit of the error in a {@link CheckoutValidation} mask
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @return The messages of the given errors concatenated in declaration order
+     */
+    public static String describe(Set<CheckoutValidationError> errors) {
+        StringBuilder description = new StringBuilder();
+        for (CheckoutValidationError error : values()) {
+            if (errors.contains(error)) {
+                description.append(error.message);
+            }
+        }
+        return description.toString();
+    }
+}
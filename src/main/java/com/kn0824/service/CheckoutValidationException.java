@@ -0,0 +1,28 @@
+package com.kn0824.service;
+
+/**
+ * Thrown by {@link CheckoutService#checkout} for a request that fails validation. The message is the one an
+ * IllegalArgumentException for the request has always carried, and the failed checks are available without parsing it.
+ * <p>
+ * Rejections are an expected outcome for a quote API and can be frequent, so no stack trace is captured. Callers that
+ * validate many requests should use {@link CheckoutService#validate(String, int, int)} and not throw at all.
+ */
+public class CheckoutValidationException extends IllegalArgumentException {
+
+    private final transient CheckoutValidation validation;
+
+    public CheckoutValidationException(CheckoutValidation validation) {
+        super(validation.message());
+        this.validation = validation;
+    }
+
+    public CheckoutValidation getValidation() {
+        return validation;
+    }
+
+    // IllegalArgumentException has no constructor that disables the stack trace
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
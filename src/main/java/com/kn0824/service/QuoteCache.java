@@ -0,0 +1,174 @@
+package com.kn0824.service;
+
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of chargeable day counts for repeated quotes, keyed on a single long packing the tool type's charge
+ * flags, the checkout epoch day and the number of rental days.
+ * <p>
+ * The charge flags are what identifies a tool type for day counting, so tool types with the same flags share entries and
+ * a catalog reload never leaves a stale entry behind: a changed tool type simply looks up under its new flags, and the
+ * daily charge is always applied to the cached count fresh. The day counts depend on the holiday calendar of the
+ * calculator they were computed with, so a cache must only be used with one calculator, and {@link #invalidateAll()} must
+ * be called if that calendar can change its holidays.
+ * <p>
+ * The table is 4-way set associative. Entries are immutable and published through an atomic array, so lookups take no
+ * locks. Eviction uses a clock: a hit marks the entry as referenced, and an insert into a full set replaces the first
+ * entry that hasn't been referenced since the previous sweep, approximating LRU.
+ */
+public final class QuoteCache {
+
+    private static final int WAYS = 4;
+    private static final int MAX_CACHED_DAYS = (1 << 29) - 1;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final boolean[] referenced;
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile int generation;
+
+    /**
+     * @param capacity - Maximum number of cached quotes, rounded up to four times a power of two
+     */
+    public QuoteCache(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The quote cache capacity must be between 1 and 2^30. ");
+        }
+        int wantedSets = (capacity + WAYS - 1) / WAYS;
+        int sets = wantedSets == 1 ? 1 : Integer.highestOneBit(wantedSets - 1) << 1;
+        this.entries = new AtomicReferenceArray<>(sets * WAYS);
+        this.referenced = new boolean[sets * WAYS];
+        this.setMask = sets - 1;
+    }
+
+    /**
+     * Returns the chargeable days of a rental from the cache, counting them with the calculator on a miss
+     * @see ChargeableDayCalculator#calculate(ToolType, LocalDate, int)
+     */
+    public int chargeableDays(ChargeableDayCalculator calculator, ToolType toolType, LocalDate checkoutDate, int rentalDays) {
+        int chargeFlags = (toolType.isWeekdayCharge() ? ToolCatalog.WEEKDAY_CHARGE : 0) | (toolType.isWeekendCharge() ? ToolCatalog.WEEKEND_CHARGE : 0)
+                | (toolType.isHolidayCharge() ? ToolCatalog.HOLIDAY_CHARGE : 0);
+        return chargeableDays(calculator, chargeFlags, checkoutDate, rentalDays);
+    }
+
+    /**
+     * Returns the chargeable days of a rental from the cache, counting them with the calculator on a miss
+     * @param chargeFlags - The {@link ToolCatalog#chargeFlags(int) charge flags} of the tool type
+     */
+    public int chargeableDays(ChargeableDayCalculator calculator, int chargeFlags, LocalDate checkoutDate, int rentalDays) {
+        long checkoutDay = checkoutDate.toEpochDay();
+        if (rentalDays < 0 || rentalDays > MAX_CACHED_DAYS || checkoutDay != (int) checkoutDay) {
+            return calculator.calculate(chargeFlags, checkoutDate, rentalDays);
+        }
+        long key = key(chargeFlags, checkoutDay, rentalDays);
+        int currentGeneration = generation;
+        int set = (int) (mix(key) & setMask) * WAYS;
+        for (int way = 0; way < WAYS; way++) {
+            Entry entry = entries.get(set + way);
+            if (entry != null && entry.key == key && entry.generation == currentGeneration) {
+                if (!referenced[set + way]) {
+                    referenced[set + way] = true;
+                }
+                hits.increment();
+                return entry.chargeDays;
+            }
+        }
+        misses.increment();
+        int chargeDays = calculator.calculate(chargeFlags, checkoutDate, rentalDays);
+        insert(set, new Entry(key, chargeDays, currentGeneration));
+        return chargeDays;
+    }
+
+    /**
+     * Drops every cached quote, for instance after the holiday rules changed
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries replaced to make room for another one
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The share of lookups answered from the cache, 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    public int capacity() {
+        return entries.length();
+    }
+
+    /*
+    Second chance sweep over the set. Racing inserts can overwrite each other's entries, which only costs a later miss.
+     */
+    private void insert(int set, Entry entry) {
+        int victim = -1;
+        for (int way = 0; way < WAYS && victim < 0; way++) {
+            Entry existing = entries.get(set + way);
+            if (existing == null || existing.generation != entry.generation) {
+                victim = way;
+            }
+        }
+        if (victim < 0) {
+            evictions.increment();
+            for (int way = 0; way < WAYS && victim < 0; way++) {
+                if (referenced[set + way]) {
+                    referenced[set + way] = false;
+                } else {
+                    victim = way;
+                }
+            }
+            if (victim < 0) {
+                victim = (int) (entry.key & (WAYS - 1));
+            }
+        }
+        referenced[set + victim] = false;
+        entries.set(set + victim, entry);
+    }
+
+    private static long key(int chargeFlags, long checkoutDay, int rentalDays) {
+        return (long) (chargeFlags & 7) << 61 | (long) rentalDays << 32 | (checkoutDay & 0xFFFFFFFFL);
+    }
+
+    // MurmurHash3 finalizer, so that every bit of the key, including the flags at the top, affects the set
+    private static long mix(long key) {
+        key = (key ^ key >>> 33) * 0xFF51AFD7ED558CCDL;
+        key = (key ^ key >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return key ^ key >>> 33;
+    }
+
+    private static final class Entry {
+        private final long key;
+        private final int chargeDays;
+        private final int generation;
+
+        private Entry(long key, int chargeDays, int generation) {
+            this.key = key;
+            this.chargeDays = chargeDays;
+            this.generation = generation;
+        }
+    }
+}
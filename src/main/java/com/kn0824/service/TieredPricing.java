@@ -0,0 +1,113 @@
+package com.kn0824.service;
+
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+
+/**
+ * Finds the cheapest way to bill a rental period with monthly, weekly, and daily blocks.
+ * <p>
+ * Blocks are laid out back to back from the first rental day: months of 30 days first, then weeks of 7 days, and the
+ * days left over are charged at the daily charge for the chargeable days among them. The last block may run past the
+ * due date when a whole week or month is cheaper than the days it replaces. Holidays and the weekday a month starts on
+ * make the chargeable days a block replaces vary, so no block count can be ruled out up front. Instead every day the
+ * daily billing could start on is tried. The leftover range then has a single price, counted arithmetically, and of
+ * all the mixes of months and weeks covering the days before it only two can be the cheapest, see
+ * {@link #cheapestBlocks}. The search is therefore exact and costs one day count per rental day.
+ */
+public final class TieredPricing {
+
+    public static final int DAYS_PER_WEEK = 7;
+    public static final int DAYS_PER_MONTH = 30;
+
+    private TieredPricing() {
+    }
+
+    /**
+     * @return Whether a tool type has a weekly or monthly rate that pricing has to consider
+     */
+    public static boolean isTiered(long weeklyChargeCents, long monthlyChargeCents) {
+        return weeklyChargeCents != ToolType.NOT_WHOLE_CENTS || monthlyChargeCents != ToolType.NOT_WHOLE_CENTS;
+    }
+
+    /**
+     * @param calculator - Counts the chargeable days of the leftover ranges
+     * @param chargeFlags - The {@link ToolCatalog#chargeFlags(int) charge flags} of the tool type
+     * @param firstDay - Epoch day of the first rental day, the day after checkout
+     * @param rentalDays - Number of rental days
+     * @param chargeDays - Chargeable days of the whole period, the cost of billing it all daily
+     * @param dailyChargeCents - Daily charge in whole cents
+     * @param weeklyChargeCents - Weekly rate in whole cents, or {@link ToolType#NOT_WHOLE_CENTS} for none
+     * @param monthlyChargeCents - Monthly rate in whole cents, or {@link ToolType#NOT_WHOLE_CENTS} for none
+     * @return The cheapest pre-discount charge in cents, or {@link CentsPricing#OUT_OF_RANGE} if it is too large for exact arithmetic
+     */
+    public static long cheapestCents(ChargeableDayCalculator calculator, int chargeFlags, long firstDay, int rentalDays, int chargeDays,
+                                     long dailyChargeCents, long weeklyChargeCents, long monthlyChargeCents) {
+        boolean weekdayCharge = (chargeFlags & ToolCatalog.WEEKDAY_CHARGE) != 0;
+        boolean weekendCharge = (chargeFlags & ToolCatalog.WEEKEND_CHARGE) != 0;
+        boolean holidayCharge = (chargeFlags & ToolCatalog.HOLIDAY_CHARGE) != 0;
+        long lastDay = firstDay + rentalDays - 1;
+
+        // Blocks covering no days: billing every day daily
+        long cheapest = CentsPricing.preDiscountCents(dailyChargeCents, chargeDays);
+        // A month may start before the due date and a week may too, so blocks can cover up to 29 days past it
+        for (int blockDays = 1; blockDays < rentalDays + DAYS_PER_MONTH; blockDays++) {
+            boolean weeksAllowed = blockDays < rentalDays + DAYS_PER_WEEK;
+            long blocksCents = cheapestBlocks(blockDays, weeksAllowed ? weeklyChargeCents : ToolType.NOT_WHOLE_CENTS, monthlyChargeCents);
+            if (blocksCents == CentsPricing.OUT_OF_RANGE) {
+                continue;
+            }
+            long leftoverCents = 0;
+            if (blockDays < rentalDays) {
+                int leftoverChargeDays = calculator.calculate(weekdayCharge, weekendCharge, holidayCharge, firstDay + blockDays, lastDay);
+                leftoverCents = CentsPricing.preDiscountCents(dailyChargeCents, leftoverChargeDays);
+            }
+            cheapest = cheaper(cheapest, add(blocksCents, leftoverCents));
+        }
+        return cheapest;
+    }
+
+    /*
+    The cheapest months and weeks covering exactly blockDays days, or OUT_OF_RANGE if there is no such mix. From
+    30 * months + 7 * weeks = blockDays, months = 4 * blockDays (mod 7). Trading 7 months for 30 weeks changes the price
+    by the same amount every time, so either the fewest or the most months possible are the cheapest.
+     */
+    private static long cheapestBlocks(int blockDays, long weeklyChargeCents, long monthlyChargeCents) {
+        boolean weekly = weeklyChargeCents != ToolType.NOT_WHOLE_CENTS;
+        boolean monthly = monthlyChargeCents != ToolType.NOT_WHOLE_CENTS;
+        if (!weekly) {
+            return monthly && blockDays % DAYS_PER_MONTH == 0 ? blocks(monthlyChargeCents, blockDays / DAYS_PER_MONTH) : CentsPricing.OUT_OF_RANGE;
+        }
+        if (!monthly) {
+            return blockDays % DAYS_PER_WEEK == 0 ? blocks(weeklyChargeCents, blockDays / DAYS_PER_WEEK) : CentsPricing.OUT_OF_RANGE;
+        }
+        int fewestMonths = 4 * blockDays % DAYS_PER_WEEK;
+        if (fewestMonths * DAYS_PER_MONTH > blockDays) {
+            return CentsPricing.OUT_OF_RANGE;
+        }
+        int mostMonths = fewestMonths + (blockDays - fewestMonths * DAYS_PER_MONTH) / (DAYS_PER_WEEK * DAYS_PER_MONTH) * DAYS_PER_WEEK;
+        return cheaper(monthsAndWeeks(blockDays, fewestMonths, weeklyChargeCents, monthlyChargeCents),
+                monthsAndWeeks(blockDays, mostMonths, weeklyChargeCents, monthlyChargeCents));
+    }
+
+    private static long monthsAndWeeks(int blockDays, int months, long weeklyChargeCents, long monthlyChargeCents) {
+        return add(blocks(monthlyChargeCents, months), blocks(weeklyChargeCents, (blockDays - months * DAYS_PER_MONTH) / DAYS_PER_WEEK));
+    }
+
+    private static long cheaper(long a, long b) {
+        if (a == CentsPricing.OUT_OF_RANGE) {
+            return b;
+        }
+        return b == CentsPricing.OUT_OF_RANGE ? a : Math.min(a, b);
+    }
+
+    private static long blocks(long rateCents, int count) {
+        return count == 0 ? 0 : CentsPricing.preDiscountCents(rateCents, count);
+    }
+
+    private static long add(long a, long b) {
+        if (a == CentsPricing.OUT_OF_RANGE || b == CentsPricing.OUT_OF_RANGE || a + b > CentsPricing.MAX_EXACT_CENTS) {
+            return CentsPricing.OUT_OF_RANGE;
+        }
+        return a + b;
+    }
+}
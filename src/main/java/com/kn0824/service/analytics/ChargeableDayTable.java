@@ -0,0 +1,94 @@
+package com.kn0824.service.analytics;
+
+import com.kn0824.core.calendar.EpochDays;
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.ToolCatalog;
+
+import java.time.LocalDate;
+
+/**
+ * Prefix sums of chargeable days over a fixed window of epoch days, one table for each of the eight combinations of
+ * {@link ToolCatalog#chargeFlags(int) charge flags}. Entry i of a table holds the chargeable days from the first day of
+ * the window up to but excluding day i, so the chargeable days of any range inside the window are the difference of
+ * two entries. The tables are built once by classifying every day of the window and are only read afterwards, so a
+ * table can be shared between threads.
+ */
+public final class ChargeableDayTable {
+
+    private static final int FLAG_COMBINATIONS = 8;
+
+    private final long firstDay;
+    private final long lastDay;
+    private final int[][] prefixSums;
+
+    private ChargeableDayTable(long firstDay, long lastDay, int[][] prefixSums) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.prefixSums = prefixSums;
+    }
+
+    /**
+     * @param holidayCalendar - Decides which weekdays are holidays
+     * @param firstDate - First day the table covers
+     * @param lastDate - Last day the table covers, inclusive
+     */
+    public static ChargeableDayTable build(HolidayCalendar holidayCalendar, LocalDate firstDate, LocalDate lastDate) {
+        long firstDay = firstDate.toEpochDay();
+        long lastDay = lastDate.toEpochDay();
+        if (lastDay < firstDay || lastDay - firstDay >= Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("The last date of the table must be on or after the first, and within an int range of days. ");
+        }
+        int days = (int) (lastDay - firstDay + 1);
+        int[][] prefixSums = new int[FLAG_COMBINATIONS][days + 1];
+        for (int i = 0; i < days; i++) {
+            long epochDay = firstDay + i;
+            boolean weekend = EpochDays.isWeekend(epochDay);
+            boolean holiday = !weekend && holidayCalendar.isHoliday(epochDay);
+            for (int flags = 0; flags < FLAG_COMBINATIONS; flags++) {
+                prefixSums[flags][i + 1] = prefixSums[flags][i] + (isChargeable(flags, weekend, holiday) ? 1 : 0);
+            }
+        }
+        return new ChargeableDayTable(firstDay, lastDay, prefixSums);
+    }
+
+    public LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(lastDay);
+    }
+
+    /**
+     * @return Whether the inclusive range of epoch days lies inside the table
+     */
+    public boolean covers(long firstEpochDay, long lastEpochDay) {
+        return firstEpochDay >= firstDay && lastEpochDay <= lastDay;
+    }
+
+    /**
+     * Counts the chargeable days in an inclusive range of epoch days, the same count as
+     * {@link com.kn0824.service.ChargeableDayCalculator#calculate(boolean, boolean, boolean, long, long)}
+     * @param chargeFlags - The {@link ToolCatalog#chargeFlags(int) charge flags} of the tool type
+     * @throws IllegalArgumentException If the range isn't inside the table
+     */
+    public int chargeableDays(int chargeFlags, long firstEpochDay, long lastEpochDay) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+        if (!covers(firstEpochDay, lastEpochDay)) {
+            throw new IllegalArgumentException("The date range " + LocalDate.ofEpochDay(firstEpochDay) + " to " + LocalDate.ofEpochDay(lastEpochDay)
+                    + " is outside the table. ");
+        }
+        int[] prefixSum = prefixSums[chargeFlags & (FLAG_COMBINATIONS - 1)];
+        return prefixSum[(int) (lastEpochDay - firstDay + 1)] - prefixSum[(int) (firstEpochDay - firstDay)];
+    }
+
+    // Holidays only matter on weekdays, weekend days follow the weekend rule regardless
+    private static boolean isChargeable(int chargeFlags, boolean weekend, boolean holiday) {
+        if (weekend) {
+            return (chargeFlags & ToolCatalog.WEEKEND_CHARGE) != 0;
+        }
+        return (chargeFlags & ToolCatalog.WEEKDAY_CHARGE) != 0 && (!holiday || (chargeFlags & ToolCatalog.HOLIDAY_CHARGE) != 0);
+    }
+}
@@ -0,0 +1,34 @@
+package com.kn0824.service.analytics;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Revenue forecast for the whole catalog over a period
+ * @param from - First day of the period
+ * @param until - Day after the last day of the period
+ * @param utilisation - Share of the chargeable days the tools are assumed to be rented, 0 to 1
+ * @param toolTypes - Forecast of every tool type that has tools, ordered by type name
+ * @param grossRevenue - Sum of the gross revenue of the tool types
+ * @param projectedRevenue - Sum of the projected revenue of the tool types
+ */
+public record FleetForecast(LocalDate from, LocalDate until, double utilisation, List<ToolTypeForecast> toolTypes,
+                            BigDecimal grossRevenue, BigDecimal projectedRevenue) {
+
+    public FleetForecast {
+        toolTypes = List.copyOf(toolTypes);
+    }
+
+    /**
+     * @return The forecast for the tool type with the given name, or null if the catalog has no tools of that type
+     */
+    public ToolTypeForecast forType(String type) {
+        for (ToolTypeForecast forecast : toolTypes) {
+            if (type.equals(forecast.toolType().getType())) {
+                return forecast;
+            }
+        }
+        return null;
+    }
+}
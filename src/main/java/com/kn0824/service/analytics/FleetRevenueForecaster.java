@@ -0,0 +1,130 @@
+package com.kn0824.service.analytics;
+
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Forecasts rental revenue for every tool in the catalog without pricing individual rentals.
+ * <p>
+ * The chargeable days of the period are read once per tool type from a {@link ChargeableDayTable}, in constant time
+ * whatever the length of the period. The tools are then counted by tool type in parallel on a fork-join pool, and each
+ * tool type's daily charge is multiplied by its total chargeable tool days. Revenue is gross: it assumes daily pricing
+ * without discounts, so weekly and monthly rates, which depend on how the days are split into rentals, aren't applied.
+ */
+public class FleetRevenueForecaster {
+
+    private final ToolCatalogProvider catalogProvider;
+    private final ChargeableDayTable table;
+
+    /**
+     * @param catalogProvider - Supplies the tools to forecast, read once per forecast
+     * @param table - Chargeable days per day, must cover every forecast period
+     */
+    public FleetRevenueForecaster(ToolCatalogProvider catalogProvider, ChargeableDayTable table) {
+        this.catalogProvider = catalogProvider;
+        this.table = table;
+    }
+
+    /**
+     * Forecasts revenue on the common fork-join pool
+     * @see #forecast(LocalDate, LocalDate, double, ForkJoinPool)
+     */
+    public FleetForecast forecast(LocalDate from, LocalDate until, double utilisation) {
+        return forecast(from, until, utilisation, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param from - First day of the period
+     * @param until - Day after the last day of the period
+     * @param utilisation - Share of the chargeable days the tools are assumed to be rented, 0 to 1
+     * @param pool - Pool the tools are counted on
+     * @throws IllegalArgumentException If the period is empty or outside the table, or the utilisation isn't between 0 and 1
+     */
+    public FleetForecast forecast(LocalDate from, LocalDate until, double utilisation, ForkJoinPool pool) {
+        if (!until.isAfter(from)) {
+            throw new IllegalArgumentException("The forecast period must end after it starts. ");
+        }
+        if (!(utilisation >= 0 && utilisation <= 1)) {
+            throw new IllegalArgumentException("The utilisation must be a value between 0 and 1. ");
+        }
+        long firstDay = from.toEpochDay();
+        long lastDay = until.toEpochDay() - 1;
+        if (!table.covers(firstDay, lastDay)) {
+            throw new IllegalArgumentException("The forecast period must lie between " + table.getFirstDate() + " and " + table.getLastDate() + ". ");
+        }
+
+        ToolCatalog catalog = catalogProvider.current();
+        int[] daysPerTool = new int[catalog.toolTypeCount()];
+        for (int toolTypeId = 0; toolTypeId < daysPerTool.length; toolTypeId++) {
+            daysPerTool[toolTypeId] = table.chargeableDays(catalog.chargeFlags(toolTypeId), firstDay, lastDay);
+        }
+        int[] toolsPerType = pool.invoke(new CountToolsTask(catalog, 0, catalog.size()));
+
+        BigDecimal share = BigDecimal.valueOf(utilisation);
+        List<ToolTypeForecast> forecasts = new ArrayList<>();
+        BigDecimal grossRevenue = BigDecimal.ZERO.setScale(2);
+        BigDecimal projectedRevenue = BigDecimal.ZERO.setScale(2);
+        for (int toolTypeId = 0; toolTypeId < toolsPerType.length; toolTypeId++) {
+            ToolType toolType = catalog.getToolType(toolTypeId);
+            if (toolsPerType[toolTypeId] == 0 || toolType == null || catalog.dailyCharge(toolTypeId) == null) {
+                continue;
+            }
+            long toolDays = (long) toolsPerType[toolTypeId] * daysPerTool[toolTypeId];
+            BigDecimal gross = catalog.dailyCharge(toolTypeId).multiply(BigDecimal.valueOf(toolDays));
+            BigDecimal projected = gross.multiply(share).setScale(2, RoundingMode.HALF_UP);
+            forecasts.add(new ToolTypeForecast(toolType, toolsPerType[toolTypeId], daysPerTool[toolTypeId], gross, projected));
+            grossRevenue = grossRevenue.add(gross);
+            projectedRevenue = projectedRevenue.add(projected);
+        }
+        forecasts.sort(Comparator.comparing(forecast -> String.valueOf(forecast.toolType().getType())));
+        return new FleetForecast(from, until, utilisation, forecasts, grossRevenue, projectedRevenue);
+    }
+
+    /*
+    Counts the tools of each tool type id in a contiguous range of tool ids, splitting the range in halves until it is
+    small enough to count directly. Each half counts into its own array and the halves are added on the way back up.
+     */
+    private static final class CountToolsTask extends RecursiveTask<int[]> {
+        private static final int TOOLS_PER_TASK = 4096;
+
+        private final ToolCatalog catalog;
+        private final int from;
+        private final int to;
+
+        private CountToolsTask(ToolCatalog catalog, int from, int to) {
+            this.catalog = catalog;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > TOOLS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                CountToolsTask upper = new CountToolsTask(catalog, middle, to);
+                upper.fork();
+                int[] counts = new CountToolsTask(catalog, from, middle).compute();
+                int[] upperCounts = upper.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += upperCounts[i];
+                }
+                return counts;
+            }
+            int[] counts = new int[catalog.toolTypeCount()];
+            for (int toolId = from; toolId < to; toolId++) {
+                counts[catalog.toolTypeId(toolId)]++;
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.kn0824.service.analytics;
+
+import com.kn0824.core.tools.ToolType;
+
+import java.math.BigDecimal;
+
+/**
+ * The forecast for the tools of one tool type
+ * @param toolType - The tool type
+ * @param tools - Number of tools of the type in the catalog
+ * @param chargeableDaysPerTool - Chargeable days of one tool of the type over the forecast period
+ * @param grossRevenue - Revenue if every tool were rented on every chargeable day, before discounts
+ * @param projectedRevenue - Gross revenue scaled by the utilisation, rounded to the cent
+ */
+public record ToolTypeForecast(ToolType toolType, int tools, int chargeableDaysPerTool, BigDecimal grossRevenue, BigDecimal projectedRevenue) {
+}
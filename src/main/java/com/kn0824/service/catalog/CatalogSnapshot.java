@@ -0,0 +1,228 @@
+package com.kn0824.service.catalog;
+
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * A compact binary image of a {@link ToolCatalog}, written at build time so that a cold started service can rebuild the
+ * catalog without parsing CSV.
+ * <p>
+ * The image is {@link #MAGIC}, the number of tool types and of registered tool types, every tool type, the number of
+ * tools, every tool, and a CRC32C of all the preceding bytes. A tool type is a presence byte, its name, daily charge,
+ * a byte of charge flags, and its weekly and monthly rates. A tool is its code, its tool type id, and its brand.
+ * Integers are big-endian. Strings are an int byte length, -1 for null, followed by UTF-8 bytes. Amounts are a short
+ * length of the unscaled two's complement bytes, -1 for null, an int scale, and the bytes. Tools refer to their tool
+ * type by its position in the image. Only the JDK's nio, zip, and math classes are used to read an image.
+ */
+public final class CatalogSnapshot {
+
+    // "KNC1"
+    static final int MAGIC = 0x4B4E4331;
+
+    private static final int WEEKDAY_CHARGE = 1;
+    private static final int WEEKEND_CHARGE = 2;
+    private static final int HOLIDAY_CHARGE = 4;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Precompiles the tooltype.csv and tools.csv in a directory into a snapshot file, run by the catalogSnapshot build task
+     * @param args - The directory holding the CSV files, and the snapshot file to write
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: CatalogSnapshot <csv directory> <snapshot file>. ");
+        }
+        Path snapshot = Path.of(args[1]);
+        if (snapshot.getParent() != null) {
+            Files.createDirectories(snapshot.getParent());
+        }
+        write(ToolCatalogLoader.fromDirectory(Path.of(args[0])), snapshot);
+    }
+
+    public static void write(ToolCatalog catalog, Path file) throws IOException {
+        Files.write(file, toBytes(catalog));
+    }
+
+    /**
+     * @return The snapshot image of the catalog
+     */
+    public static byte[] toBytes(ToolCatalog catalog) {
+        Writer out = new Writer();
+        out.putInt(MAGIC);
+        out.putInt(catalog.toolTypeCount());
+        out.putInt(catalog.getToolTypes().size());
+        for (int toolTypeId = 0; toolTypeId < catalog.toolTypeCount(); toolTypeId++) {
+            ToolType toolType = catalog.getToolType(toolTypeId);
+            out.putByte(toolType == null ? 0 : 1);
+            if (toolType != null) {
+                out.putString(toolType.getType());
+                out.putAmount(toolType.getDailyCharge());
+                out.putByte((toolType.isWeekdayCharge() ? WEEKDAY_CHARGE : 0) | (toolType.isWeekendCharge() ? WEEKEND_CHARGE : 0)
+                        | (toolType.isHolidayCharge() ? HOLIDAY_CHARGE : 0));
+                out.putAmount(toolType.getWeeklyCharge());
+                out.putAmount(toolType.getMonthlyCharge());
+            }
+        }
+        out.putInt(catalog.size());
+        for (int toolId = 0; toolId < catalog.size(); toolId++) {
+            Tool tool = catalog.getTool(toolId);
+            out.putString(tool.getToolCode());
+            out.putInt(catalog.toolTypeId(toolId));
+            out.putString(tool.getBrand());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(out.bytes, 0, out.size);
+        out.putInt((int) crc.getValue());
+        return Arrays.copyOf(out.bytes, out.size);
+    }
+
+    /**
+     * Memory-maps a snapshot file and rebuilds its catalog
+     * @throws StreamCorruptedException If the file isn't a complete snapshot
+     */
+    public static ToolCatalog map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Rebuilds the catalog from the snapshot image between the buffer's position and limit
+     * @throws StreamCorruptedException If the buffer doesn't hold a complete snapshot
+     */
+    public static ToolCatalog read(ByteBuffer image) throws StreamCorruptedException {
+        ByteBuffer in = image.slice();
+        if (in.remaining() < 8 || in.getInt(0) != MAGIC) {
+            throw new StreamCorruptedException("Not a catalog snapshot");
+        }
+        int checksumOffset = in.limit() - 4;
+        CRC32C crc = new CRC32C();
+        crc.update(in.duplicate().limit(checksumOffset));
+        if ((int) crc.getValue() != in.getInt(checksumOffset)) {
+            throw new StreamCorruptedException("Catalog snapshot checksum mismatch");
+        }
+        in.limit(checksumOffset).position(4);
+        try {
+            int toolTypeCount = in.getInt();
+            int registeredCount = in.getInt();
+            ToolType[] toolTypes = new ToolType[toolTypeCount];
+            for (int toolTypeId = 0; toolTypeId < toolTypeCount; toolTypeId++) {
+                if (in.get() != 0) {
+                    String type = getString(in);
+                    BigDecimal dailyCharge = getAmount(in);
+                    int flags = in.get();
+                    toolTypes[toolTypeId] = ToolType.builder().type(type).dailyCharge(dailyCharge).weekdayCharge((flags & WEEKDAY_CHARGE) != 0)
+                            .weekendCharge((flags & WEEKEND_CHARGE) != 0).holidayCharge((flags & HOLIDAY_CHARGE) != 0)
+                            .weeklyCharge(getAmount(in)).monthlyCharge(getAmount(in)).build();
+                }
+            }
+            int toolCount = in.getInt();
+            List<Tool> tools = new ArrayList<>(toolCount);
+            for (int toolId = 0; toolId < toolCount; toolId++) {
+                String toolCode = getString(in);
+                ToolType toolType = toolTypes[in.getInt()];
+                tools.add(Tool.builder().toolCode(toolCode).toolType(toolType).brand(getString(in)).build());
+            }
+            return new ToolCatalog(Arrays.asList(toolTypes).subList(0, registeredCount), tools);
+        } catch (RuntimeException e) {
+            // Buffer underflows and out of range ids of a snapshot whose checksum happened to match
+            StreamCorruptedException corrupted = new StreamCorruptedException("Malformed catalog snapshot");
+            corrupted.initCause(e);
+            throw corrupted;
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal getAmount(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        int scale = in.getInt();
+        byte[] unscaled = new byte[length];
+        in.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    /**
+     * A growable big-endian byte array
+     */
+    private static final class Writer {
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        private void putByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        private void putInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void putBytes(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putInt(utf8.length);
+            putBytes(utf8);
+        }
+
+        private void putAmount(BigDecimal amount) {
+            if (amount == null) {
+                putByte(0xFF);
+                putByte(0xFF);
+                return;
+            }
+            byte[] unscaled = amount.unscaledValue().toByteArray();
+            putByte(unscaled.length >>> 8);
+            putByte(unscaled.length);
+            putInt(amount.scale());
+            putBytes(unscaled);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
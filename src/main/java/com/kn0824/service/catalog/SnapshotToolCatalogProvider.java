@@ -0,0 +1,108 @@
+package com.kn0824.service.catalog;
+
+import com.kn0824.core.tools.ToolCatalog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Supplies a catalog read from a {@link CatalogSnapshot} the first time it is asked for, for services where cold start
+ * time matters more than the first checkout. Creating the provider does no I/O. The first {@link #current()} call
+ * memory-maps the snapshot and rebuilds the catalog, without loading OpenCSV. Later calls return the same catalog.
+ * <p>
+ * The {@link #bundled()} provider reads {@link #SNAPSHOT_RESOURCE} from the classpath, which the catalogSnapshot build
+ * task precompiles from the bundled CSV files. When the application runs without the snapshot, for example from sources
+ * the build hasn't processed, it falls back to parsing the bundled CSV files.
+ */
+public final class SnapshotToolCatalogProvider implements ToolCatalogProvider {
+
+    public static final String SNAPSHOT_RESOURCE = "catalog.snapshot";
+
+    /**
+     * Loads the catalog, called at most once per provider unless it fails
+     */
+    @FunctionalInterface
+    private interface Loader {
+        ToolCatalog load() throws IOException;
+    }
+
+    private final Loader loader;
+    private volatile ToolCatalog catalog;
+
+    private SnapshotToolCatalogProvider(Loader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * @return The shared provider of the bundled catalog
+     */
+    public static SnapshotToolCatalogProvider bundled() {
+        return Bundled.PROVIDER;
+    }
+
+    /**
+     * @return A provider memory-mapping the given snapshot file on first use
+     */
+    public static SnapshotToolCatalogProvider of(Path snapshot) {
+        return new SnapshotToolCatalogProvider(() -> CatalogSnapshot.map(snapshot));
+    }
+
+    /**
+     * @throws UncheckedIOException If the snapshot can't be read. The next call tries again.
+     */
+    @Override
+    public ToolCatalog current() {
+        ToolCatalog loaded = catalog;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = catalog;
+                if (loaded == null) {
+                    try {
+                        loaded = loader.load();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Unable to load the tool catalog snapshot", e);
+                    }
+                    catalog = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * @return Whether the catalog has been loaded yet
+     */
+    public boolean isLoaded() {
+        return catalog != null;
+    }
+
+    /*
+    Snapshots inside a jar can't be mapped, they are read into a heap buffer instead
+     */
+    private static ToolCatalog loadBundled() throws IOException {
+        URL resource = SnapshotToolCatalogProvider.class.getResource("/" + SNAPSHOT_RESOURCE);
+        if (resource == null) {
+            return ToolCatalogLoader.fromClasspath();
+        }
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return CatalogSnapshot.map(Path.of(resource.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid snapshot location " + resource, e);
+            }
+        }
+        try (InputStream in = resource.openStream()) {
+            return CatalogSnapshot.read(ByteBuffer.wrap(in.readAllBytes()));
+        }
+    }
+
+    // Initialized on first use of bundled(), so merely loading this class creates nothing
+    private static final class Bundled {
+        private static final SnapshotToolCatalogProvider PROVIDER = new SnapshotToolCatalogProvider(SnapshotToolCatalogProvider::loadBundled);
+    }
+}
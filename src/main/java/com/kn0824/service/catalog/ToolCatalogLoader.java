@@ -0,0 +1,132 @@
+package com.kn0824.service.catalog;
+
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a {@link ToolCatalog} from the tooltype.csv and tools.csv files.
+ * <p>
+ * tooltype.csv rows are
+ * {@code type,dailyCharge,weekdayCharge,weekendCharge,holidayCharge[,weeklyCharge[,monthlyCharge]]} and tools.csv rows
+ * are {@code toolCode,type,brand}. The weekly and monthly rates are optional, a missing or empty column means the tool
+ * type has no such rate. Tool types with a rate need all their charges in whole cents. Any malformed row, or a tool
+ * referring to a type that doesn't exist, fails the whole load so that a partially read catalog is never published.
+ */
+public final class ToolCatalogLoader {
+
+    // Note: Normally I would not implement in this manner. The tools and the tool types would be better served being
+    // stored in a database so that they could be added, modified, and removed without requiring code updates.
+    // For the sake of the scope of this demonstration, we are just going to read the file from stored csv files
+    public static final String TOOLTYPE_CSV_FILE = "tooltype.csv";
+    public static final String TOOLS_CSV_FILE = "tools.csv";
+
+    private ToolCatalogLoader() {
+    }
+
+    /**
+     * Loads the catalog bundled with the application
+     */
+    public static ToolCatalog fromClasspath() throws IOException {
+        try (Reader toolTypes = classpathReader(TOOLTYPE_CSV_FILE); Reader tools = classpathReader(TOOLS_CSV_FILE)) {
+            return load(toolTypes, tools);
+        }
+    }
+
+    /**
+     * Loads the catalog from a tooltype.csv and tools.csv in the given directory
+     */
+    public static ToolCatalog fromDirectory(Path directory) throws IOException {
+        try (Reader toolTypes = Files.newBufferedReader(directory.resolve(TOOLTYPE_CSV_FILE), StandardCharsets.UTF_8);
+             Reader tools = Files.newBufferedReader(directory.resolve(TOOLS_CSV_FILE), StandardCharsets.UTF_8)) {
+            return load(toolTypes, tools);
+        }
+    }
+
+    public static ToolCatalog load(Reader toolTypesCsv, Reader toolsCsv) throws IOException {
+        Map<String, ToolType> types = new HashMap<>();
+        for (String[] row : readRows(toolTypesCsv, TOOLTYPE_CSV_FILE, 5)) {
+            BigDecimal dailyCharge;
+            try {
+                dailyCharge = new BigDecimal(row[1]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid daily charge for tool type " + row[0] + ": " + row[1], e);
+            }
+            BigDecimal weeklyCharge = optionalRate(row, 5, "weekly");
+            BigDecimal monthlyCharge = optionalRate(row, 6, "monthly");
+            ToolType toolType = ToolType.builder().type(row[0]).dailyCharge(dailyCharge).weekdayCharge(Boolean.parseBoolean(row[2]))
+                    .weekendCharge(Boolean.parseBoolean(row[3])).holidayCharge(Boolean.parseBoolean(row[4]))
+                    .weeklyCharge(weeklyCharge).monthlyCharge(monthlyCharge).build();
+            if ((weeklyCharge != null || monthlyCharge != null) && (toolType.getDailyChargeCents() == ToolType.NOT_WHOLE_CENTS
+                    || (weeklyCharge != null && toolType.getWeeklyChargeCents() == ToolType.NOT_WHOLE_CENTS)
+                    || (monthlyCharge != null && toolType.getMonthlyChargeCents() == ToolType.NOT_WHOLE_CENTS))) {
+                throw new IOException("Tool type " + row[0] + " has weekly or monthly rates, so its charges must be whole cents");
+            }
+            types.put(row[0], toolType);
+        }
+
+        List<Tool> tools = new ArrayList<>();
+        for (String[] row : readRows(toolsCsv, TOOLS_CSV_FILE, 3)) {
+            ToolType toolType = types.get(row[1]);
+            if (toolType == null) {
+                throw new IOException("Tool " + row[0] + " refers to unknown tool type " + row[1]);
+            }
+            tools.add(Tool.builder().toolCode(row[0]).toolType(toolType).brand(row[2]).build());
+        }
+        return new ToolCatalog(types.values(), tools);
+    }
+
+    private static BigDecimal optionalRate(String[] row, int column, String name) throws IOException {
+        if (row.length <= column || row[column].isBlank()) {
+            return null;
+        }
+        try {
+            BigDecimal rate = new BigDecimal(row[column].trim());
+            if (rate.signum() < 0) {
+                throw new IOException("Negative " + name + " charge for tool type " + row[0] + ": " + row[column]);
+            }
+            return rate;
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid " + name + " charge for tool type " + row[0] + ": " + row[column], e);
+        }
+    }
+
+    private static List<String[]> readRows(Reader csv, String fileName, int columns) throws IOException {
+        List<String[]> rows;
+        try (CSVReader reader = new CSVReader(csv)) {
+            rows = reader.readAll();
+        } catch (CsvException e) {
+            throw new IOException("Unable to parse " + fileName, e);
+        }
+        for (int line = 0; line < rows.size(); line++) {
+            if (rows.get(line).length < columns) {
+                throw new IOException(fileName + " line " + (line + 1) + " has fewer than " + columns + " columns");
+            }
+        }
+        return rows;
+    }
+
+    private static Reader classpathReader(String fileName) throws IOException {
+        InputStream inputStream = ToolCatalogLoader.class.getResourceAsStream("/" + fileName);
+        if (inputStream == null) {
+            throw new FileNotFoundException("Resource not found: " + fileName);
+        }
+        return new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    }
+}
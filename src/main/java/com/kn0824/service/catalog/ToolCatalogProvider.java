@@ -0,0 +1,20 @@
+package com.kn0824.service.catalog;
+
+import com.kn0824.core.tools.ToolCatalog;
+
+/**
+ * Supplies the current {@link ToolCatalog} snapshot. Callers should read the snapshot once per operation and use that
+ * same snapshot throughout, so a reload in between can't mix tools from two versions of the catalog.
+ */
+@FunctionalInterface
+public interface ToolCatalogProvider {
+
+    ToolCatalog current();
+
+    /**
+     * @return A provider that always returns the given catalog
+     */
+    static ToolCatalogProvider of(ToolCatalog catalog) {
+        return () -> catalog;
+    }
+}
@@ -0,0 +1,169 @@
+package com.kn0824.service.catalog;
+
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.service.metrics.CheckoutMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the catalog found in a directory and reloads it whenever tooltype.csv or tools.csv change.
+ * <p>
+ * Each successful load is published as a new immutable {@link ToolCatalog} through an atomic reference, so readers never
+ * block and never see a half-built catalog. A failed load keeps the previous snapshot and is counted in
+ * {@link #getFailedLoads()}. Writers should replace the files with an atomic move where possible, changes made in place
+ * are coalesced for {@value #QUIET_PERIOD_MILLIS}ms before reloading.
+ */
+public class WatchingToolCatalogProvider implements ToolCatalogProvider, Closeable {
+
+    static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final Path directory;
+    private final CheckoutMetrics metrics;
+    private final AtomicReference<ToolCatalog> current = new AtomicReference<>();
+    private final AtomicLong successfulLoads = new AtomicLong();
+    private final AtomicLong failedLoads = new AtomicLong();
+    private volatile long lastLoadNanos;
+    private volatile String lastFailure;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    /**
+     * Starts watching the directory and loads the catalog from it
+     * @throws IOException If the directory can't be watched, or if the initial load fails since there is no previous catalog to fall back on
+     */
+    public WatchingToolCatalogProvider(Path directory) throws IOException {
+        this(directory, null);
+    }
+
+    /**
+     * Starts watching the directory and loads the catalog from it, recording the time of every load in the metrics
+     * @param metrics - Metrics receiving catalog load times and failures, or null
+     * @throws IOException If the directory can't be watched, or if the initial load fails since there is no previous catalog to fall back on
+     */
+    public WatchingToolCatalogProvider(Path directory, CheckoutMetrics metrics) throws IOException {
+        this.directory = directory;
+        this.metrics = metrics;
+        this.watchService = directory.getFileSystem().newWatchService();
+        try {
+            // Registered before the initial load, so that files changed while loading are reloaded by the watcher
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            current.set(load());
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        this.watcher = new Thread(this::watch, "tool-catalog-watcher-" + directory.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public ToolCatalog current() {
+        return current.get();
+    }
+
+    /**
+     * Reloads the catalog now, keeping the current snapshot if the files can't be read
+     * @return true if a new snapshot was published
+     */
+    public boolean reload() {
+        try {
+            current.set(load());
+            lastFailure = null;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failedLoads.incrementAndGet();
+            lastFailure = e.getMessage();
+            return false;
+        }
+    }
+
+    public long getSuccessfulLoads() {
+        return successfulLoads.get();
+    }
+
+    public long getFailedLoads() {
+        return failedLoads.get();
+    }
+
+    /**
+     * @return How long the most recent successful load took, in nanoseconds
+     */
+    public long getLastLoadNanos() {
+        return lastLoadNanos;
+    }
+
+    /**
+     * @return The error message of the most recent load if it failed, otherwise null
+     */
+    public String getLastFailure() {
+        return lastFailure;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watcher.interrupt();
+    }
+
+    private ToolCatalog load() throws IOException {
+        long start = System.nanoTime();
+        ToolCatalog catalog;
+        try {
+            catalog = ToolCatalogLoader.fromDirectory(directory);
+        } catch (IOException | RuntimeException e) {
+            if (metrics != null) {
+                metrics.recordCatalogLoadFailure();
+            }
+            throw e;
+        }
+        lastLoadNanos = System.nanoTime() - start;
+        successfulLoads.incrementAndGet();
+        if (metrics != null) {
+            metrics.recordCatalogLoad(lastLoadNanos);
+        }
+        return catalog;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // Editors and copy tools often write a file in several steps, wait until the directory is quiet
+                while ((key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The provider was closed
+        }
+    }
+
+    private static boolean drain(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else if (event.context() instanceof Path fileName) {
+                String name = fileName.toString();
+                changed |= name.equals(ToolCatalogLoader.TOOLS_CSV_FILE) || name.equals(ToolCatalogLoader.TOOLTYPE_CSV_FILE);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
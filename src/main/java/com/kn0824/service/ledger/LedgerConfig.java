@@ -0,0 +1,24 @@
+package com.kn0824.service.ledger;
+
+/**
+ * Sizing and durability settings for a {@link RentalLedger}
+ * @param recordsPerSegment - Number of records in each segment file before a new one is started
+ * @param syncEveryRecords - Force the segment to disk after this many unsynced appends, 1 syncs every append
+ * @param syncIntervalMillis - Force unsynced appends to disk at least this often, 0 disables the background sync
+ */
+public record LedgerConfig(int recordsPerSegment, int syncEveryRecords, long syncIntervalMillis) {
+
+    /**
+     * One million records (about 96MB) per segment, synced every 1000 appends or 50ms, whichever comes first
+     */
+    public static final LedgerConfig DEFAULT = new LedgerConfig(1_000_000, 1_000, 50);
+
+    public LedgerConfig {
+        if (recordsPerSegment < 1 || syncEveryRecords < 1 || syncIntervalMillis < 0) {
+            throw new IllegalArgumentException("Ledger segment size and sync batch must be positive and the sync interval not negative. ");
+        }
+        if ((long) recordsPerSegment * LedgerSegment.RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A ledger segment can't be larger than 2GB. ");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.kn0824.service.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * An agreement as recorded in the {@link RentalLedger}. Amounts are whole cents.
+ */
+public record LedgerEntry(long sequence, String toolCode, long checkoutEpochDay, long dueEpochDay, int rentalDays,
+                          int chargeDays, int discountPercent, long dailyChargeCents, long preDiscountCents,
+                          long discountCents, long finalCents) {
+
+    public LocalDate checkoutDate() {
+        return LocalDate.ofEpochDay(checkoutEpochDay);
+    }
+
+    public LocalDate dueDate() {
+        return LocalDate.ofEpochDay(dueEpochDay);
+    }
+
+    public BigDecimal finalAmount() {
+        return BigDecimal.valueOf(finalCents, 2);
+    }
+}
@@ -0,0 +1,163 @@
+package com.kn0824.service.ledger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped ledger file holding a fixed number of fixed-size records. Record layout, little endian:
+ * <pre>
+ *  0 int   magic          32 int  checkout epoch day  56 long daily charge cents
+ *  4 int   reserved       36 int  due epoch day       64 long pre-discount cents
+ *  8 long  sequence       40 int  rental days         72 long discount cents
+ * 16 byte[16] tool code   44 int  charge days         80 long final cents
+ *                         48 int  discount percent    88 int  CRC32C of bytes 0-87
+ * </pre>
+ * A record only counts once its CRC matches, so a record torn by a crash is detected when the segment is reopened.
+ */
+final class LedgerSegment {
+
+    static final int RECORD_SIZE = 96;
+    static final int MAX_TOOL_CODE_BYTES = 16;
+    // "LEDG"
+    private static final int MAGIC = 0x4C454447;
+    private static final int CRC_OFFSET = 88;
+
+    private final Path path;
+    private final long firstSequence;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+    private int count;
+
+    private LedgerSegment(Path path, long firstSequence, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps a segment, creating the file at full size if it doesn't exist yet, and finds its last valid record
+     * @param capacity - Number of records in a new segment. An existing segment keeps the capacity of its file, so a
+     * ledger reopened with a different segment size still finds the records of its full segments where it expects them.
+     */
+    static LedgerSegment open(Path path, long firstSequence, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int existingCapacity = (int) (channel.size() / RECORD_SIZE);
+        int mappedCapacity = existingCapacity > 0 ? existingCapacity : capacity;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) mappedCapacity * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        LedgerSegment segment = new LedgerSegment(path, firstSequence, mappedCapacity, channel, buffer);
+        segment.recover();
+        return segment;
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Writes the next record. Callers serialize appends.
+     * @return The sequence number of the record
+     */
+    long append(byte[] toolCode, long checkoutEpochDay, long dueEpochDay, int rentalDays, int chargeDays, int discountPercent,
+                long dailyCents, long preDiscountCents, long discountCents, long finalCents) {
+        long sequence = firstSequence + count;
+        int offset = count * RECORD_SIZE;
+        buffer.putInt(offset, MAGIC);
+        buffer.putInt(offset + 4, 0);
+        buffer.putLong(offset + 8, sequence);
+        for (int i = 0; i < MAX_TOOL_CODE_BYTES; i++) {
+            buffer.put(offset + 16 + i, i < toolCode.length ? toolCode[i] : 0);
+        }
+        buffer.putInt(offset + 32, Math.toIntExact(checkoutEpochDay));
+        buffer.putInt(offset + 36, Math.toIntExact(dueEpochDay));
+        buffer.putInt(offset + 40, rentalDays);
+        buffer.putInt(offset + 44, chargeDays);
+        buffer.putInt(offset + 48, discountPercent);
+        buffer.putInt(offset + 52, 0);
+        buffer.putLong(offset + 56, dailyCents);
+        buffer.putLong(offset + 64, preDiscountCents);
+        buffer.putLong(offset + 72, discountCents);
+        buffer.putLong(offset + 80, finalCents);
+        buffer.putInt(offset + CRC_OFFSET, checksum(offset));
+        buffer.putInt(offset + 92, 0);
+        count++;
+        return sequence;
+    }
+
+    LedgerEntry read(long sequence) {
+        int offset = (int) (sequence - firstSequence) * RECORD_SIZE;
+        int codeLength = 0;
+        while (codeLength < MAX_TOOL_CODE_BYTES && buffer.get(offset + 16 + codeLength) != 0) {
+            codeLength++;
+        }
+        byte[] code = new byte[codeLength];
+        for (int i = 0; i < codeLength; i++) {
+            code[i] = buffer.get(offset + 16 + i);
+        }
+        return new LedgerEntry(buffer.getLong(offset + 8), new String(code, StandardCharsets.UTF_8),
+                buffer.getInt(offset + 32), buffer.getInt(offset + 36), buffer.getInt(offset + 40), buffer.getInt(offset + 44),
+                buffer.getInt(offset + 48), buffer.getLong(offset + 56), buffer.getLong(offset + 64), buffer.getLong(offset + 72),
+                buffer.getLong(offset + 80));
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /*
+    Counts the leading valid records. Anything after the first invalid record is cleared, otherwise a record that reached
+    the disk after a torn one could be mistaken for a valid record once its slot is reached again.
+     */
+    private void recover() {
+        while (count < capacity && isValid(count)) {
+            count++;
+        }
+        for (int slot = count; slot < capacity && buffer.getInt(slot * RECORD_SIZE) != 0; slot++) {
+            for (int i = 0; i < RECORD_SIZE; i += 8) {
+                buffer.putLong(slot * RECORD_SIZE + i, 0);
+            }
+        }
+    }
+
+    private boolean isValid(int slot) {
+        int offset = slot * RECORD_SIZE;
+        return buffer.getInt(offset) == MAGIC && buffer.getLong(offset + 8) == firstSequence + slot
+                && buffer.getInt(offset + CRC_OFFSET) == checksum(offset);
+    }
+
+    private int checksum(int offset) {
+        ByteBuffer record = buffer.duplicate();
+        record.position(offset).limit(offset + CRC_OFFSET);
+        crc.reset();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,341 @@
+package com.kn0824.service.ledger;
+
+import com.kn0824.core.agreement.RentalAgreement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only record of issued rental agreements, kept in memory-mapped segment files in one directory.
+ * Appends are serialized and forced to disk in batches, see {@link LedgerConfig}. Lookups by sequence number and
+ * by tool code and checkout date can run concurrently with appends.
+ * <p>
+ * On open, every segment is scanned and the ledger ends at the first record that is missing or fails its checksum,
+ * which drops a record torn by a crash along with anything written after it.
+ */
+public class RentalLedger implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // Index keys hold the checkout epoch day above the sequence number
+    private static final int SEQUENCE_BITS = 40;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    // Days that fit the index key above the sequence number, about the years -20000 to 24000, which also fit a record's ints
+    private static final long MIN_EPOCH_DAY = Long.MIN_VALUE >> SEQUENCE_BITS;
+    private static final long MAX_EPOCH_DAY = Long.MAX_VALUE >> SEQUENCE_BITS;
+
+    private final Path directory;
+    private final LedgerConfig config;
+    private final List<LedgerSegment> segments = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<String, NavigableSet<Long>> toolIndex = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService syncer;
+    private volatile long size;
+    private int unsynced;
+    private boolean closed;
+
+    private RentalLedger(Path directory, LedgerConfig config) {
+        this.directory = directory;
+        this.config = config;
+        if (config.syncIntervalMillis() > 0) {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rental-ledger-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.syncer = null;
+        }
+    }
+
+    /**
+     * Opens the ledger in the given directory, creating it if needed, and rebuilds the tool index from the existing records
+     * @param directory - Directory holding the segment files, nothing else in it is touched
+     * @param config - Segment size and sync settings. The segment size only applies to segments created from now on.
+     * @return The opened ledger, which must be closed to release the mapped files
+     */
+    public static RentalLedger open(Path directory, LedgerConfig config) throws IOException {
+        Files.createDirectories(directory);
+        RentalLedger ledger = new RentalLedger(directory, config);
+        try {
+            ledger.recover();
+        } catch (IOException | RuntimeException e) {
+            ledger.close();
+            throw e;
+        }
+        if (ledger.syncer != null) {
+            ledger.syncer.scheduleWithFixedDelay(ledger::syncQuietly, config.syncIntervalMillis(), config.syncIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+        return ledger;
+    }
+
+    /**
+     * Opens the ledger in the given directory with {@link LedgerConfig#DEFAULT}
+     * @see #open(Path, LedgerConfig)
+     */
+    public static RentalLedger open(Path directory) throws IOException {
+        return open(directory, LedgerConfig.DEFAULT);
+    }
+
+    /**
+     * Records an agreement. The record is durable once the next batched sync has run, or after {@link #sync()}.
+     * @param agreement - Agreement to record. All amounts must be whole cents.
+     * @return The sequence number of the record, starting from 0
+     * @throws IllegalArgumentException If the agreement has no tool or dates, a tool code longer than 16 bytes, a date
+     * outside the years the ledger can hold, or an amount that isn't whole cents
+     */
+    public synchronized long append(RentalAgreement agreement) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The ledger is closed. ");
+        }
+        byte[] toolCode = recordableToolCode(agreement);
+        long checkoutEpochDay = recordableEpochDay(agreement.getCheckoutDate());
+        long dueEpochDay = recordableEpochDay(agreement.getDueDate());
+        long dailyCents = toCents(agreement.getDailyRentalCharge());
+        long preDiscountCents = toCents(agreement.getPreDiscountCharge());
+        long discountCents = toCents(agreement.getDiscountAmount());
+        long finalCents = toCents(agreement.getFinalAmount());
+
+        LedgerSegment segment = segments.get(segments.size() - 1);
+        if (segment.isFull()) {
+            segment.force();
+            unsynced = 0;
+            segment = LedgerSegment.open(segmentPath(size), size, config.recordsPerSegment());
+            segments.add(segment);
+        }
+        long sequence = segment.append(toolCode, checkoutEpochDay, dueEpochDay, agreement.getRentalDays(),
+                agreement.getChargeDays(), agreement.getDiscountPercent(), dailyCents, preDiscountCents, discountCents, finalCents);
+        size = sequence + 1;
+        index(agreement.getTool().getToolCode(), checkoutEpochDay, sequence);
+        if (++unsynced >= config.syncEveryRecords()) {
+            segment.force();
+            unsynced = 0;
+        }
+        return sequence;
+    }
+
+    /**
+     * Records agreements with consecutive sequence numbers. Every agreement is checked before the first is written, so
+     * an agreement that can't be recorded leaves the ledger unchanged.
+     * @param agreements - Agreements to record, in order
+     * @return The sequence number of the first record
+     * @throws IllegalArgumentException If any of the agreements can't be recorded, see {@link #append(RentalAgreement)}
+     */
+    public synchronized long appendAll(List<RentalAgreement> agreements) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The ledger is closed. ");
+        }
+        for (RentalAgreement agreement : agreements) {
+            recordableToolCode(agreement);
+            recordableEpochDay(agreement.getCheckoutDate());
+            recordableEpochDay(agreement.getDueDate());
+            toCents(agreement.getDailyRentalCharge());
+            toCents(agreement.getPreDiscountCharge());
+            toCents(agreement.getDiscountAmount());
+            toCents(agreement.getFinalAmount());
+        }
+        long first = size;
+        for (RentalAgreement agreement : agreements) {
+            append(agreement);
+        }
+        return first;
+    }
+
+    /**
+     * Forces every appended record to disk
+     */
+    public synchronized void sync() {
+        if (!closed && unsynced > 0) {
+            segments.get(segments.size() - 1).force();
+            unsynced = 0;
+        }
+    }
+
+    /**
+     * @param sequence - Sequence number returned by {@link #append(RentalAgreement)}
+     * @return The recorded agreement
+     * @throws IndexOutOfBoundsException If no record with that sequence number exists
+     */
+    public LedgerEntry get(long sequence) {
+        if (sequence < 0 || sequence >= size) {
+            throw new IndexOutOfBoundsException("No ledger record " + sequence);
+        }
+        return segmentFor(sequence).read(sequence);
+    }
+
+    /**
+     * Finds the recorded agreements for one tool checked out within a date range
+     * @param toolCode - Tool code to look for
+     * @param from - First checkout date, inclusive
+     * @param to - Last checkout date, inclusive
+     * @return The matching agreements ordered by checkout date, then by sequence number
+     */
+    public List<LedgerEntry> findByTool(String toolCode, LocalDate from, LocalDate to) {
+        NavigableSet<Long> keys = toolIndex.get(toolCode);
+        List<LedgerEntry> entries = new ArrayList<>();
+        if (keys == null || from.isAfter(to) || from.toEpochDay() > MAX_EPOCH_DAY || to.toEpochDay() < MIN_EPOCH_DAY) {
+            return entries;
+        }
+        long fromKey = Math.max(from.toEpochDay(), MIN_EPOCH_DAY) << SEQUENCE_BITS;
+        long toKey = (Math.min(to.toEpochDay(), MAX_EPOCH_DAY) << SEQUENCE_BITS) | MAX_SEQUENCE;
+        for (long key : keys.subSet(fromKey, true, toKey, true)) {
+            entries.add(get(key & MAX_SEQUENCE));
+        }
+        return entries;
+    }
+
+    /**
+     * @return The number of recorded agreements
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Syncs and unmaps every segment. Appending afterwards fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            IOException failure = null;
+            for (LedgerSegment segment : segments) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /*
+    Opens the existing segments in sequence order. A segment that doesn't start where the previous one ended can only
+    follow a torn tail, so it and every later segment are deleted.
+     */
+    private void recover() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(RentalLedger::isSegment).sorted().toList();
+        }
+        long expected = 0;
+        boolean truncated = false;
+        for (Path path : paths) {
+            if (truncated || firstSequenceOf(path) != expected) {
+                truncated = true;
+                Files.delete(path);
+                continue;
+            }
+            LedgerSegment segment = LedgerSegment.open(path, expected, config.recordsPerSegment());
+            segments.add(segment);
+            for (int i = 0; i < segment.count(); i++) {
+                LedgerEntry entry = segment.read(expected + i);
+                index(entry.toolCode(), entry.checkoutEpochDay(), entry.sequence());
+            }
+            expected += segment.count();
+            truncated = !segment.isFull();
+        }
+        if (segments.isEmpty()) {
+            segments.add(LedgerSegment.open(segmentPath(0), 0, config.recordsPerSegment()));
+        }
+        size = expected;
+    }
+
+    private void index(String toolCode, long checkoutEpochDay, long sequence) {
+        toolIndex.computeIfAbsent(toolCode, code -> new ConcurrentSkipListSet<>()).add(checkoutEpochDay << SEQUENCE_BITS | sequence);
+    }
+
+    private LedgerSegment segmentFor(long sequence) {
+        List<LedgerSegment> snapshot = segments;
+        int low = 0;
+        int high = snapshot.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (snapshot.get(middle).firstSequence() <= sequence) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return snapshot.get(low);
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (UncheckedIOException | IllegalStateException e) {
+            // The next append or explicit sync reports the problem
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)
+                && name.length() == SEGMENT_PREFIX.length() + 20 + SEGMENT_SUFFIX.length()
+                && name.substring(SEGMENT_PREFIX.length(), SEGMENT_PREFIX.length() + 20).chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] recordableToolCode(RentalAgreement agreement) {
+        if (agreement.getTool() == null || agreement.getTool().getToolCode() == null || agreement.getCheckoutDate() == null || agreement.getDueDate() == null) {
+            throw new IllegalArgumentException("Only agreements with a tool code and dates can be recorded. ");
+        }
+        byte[] toolCode = agreement.getTool().getToolCode().getBytes(StandardCharsets.UTF_8);
+        if (toolCode.length > LedgerSegment.MAX_TOOL_CODE_BYTES) {
+            throw new IllegalArgumentException("Tool codes longer than " + LedgerSegment.MAX_TOOL_CODE_BYTES + " bytes can't be recorded. ");
+        }
+        return toolCode;
+    }
+
+    private static long recordableEpochDay(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            throw new IllegalArgumentException("The date " + date + " is outside the years the ledger can hold. ");
+        }
+        return epochDay;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Only agreements with every amount filled in can be recorded. ");
+        }
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Only amounts in whole cents can be recorded. ");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.kn0824.service.metrics;
+
+import com.kn0824.service.CheckoutValidationError;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and histograms for the checkout hot paths. All recording methods are lock-free: they update striped
+ * {@link LongAdder}s, looking up per tool type metrics in a concurrent map. A service without metrics skips the
+ * recording calls, and the time lookups around them, entirely.
+ */
+public class CheckoutMetrics {
+
+    public static final String CHECKOUTS = "checkouts_total";
+    public static final String REJECTIONS = "checkout_rejections_total";
+    public static final String CHECKOUT_LATENCY = "checkout_latency_nanoseconds";
+    public static final String RENTAL_DAYS = "checkout_rental_days";
+    public static final String BATCH_LATENCY = "checkout_batch_latency_nanoseconds";
+    public static final String BATCH_ROWS = "checkout_batch_rows_total";
+    public static final String CATALOG_LOAD_TIME = "catalog_load_nanoseconds";
+    public static final String CATALOG_LOAD_FAILURES = "catalog_load_failures_total";
+
+    public static final String TOOL_TYPE_TAG = "tool_type";
+    public static final String ERROR_TAG = "error";
+
+    private static final String UNKNOWN_TOOL_TYPE = "unknown";
+    private static final CheckoutValidationError[] ERRORS = CheckoutValidationError.values();
+
+    private final ConcurrentMap<String, ToolTypeMetrics> toolTypes = new ConcurrentHashMap<>();
+    private final LongAdder[] rejections = new LongAdder[ERRORS.length];
+    private final LogHistogram batchLatency = new LogHistogram();
+    private final LongAdder batchRows = new LongAdder();
+    private final LogHistogram catalogLoadTime = new LogHistogram();
+    private final LongAdder catalogLoadFailures = new LongAdder();
+
+    public CheckoutMetrics() {
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a successful checkout
+     * @param toolType - Name of the tool type checked out
+     * @param rentalDays - Number of rental days requested
+     * @param latencyNanos - Time taken by the checkout, or a negative number if it wasn't timed, as for batch rows
+     */
+    public void recordCheckout(String toolType, int rentalDays, long latencyNanos) {
+        ToolTypeMetrics metrics = toolTypeMetrics(toolType);
+        metrics.checkouts.increment();
+        metrics.rentalDays.record(rentalDays);
+        if (latencyNanos >= 0) {
+            metrics.latency.record(latencyNanos);
+        }
+    }
+
+    /**
+     * Records a rejected checkout, counting it once for each of its errors
+     */
+    public void recordRejection(Set<CheckoutValidationError> errors) {
+        for (CheckoutValidationError error : errors) {
+            rejections[error.ordinal()].increment();
+        }
+    }
+
+    public void recordBatch(int rows, long latencyNanos) {
+        batchRows.add(rows);
+        batchLatency.record(latencyNanos);
+    }
+
+    public void recordCatalogLoad(long loadNanos) {
+        catalogLoadTime.record(loadNanos);
+    }
+
+    public void recordCatalogLoadFailure() {
+        catalogLoadFailures.increment();
+    }
+
+    /**
+     * @return The current value of every metric, grouped by metric name. Tool types appear once they were first checked out.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, ToolTypeMetrics> byName = new TreeMap<>(toolTypes);
+        List<MetricsSnapshot.CounterSample> counters = new ArrayList<>();
+        for (Map.Entry<String, ToolTypeMetrics> toolType : byName.entrySet()) {
+            counters.add(new MetricsSnapshot.CounterSample(CHECKOUTS, Map.of(TOOL_TYPE_TAG, toolType.getKey()), toolType.getValue().checkouts.sum()));
+        }
+        for (CheckoutValidationError error : ERRORS) {
+            counters.add(new MetricsSnapshot.CounterSample(REJECTIONS, Map.of(ERROR_TAG, error.name()), rejections[error.ordinal()].sum()));
+        }
+        counters.add(new MetricsSnapshot.CounterSample(BATCH_ROWS, Map.of(), batchRows.sum()));
+        counters.add(new MetricsSnapshot.CounterSample(CATALOG_LOAD_FAILURES, Map.of(), catalogLoadFailures.sum()));
+
+        List<MetricsSnapshot.HistogramSample> histograms = new ArrayList<>();
+        for (Map.Entry<String, ToolTypeMetrics> toolType : byName.entrySet()) {
+            histograms.add(toolType.getValue().latency.snapshot(CHECKOUT_LATENCY, Map.of(TOOL_TYPE_TAG, toolType.getKey())));
+        }
+        for (Map.Entry<String, ToolTypeMetrics> toolType : byName.entrySet()) {
+            histograms.add(toolType.getValue().rentalDays.snapshot(RENTAL_DAYS, Map.of(TOOL_TYPE_TAG, toolType.getKey())));
+        }
+        histograms.add(batchLatency.snapshot(BATCH_LATENCY, Map.of()));
+        histograms.add(catalogLoadTime.snapshot(CATALOG_LOAD_TIME, Map.of()));
+        return new MetricsSnapshot(counters, histograms);
+    }
+
+    /**
+     * Hands a snapshot of the current values to the exporter
+     */
+    public void export(MetricsExporter exporter) throws IOException {
+        exporter.export(snapshot());
+    }
+
+    private ToolTypeMetrics toolTypeMetrics(String toolType) {
+        String name = toolType == null ? UNKNOWN_TOOL_TYPE : toolType;
+        ToolTypeMetrics metrics = toolTypes.get(name);
+        return metrics != null ? metrics : toolTypes.computeIfAbsent(name, key -> new ToolTypeMetrics());
+    }
+
+    private static final class ToolTypeMetrics {
+        private final LongAdder checkouts = new LongAdder();
+        private final LogHistogram latency = new LogHistogram();
+        private final LogHistogram rentalDays = new LogHistogram();
+    }
+}
@@ -0,0 +1,21 @@
+package com.kn0824.service.metrics;
+
+/**
+ * Keeps the most recent snapshot so it can be inspected in process, for instance by tests or an admin endpoint
+ */
+public class InMemoryMetricsExporter implements MetricsExporter {
+
+    private volatile MetricsSnapshot lastSnapshot;
+
+    @Override
+    public void export(MetricsSnapshot snapshot) {
+        lastSnapshot = snapshot;
+    }
+
+    /**
+     * @return The most recently exported snapshot, or null before the first export
+     */
+    public MetricsSnapshot getLastSnapshot() {
+        return lastSnapshot;
+    }
+}
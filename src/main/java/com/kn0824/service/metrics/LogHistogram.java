@@ -0,0 +1,79 @@
+package com.kn0824.service.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative longs with log-linear buckets in the style of HdrHistogram. Values below 8 get a bucket
+ * each, and every power of two above that is split into 8 buckets, so a bucket's bounds are within 12.5% of any value
+ * recorded in it. Every bucket is a {@link LongAdder}, so recording from many threads doesn't contend.
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LogHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        buckets[bucketIndex(clamped)].increment();
+        sum.add(clamped);
+        max.accumulate(clamped);
+    }
+
+    /**
+     * @return The non-empty buckets and totals at this moment. Values recorded while the snapshot is taken may be missing from some of the totals.
+     */
+    public MetricsSnapshot.HistogramSample snapshot(String name, Map<String, String> tags) {
+        long[] upperBounds = new long[BUCKETS];
+        long[] counts = new long[BUCKETS];
+        int used = 0;
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = buckets[i].sum();
+            if (bucketCount > 0) {
+                upperBounds[used] = bucketUpperBound(i);
+                counts[used] = bucketCount;
+                used++;
+                count += bucketCount;
+            }
+        }
+        return new MetricsSnapshot.HistogramSample(name, tags, count, sum.sum(), max.get(),
+                Arrays.copyOf(upperBounds, used), Arrays.copyOf(counts, used));
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) ((value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    static long bucketUpperBound(int index) {
+        return index == BUCKETS - 1 ? Long.MAX_VALUE : bucketLowerBound(index + 1) - 1;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int octave = index / SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (octave - 1);
+    }
+}
@@ -0,0 +1,12 @@
+package com.kn0824.service.metrics;
+
+import java.io.IOException;
+
+/**
+ * Receives snapshots of the checkout metrics, see {@link CheckoutMetrics#export(MetricsExporter)}
+ */
+@FunctionalInterface
+public interface MetricsExporter {
+
+    void export(MetricsSnapshot snapshot) throws IOException;
+}
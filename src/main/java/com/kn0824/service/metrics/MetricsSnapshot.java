@@ -0,0 +1,79 @@
+package com.kn0824.service.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The values of every metric at one moment, as handed to a {@link MetricsExporter}
+ */
+public record MetricsSnapshot(List<CounterSample> counters, List<HistogramSample> histograms) {
+
+    public MetricsSnapshot {
+        counters = List.copyOf(counters);
+        histograms = List.copyOf(histograms);
+    }
+
+    /**
+     * @return The counter with the given name and tags, or null if there is none
+     */
+    public CounterSample counter(String name, Map<String, String> tags) {
+        for (CounterSample counter : counters) {
+            if (counter.name().equals(name) && counter.tags().equals(tags)) {
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The histogram with the given name and tags, or null if there is none
+     */
+    public HistogramSample histogram(String name, Map<String, String> tags) {
+        for (HistogramSample histogram : histograms) {
+            if (histogram.name().equals(name) && histogram.tags().equals(tags)) {
+                return histogram;
+            }
+        }
+        return null;
+    }
+
+    public record CounterSample(String name, Map<String, String> tags, long value) {
+
+        public CounterSample {
+            Objects.requireNonNull(name, "name");
+            tags = Map.copyOf(tags);
+        }
+    }
+
+    /**
+     * @param upperBounds - Inclusive upper bound of each non-empty bucket, ascending
+     * @param counts - Number of values in each of those buckets
+     */
+    public record HistogramSample(String name, Map<String, String> tags, long count, long sum, long max, long[] upperBounds, long[] counts) {
+
+        public HistogramSample {
+            Objects.requireNonNull(name, "name");
+            tags = Map.copyOf(tags);
+        }
+
+        /**
+         * @param percentile - Between 0 and 100
+         * @return The upper bound of the bucket holding the value at the percentile, capped at the largest recorded value
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBounds[i], max);
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.kn0824.service.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes snapshots in the Prometheus text exposition format. Counters become counters, histograms become histograms
+ * with one cumulative bucket per non-empty bucket of the {@link LogHistogram}. Tags are written in name order.
+ */
+public class PrometheusTextExporter implements MetricsExporter {
+
+    private final Appendable out;
+
+    /**
+     * @param out - Destination of every exported snapshot, for example the body of a scrape response
+     */
+    public PrometheusTextExporter(Appendable out) {
+        this.out = out;
+    }
+
+    @Override
+    public void export(MetricsSnapshot snapshot) throws IOException {
+        write(snapshot, out);
+    }
+
+    /**
+     * @return The snapshot in the Prometheus text format
+     */
+    public static String format(MetricsSnapshot snapshot) {
+        StringBuilder text = new StringBuilder();
+        try {
+            write(snapshot, text);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    private static void write(MetricsSnapshot snapshot, Appendable out) throws IOException {
+        String previousName = null;
+        for (MetricsSnapshot.CounterSample counter : snapshot.counters()) {
+            if (!counter.name().equals(previousName)) {
+                out.append("# TYPE ").append(counter.name()).append(" counter\n");
+                previousName = counter.name();
+            }
+            out.append(counter.name());
+            appendTags(out, counter.tags(), null);
+            out.append(' ').append(Long.toString(counter.value())).append('\n');
+        }
+        for (MetricsSnapshot.HistogramSample histogram : snapshot.histograms()) {
+            if (!histogram.name().equals(previousName)) {
+                out.append("# TYPE ").append(histogram.name()).append(" histogram\n");
+                previousName = histogram.name();
+            }
+            long cumulative = 0;
+            for (int i = 0; i < histogram.counts().length; i++) {
+                cumulative += histogram.counts()[i];
+                out.append(histogram.name()).append("_bucket");
+                appendTags(out, histogram.tags(), Long.toString(histogram.upperBounds()[i]));
+                out.append(' ').append(Long.toString(cumulative)).append('\n');
+            }
+            out.append(histogram.name()).append("_bucket");
+            appendTags(out, histogram.tags(), "+Inf");
+            out.append(' ').append(Long.toString(histogram.count())).append('\n');
+            out.append(histogram.name()).append("_sum");
+            appendTags(out, histogram.tags(), null);
+            out.append(' ').append(Long.toString(histogram.sum())).append('\n');
+            out.append(histogram.name()).append("_count");
+            appendTags(out, histogram.tags(), null);
+            out.append(' ').append(Long.toString(histogram.count())).append('\n');
+        }
+    }
+
+    private static void appendTags(Appendable out, Map<String, String> tags, String le) throws IOException {
+        if (tags.isEmpty() && le == null) {
+            return;
+        }
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, String> tag : new TreeMap<>(tags).entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append(tag.getKey()).append("=\"");
+            appendEscaped(out, tag.getValue());
+            out.append('"');
+        }
+        if (le != null) {
+            out.append(first ? "" : ",").append("le=\"").append(le).append('"');
+        }
+        out.append('}');
+    }
+
+    private static void appendEscaped(Appendable out, String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.kn0824.service.pipeline;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.service.CheckoutRequest;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.CheckoutValidationException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams checkout requests from a {@link CheckoutRequestSource} through a {@link CheckoutService} into a
+ * {@link CheckoutResultSink}, in three stages running side by side:
+ * <ol>
+ *     <li>a reader thread parses rows and groups them into chunks,</li>
+ *     <li>a fixed pool of workers checks out the rows of each chunk, and</li>
+ *     <li>the calling thread writes the chunks out in input order as soon as the next one in order is priced.</li>
+ * </ol>
+ * The reader has to take a permit for every chunk and the writer gives it back once the chunk is written, so the number
+ * of chunks in memory, queued for the workers or waiting to be written, never exceeds the configured limit. A slow sink
+ * or slow workers hold the reader back instead of letting rows pile up, so memory stays constant whatever the input size.
+ * <p>
+ * Every row is checked out with {@link CheckoutService#checkout(String, java.time.LocalDate, int, int)}, so ledger
+ * recording, reservations, and metrics apply exactly as for single checkouts. Rows the service rejects with a
+ * {@link CheckoutValidationException}, because the request is invalid or the tool is already rented out, and rows the
+ * source couldn't parse are written as errors and don't stop the run. Any other failure, for example an unreadable
+ * input, a sink that can't be written, or a ledger that can't be written or can't hold an agreement, stops the run and
+ * is rethrown from {@link #run}.
+ */
+public class BulkCheckoutPipeline {
+
+    public static final int DEFAULT_CHUNK_SIZE = 512;
+
+    /**
+     * The input formats {@link #run(InputStream, Format, OutputStream)} can read
+     */
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * @return CSV for files ending in .csv, otherwise NDJSON
+         */
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+        }
+    }
+
+    private final CheckoutService checkoutService;
+    private final int workers;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    /**
+     * Creates a pipeline with a worker per available processor and {@link #DEFAULT_CHUNK_SIZE} rows per chunk
+     */
+    public BulkCheckoutPipeline(CheckoutService checkoutService) {
+        this(checkoutService, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param checkoutService - The service that prices every row
+     * @param workers - Number of pricing threads
+     * @param chunkSize - Number of rows handed to a worker at a time
+     * @param maxChunksInFlight - Most chunks read but not yet written. At most maxChunksInFlight * chunkSize rows are held in memory.
+     */
+    public BulkCheckoutPipeline(CheckoutService checkoutService, int workers, int chunkSize, int maxChunksInFlight) {
+        if (workers < 1 || chunkSize < 1 || maxChunksInFlight < 1) {
+            throw new IllegalArgumentException("Workers, chunk size, and chunks in flight must be at least 1. ");
+        }
+        this.checkoutService = checkoutService;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    /**
+     * Prices every request of the input file into the output file as newline delimited JSON.
+     * The input format is picked by {@link Format#forFile(Path)}.
+     */
+    public PipelineResult run(Path input, Path output) throws IOException {
+        try (InputStream in = Files.newInputStream(input);
+             OutputStream out = Files.newOutputStream(output)) {
+            return run(in, Format.forFile(input), out);
+        }
+    }
+
+    /**
+     * Prices every request of the UTF-8 input into the output as newline delimited JSON. Neither stream is closed.
+     */
+    public PipelineResult run(InputStream in, Format format, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        CheckoutRequestSource source = format == Format.CSV ? new CsvCheckoutRequestSource(reader) : new NdjsonCheckoutRequestSource(reader);
+        PipelineResult result = run(source, new NdjsonCheckoutResultSink(writer));
+        writer.flush();
+        return result;
+    }
+
+    /**
+     * Reads every row of the source, prices it, and writes the agreement or error to the sink in input order.
+     * The sink is flushed at the end but neither the source nor the sink is closed.
+     * @throws IOException If the source can't be read or the sink can't be written
+     * @throws UncheckedIOException If an agreement can't be recorded in the ledger
+     * @throws IllegalArgumentException If a ledger is configured and can't hold an agreement, for example because its daily charge has fractions of a cent
+     */
+    public PipelineResult run(CheckoutRequestSource source, CheckoutResultSink sink) throws IOException {
+        long start = System.nanoTime();
+        Run run = new Run(maxChunksInFlight);
+        ThreadPoolExecutor pricing = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxChunksInFlight), runnable -> {
+                    Thread thread = new Thread(runnable, "checkout-pipeline-pricing");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Thread reader = new Thread(() -> read(source, run, pricing), "checkout-pipeline-reader");
+        reader.setDaemon(true);
+        reader.start();
+        long rows = 0;
+        long agreements = 0;
+        try {
+            for (Chunk chunk = run.takeNext(); chunk != null; chunk = run.takeNext()) {
+                for (int i = 0; i < chunk.size; i++) {
+                    if (chunk.agreements[i] != null) {
+                        sink.agreement(chunk.rows[i].line(), chunk.agreements[i]);
+                        agreements++;
+                    } else {
+                        sink.error(chunk.rows[i].line(), chunk.errors[i]);
+                    }
+                }
+                rows += chunk.size;
+                run.permits.release();
+            }
+            run.rethrowFailure();
+            sink.flush();
+        } catch (IOException | RuntimeException e) {
+            run.fail(e);
+            throw e;
+        } catch (InterruptedException e) {
+            run.fail(e);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for priced rows");
+        } finally {
+            reader.interrupt();
+            pricing.shutdownNow();
+        }
+        return new PipelineResult(rows, agreements, rows - agreements, System.nanoTime() - start);
+    }
+
+    /* Runs on the reader thread, chunking the rows of the source and handing each chunk to the pricing pool */
+    private void read(CheckoutRequestSource source, Run run, ThreadPoolExecutor pricing) {
+        try {
+            long sequence = 0;
+            Chunk chunk = null;
+            for (SourceRow row = source.next(); row != null && !run.isFailed(); row = source.next()) {
+                if (chunk == null) {
+                    run.permits.acquire();
+                    chunk = new Chunk(sequence++, chunkSize);
+                }
+                chunk.rows[chunk.size++] = row;
+                if (chunk.size == chunkSize) {
+                    submit(chunk, run, pricing);
+                    chunk = null;
+                }
+            }
+            if (chunk != null) {
+                submit(chunk, run, pricing);
+            }
+            run.finishReading(sequence);
+        } catch (Throwable e) {
+            run.fail(e);
+        }
+    }
+
+    /* The permit taken for the chunk guarantees a free slot in the pool's queue */
+    private void submit(Chunk chunk, Run run, ThreadPoolExecutor pricing) {
+        pricing.execute(() -> {
+            try {
+                price(chunk);
+                run.complete(chunk);
+            } catch (Throwable e) {
+                run.fail(e);
+            }
+        });
+    }
+
+    private void price(Chunk chunk) {
+        for (int i = 0; i < chunk.size; i++) {
+            SourceRow row = chunk.rows[i];
+            CheckoutRequest request = row.request();
+            if (request == null) {
+                chunk.errors[i] = row.error();
+                continue;
+            }
+            try {
+                chunk.agreements[i] = checkoutService.checkout(request.toolCode(), request.checkoutDate(), request.rentalDays(), request.discount());
+            } catch (CheckoutValidationException e) {
+                chunk.errors[i] = e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Rows handed to a worker together, and their results once priced
+     */
+    private static final class Chunk {
+        private final long sequence;
+        private final SourceRow[] rows;
+        private final RentalAgreement[] agreements;
+        private final String[] errors;
+        private int size;
+
+        private Chunk(long sequence, int capacity) {
+            this.sequence = sequence;
+            this.rows = new SourceRow[capacity];
+            this.agreements = new RentalAgreement[capacity];
+            this.errors = new String[capacity];
+        }
+    }
+
+    /**
+     * State shared by the stages of one run. Priced chunks wait in a ring indexed by sequence number until the writer
+     * reaches them. The permits keep every chunk in flight within one lap of the ring, so no two share a slot.
+     */
+    private static final class Run {
+        private final Semaphore permits;
+        private final Chunk[] priced;
+        private long nextToWrite;
+        private long chunkCount = -1;
+        private Throwable failure;
+
+        private Run(int maxChunksInFlight) {
+            this.permits = new Semaphore(maxChunksInFlight);
+            this.priced = new Chunk[maxChunksInFlight];
+        }
+
+        private synchronized void complete(Chunk chunk) {
+            priced[(int) (chunk.sequence % priced.length)] = chunk;
+            notifyAll();
+        }
+
+        private synchronized void finishReading(long chunkCount) {
+            this.chunkCount = chunkCount;
+            notifyAll();
+        }
+
+        private synchronized void fail(Throwable failure) {
+            if (this.failure == null) {
+                this.failure = failure;
+            }
+            notifyAll();
+        }
+
+        private synchronized boolean isFailed() {
+            return failure != null;
+        }
+
+        /* Waits for the next chunk in input order, returns null once every chunk was taken or the run failed */
+        private synchronized Chunk takeNext() throws InterruptedException {
+            while (failure == null) {
+                int slot = (int) (nextToWrite % priced.length);
+                Chunk chunk = priced[slot];
+                if (chunk != null && chunk.sequence == nextToWrite) {
+                    priced[slot] = null;
+                    nextToWrite++;
+                    return chunk;
+                }
+                if (nextToWrite == chunkCount) {
+                    return null;
+                }
+                wait();
+            }
+            return null;
+        }
+
+        private synchronized void rethrowFailure() throws IOException {
+            if (failure instanceof IOException e) {
+                throw e;
+            } else if (failure instanceof RuntimeException e) {
+                throw e;
+            } else if (failure instanceof Error e) {
+                throw e;
+            } else if (failure != null) {
+                throw new IOException("Checkout pipeline failed", failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.kn0824.service.pipeline;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads checkout requests one row at a time, so an input of any size can be streamed through a {@link BulkCheckoutPipeline}.
+ * Malformed rows are returned as {@link SourceRow#malformed(long, String) malformed} rows rather than failing the read.
+ */
+public interface CheckoutRequestSource extends Closeable {
+
+    /**
+     * @return The next row, or null at the end of the input
+     * @throws IOException If the input can't be read
+     */
+    SourceRow next() throws IOException;
+}
@@ -0,0 +1,24 @@
+package com.kn0824.service.pipeline;
+
+import com.kn0824.core.agreement.RentalAgreement;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Receives the outcome of every row of a {@link BulkCheckoutPipeline}, in input order. Only ever called from one thread at a time.
+ */
+public interface CheckoutResultSink extends Closeable, Flushable {
+
+    /**
+     * @param line - Line number of the request in the input
+     */
+    void agreement(long line, RentalAgreement agreement) throws IOException;
+
+    /**
+     * @param line - Line number of the rejected or malformed row in the input
+     * @param message - Validation or parse error messages of the row
+     */
+    void error(long line, String message) throws IOException;
+}
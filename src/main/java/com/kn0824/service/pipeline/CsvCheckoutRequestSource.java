@@ -0,0 +1,62 @@
+package com.kn0824.service.pipeline;
+
+import com.kn0824.service.CheckoutRequest;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads checkout requests from CSV rows of {@code toolCode,checkoutDate,rentalDays,discount}, with the checkout date in
+ * ISO-8601 format. A first row starting with {@code toolCode} is taken as a header and skipped. Rows are read one at a
+ * time through OpenCSV, so only the current row is held in memory.
+ */
+public class CsvCheckoutRequestSource implements CheckoutRequestSource {
+
+    private static final String HEADER = "toolCode";
+    private static final int COLUMNS = 4;
+
+    private final CSVReader reader;
+    private boolean firstRow = true;
+
+    public CsvCheckoutRequestSource(Reader in) {
+        this.reader = new CSVReader(in);
+    }
+
+    @Override
+    public SourceRow next() throws IOException {
+        String[] row;
+        try {
+            row = reader.readNext();
+            if (row != null && firstRow && row.length > 0 && HEADER.equalsIgnoreCase(row[0].trim())) {
+                row = reader.readNext();
+            }
+        } catch (CsvValidationException e) {
+            return SourceRow.malformed(reader.getLinesRead(), "Malformed CSV row: " + e.getMessage() + ". ");
+        }
+        firstRow = false;
+        if (row == null) {
+            return null;
+        }
+        long line = reader.getLinesRead();
+        if (row.length != COLUMNS) {
+            return SourceRow.malformed(line, "Expected the 4 columns toolCode,checkoutDate,rentalDays,discount but found " + row.length + ". ");
+        }
+        try {
+            return SourceRow.parsed(line, new CheckoutRequest(row[0].trim(), LocalDate.parse(row[1].trim()),
+                    Integer.parseInt(row[2].trim()), Integer.parseInt(row[3].trim())));
+        } catch (DateTimeParseException e) {
+            return SourceRow.malformed(line, "Invalid checkout date " + row[1].trim() + ". ");
+        } catch (NumberFormatException e) {
+            return SourceRow.malformed(line, "Rental days and discount must be whole numbers. ");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
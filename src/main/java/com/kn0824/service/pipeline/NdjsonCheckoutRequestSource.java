@@ -0,0 +1,99 @@
+package com.kn0824.service.pipeline;
+
+import com.kn0824.core.agreement.codec.JsonTokenizer;
+import com.kn0824.service.CheckoutRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamCorruptedException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads checkout requests from newline delimited JSON, one flat object per line, for example
+ * <pre>
+ * {"toolCode":"LADW","checkoutDate":"2020-07-02","rentalDays":3,"discount":10}
+ * </pre>
+ * Unknown fields are skipped and blank lines are ignored. Every line is parsed on its own, so a malformed line becomes
+ * a malformed row and reading resumes on the next line.
+ */
+public class NdjsonCheckoutRequestSource implements CheckoutRequestSource {
+
+    private final BufferedReader in;
+    private final JsonTokenizer tokenizer = new JsonTokenizer();
+    private long lineNumber;
+
+    public NdjsonCheckoutRequestSource(Reader in) {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+    }
+
+    @Override
+    public SourceRow next() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+        } while (line.isBlank());
+
+        tokenizer.reset(line);
+        try {
+            return SourceRow.parsed(lineNumber, parseRequest());
+        } catch (StreamCorruptedException e) {
+            return SourceRow.malformed(lineNumber, e.getMessage() + ". ");
+        } catch (DateTimeParseException e) {
+            return SourceRow.malformed(lineNumber, "Invalid checkout date " + e.getParsedString() + ". ");
+        } catch (NumberFormatException e) {
+            return SourceRow.malformed(lineNumber, "Rental days and discount must be whole numbers. ");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // The tokenizer reads from the line in memory, so the only IOException it throws is StreamCorruptedException
+    private CheckoutRequest parseRequest() throws IOException {
+        String toolCode = null;
+        LocalDate checkoutDate = null;
+        int rentalDays = 0;
+        int discount = 0;
+
+        tokenizer.expect(tokenizer.skipWhitespace(), '{');
+        int c = tokenizer.skipWhitespace();
+        while (c != '}') {
+            tokenizer.expect(c, '"');
+            String field = tokenizer.readString();
+            tokenizer.expect(tokenizer.skipWhitespace(), ':');
+            switch (field) {
+                case "toolCode" -> toolCode = tokenizer.readNullableString();
+                case "checkoutDate" -> {
+                    String date = tokenizer.readNullableString();
+                    checkoutDate = date == null ? null : LocalDate.parse(date);
+                }
+                case "rentalDays" -> rentalDays = Integer.parseInt(tokenizer.readLiteral());
+                case "discount" -> discount = Integer.parseInt(tokenizer.readLiteral());
+                default -> tokenizer.skipValue();
+            }
+            c = tokenizer.skipWhitespace();
+            if (c == ',') {
+                // Another field must follow, a trailing comma before '}' is not JSON
+                c = tokenizer.skipWhitespace();
+                tokenizer.expect(c, '"');
+            } else if (c != '}') {
+                throw new StreamCorruptedException("Expected ',' or '}' but found " + JsonTokenizer.describe(c));
+            }
+        }
+        if (tokenizer.skipWhitespace() >= 0) {
+            throw new StreamCorruptedException("Unexpected content after the request object");
+        }
+        if (checkoutDate == null) {
+            throw new StreamCorruptedException("The checkout date is missing");
+        }
+        return new CheckoutRequest(toolCode, checkoutDate, rentalDays, discount);
+    }
+}
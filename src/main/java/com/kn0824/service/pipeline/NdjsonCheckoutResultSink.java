@@ -0,0 +1,63 @@
+package com.kn0824.service.pipeline;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.agreement.codec.JsonAgreementWriter;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writes pipeline results as newline delimited JSON. Agreements are written by a {@link JsonAgreementWriter}, so the
+ * agreement lines can be read back with the agreement codec, and errors as
+ * <pre>
+ * {"line":12,"error":"Unknown tool code is being requested. Please confirm the code and try again. "}
+ * </pre>
+ * Not thread safe.
+ */
+public class NdjsonCheckoutResultSink implements CheckoutResultSink {
+
+    private final Appendable out;
+    private final JsonAgreementWriter agreementWriter;
+
+    public NdjsonCheckoutResultSink(Appendable out) {
+        this.out = out;
+        this.agreementWriter = new JsonAgreementWriter(out);
+    }
+
+    @Override
+    public void agreement(long line, RentalAgreement agreement) throws IOException {
+        agreementWriter.write(agreement);
+    }
+
+    @Override
+    public void error(long line, String message) throws IOException {
+        out.append("{\"line\":").append(Long.toString(line)).append(",\"error\":\"");
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append("\"}\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out instanceof Flushable flushable) {
+            flushable.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (out instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
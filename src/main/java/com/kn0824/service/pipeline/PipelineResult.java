@@ -0,0 +1,11 @@
+package com.kn0824.service.pipeline;
+
+/**
+ * Totals of a {@link BulkCheckoutPipeline} run
+ * @param rows - Number of rows read
+ * @param agreements - Number of rows that produced an agreement
+ * @param errors - Number of rows that were malformed or rejected
+ * @param elapsedNanos - Wall time of the run
+ */
+public record PipelineResult(long rows, long agreements, long errors, long elapsedNanos) {
+}
@@ -0,0 +1,20 @@
+package com.kn0824.service.pipeline;
+
+import com.kn0824.service.CheckoutRequest;
+
+/**
+ * One input row of a {@link BulkCheckoutPipeline}: either a parsed request or the reason the row couldn't be parsed
+ * @param line - Line number of the row in the input, starting at 1
+ * @param request - The parsed request, or null if the row is malformed
+ * @param error - Why the row couldn't be parsed, or null if it was
+ */
+public record SourceRow(long line, CheckoutRequest request, String error) {
+
+    public static SourceRow parsed(long line, CheckoutRequest request) {
+        return new SourceRow(line, request, null);
+    }
+
+    public static SourceRow malformed(long line, String error) {
+        return new SourceRow(line, null, error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.kn0824.service.reservation;
+
+import com.kn0824.core.tools.Tool;
+
+import java.time.LocalDate;
+
+/**
+ * A tool that is free from the checkout date up to the due date
+ */
+public record AvailableWindow(Tool tool, LocalDate checkoutDate, LocalDate dueDate) {
+}
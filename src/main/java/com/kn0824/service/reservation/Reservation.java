@@ -0,0 +1,27 @@
+package com.kn0824.service.reservation;
+
+import java.time.LocalDate;
+
+/**
+ * A booking of one tool. The tool is out from the checkout day up to, but not including, the due day, so another
+ * rental of the same tool can start on the due day.
+ * @param toolCode - Code of the booked tool
+ * @param checkoutEpochDay - First day the tool is out
+ * @param dueEpochDay - Day the tool is back, after checkoutEpochDay
+ */
+public record Reservation(String toolCode, long checkoutEpochDay, long dueEpochDay) {
+
+    public Reservation {
+        if (toolCode == null || dueEpochDay <= checkoutEpochDay) {
+            throw new IllegalArgumentException("A reservation needs a tool code and must last at least 1 day. ");
+        }
+    }
+
+    public LocalDate checkoutDate() {
+        return LocalDate.ofEpochDay(checkoutEpochDay);
+    }
+
+    public LocalDate dueDate() {
+        return LocalDate.ofEpochDay(dueEpochDay);
+    }
+}
@@ -0,0 +1,110 @@
+package com.kn0824.service.reservation;
+
+import com.kn0824.core.tools.Tool;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tracks which tools are booked on which days so that a physical tool can't be rented out twice at the same time.
+ * Each tool has its own schedule and lock, so bookings of different tools never wait on each other.
+ */
+public class ReservationBook {
+
+    private static final Comparator<Tool> BY_TOOL_CODE = Comparator.comparing(Tool::getToolCode);
+
+    private final ConcurrentMap<String, ToolSchedule> schedules = new ConcurrentHashMap<>();
+
+    /**
+     * Books the tool for the rental period if it is free for the whole period. The check and the booking are atomic.
+     * @param toolCode - Tool to book
+     * @param checkoutDate - First day the tool is out
+     * @param rentalDays - Number of days the tool is out, at least 1
+     * @return The booking, or null if the tool is already booked on any day of the period
+     */
+    public Reservation tryReserve(String toolCode, LocalDate checkoutDate, int rentalDays) {
+        Reservation reservation = new Reservation(toolCode, checkoutDate.toEpochDay(), checkoutDate.toEpochDay() + rentalDays);
+        return scheduleFor(toolCode).tryBook(reservation.checkoutEpochDay(), reservation.dueEpochDay()) ? reservation : null;
+    }
+
+    /**
+     * Cancels a booking, for instance when the checkout it was made for fails
+     * @return Whether the booking existed
+     */
+    public boolean release(Reservation reservation) {
+        ToolSchedule schedule = schedules.get(reservation.toolCode());
+        return schedule != null && schedule.release(reservation.checkoutEpochDay(), reservation.dueEpochDay());
+    }
+
+    /**
+     * @return Whether the tool is free for every day of the rental period
+     */
+    public boolean isAvailable(String toolCode, LocalDate checkoutDate, int rentalDays) {
+        ToolSchedule schedule = schedules.get(toolCode);
+        long checkoutDay = checkoutDate.toEpochDay();
+        return schedule == null || schedule.isFree(checkoutDay, checkoutDay + rentalDays);
+    }
+
+    /**
+     * Finds the earliest period in which the tool is free for the given number of days
+     * @param earliestDate - Earliest acceptable checkout date
+     * @return The first free checkout date on or after the earliest date
+     */
+    public LocalDate firstAvailableDate(String toolCode, LocalDate earliestDate, int rentalDays) {
+        ToolSchedule schedule = schedules.get(toolCode);
+        return schedule == null ? earliestDate : LocalDate.ofEpochDay(schedule.firstFreeDay(earliestDate.toEpochDay(), rentalDays));
+    }
+
+    /**
+     * Finds the tool that becomes free for the given number of days first, for instance any tool of one tool type.
+     * Ties go to the lowest tool code. The answer can be out of date as soon as it is returned, so a checkout for it
+     * should still go through {@link #tryReserve(String, LocalDate, int)}.
+     * @param tools - Candidate tools
+     * @param earliestDate - Earliest acceptable checkout date
+     * @return The earliest free window, or null if there are no candidate tools
+     */
+    public AvailableWindow firstAvailableWindow(Collection<Tool> tools, LocalDate earliestDate, int rentalDays) {
+        if (rentalDays < 1) {
+            throw new IllegalArgumentException("The number of days chosen for rental must be at least 1 day. ");
+        }
+        Tool bestTool = null;
+        LocalDate bestDate = null;
+        for (Tool tool : tools.stream().sorted(BY_TOOL_CODE).toList()) {
+            LocalDate date = firstAvailableDate(tool.getToolCode(), earliestDate, rentalDays);
+            if (bestDate == null || date.isBefore(bestDate)) {
+                bestTool = tool;
+                bestDate = date;
+                if (date.equals(earliestDate)) {
+                    break;
+                }
+            }
+        }
+        return bestTool == null ? null : new AvailableWindow(bestTool, bestDate, bestDate.plusDays(rentalDays));
+    }
+
+    /**
+     * Forgets every booking that ended on or before the given date, keeping the schedules short
+     */
+    public void releaseBefore(LocalDate date) {
+        long day = date.toEpochDay();
+        for (ToolSchedule schedule : schedules.values()) {
+            schedule.releaseBefore(day);
+        }
+    }
+
+    /**
+     * @return The number of bookings held for the tool
+     */
+    public int reservationCount(String toolCode) {
+        ToolSchedule schedule = schedules.get(toolCode);
+        return schedule == null ? 0 : schedule.size();
+    }
+
+    private ToolSchedule scheduleFor(String toolCode) {
+        ToolSchedule schedule = schedules.get(toolCode);
+        return schedule != null ? schedule : schedules.computeIfAbsent(toolCode, code -> new ToolSchedule());
+    }
+}
@@ -0,0 +1,102 @@
+package com.kn0824.service.reservation;
+
+import java.util.Arrays;
+
+/**
+ * The booked intervals of one tool, kept as two parallel arrays of epoch days sorted by checkout day. Bookings never
+ * overlap, so the due days are sorted as well and both arrays can be binary searched. Every method locks only this
+ * tool's schedule.
+ */
+final class ToolSchedule {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] checkoutDays = new long[INITIAL_CAPACITY];
+    private long[] dueDays = new long[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * Books [checkoutDay, dueDay) if no existing booking overlaps it
+     * @return Whether the interval was booked
+     */
+    synchronized boolean tryBook(long checkoutDay, long dueDay) {
+        int index = firstEndingAfter(checkoutDay);
+        if (index < count && checkoutDays[index] < dueDay) {
+            return false;
+        }
+        if (count == checkoutDays.length) {
+            checkoutDays = Arrays.copyOf(checkoutDays, count * 2);
+            dueDays = Arrays.copyOf(dueDays, count * 2);
+        }
+        System.arraycopy(checkoutDays, index, checkoutDays, index + 1, count - index);
+        System.arraycopy(dueDays, index, dueDays, index + 1, count - index);
+        checkoutDays[index] = checkoutDay;
+        dueDays[index] = dueDay;
+        count++;
+        return true;
+    }
+
+    /**
+     * Removes the booking of exactly [checkoutDay, dueDay)
+     * @return Whether such a booking existed
+     */
+    synchronized boolean release(long checkoutDay, long dueDay) {
+        int index = firstEndingAfter(checkoutDay);
+        if (index == count || checkoutDays[index] != checkoutDay || dueDays[index] != dueDay) {
+            return false;
+        }
+        remove(index, 1);
+        return true;
+    }
+
+    synchronized boolean isFree(long checkoutDay, long dueDay) {
+        int index = firstEndingAfter(checkoutDay);
+        return index == count || checkoutDays[index] >= dueDay;
+    }
+
+    /**
+     * @return The first day on or after the earliest day from which the tool is free for the given number of days
+     */
+    synchronized long firstFreeDay(long earliestDay, int days) {
+        long candidate = earliestDay;
+        for (int index = firstEndingAfter(earliestDay); index < count && checkoutDays[index] < candidate + days; index++) {
+            candidate = dueDays[index];
+        }
+        return candidate;
+    }
+
+    /**
+     * Drops every booking that ends on or before the given day
+     */
+    synchronized void releaseBefore(long day) {
+        remove(0, firstEndingAfter(day));
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /*
+    Index of the first booking whose due day is after the given day, which is the only booking that can contain the day
+    or the first one after it. Returns count if every booking ends on or before the day.
+     */
+    private int firstEndingAfter(long day) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dueDays[middle] <= day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void remove(int from, int length) {
+        System.arraycopy(checkoutDays, from + length, checkoutDays, from, count - from - length);
+        System.arraycopy(dueDays, from + length, dueDays, from, count - from - length);
+        count -= length;
+    }
+}
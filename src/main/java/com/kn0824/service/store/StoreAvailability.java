@@ -0,0 +1,11 @@
+package com.kn0824.service.store;
+
+import com.kn0824.service.reservation.AvailableWindow;
+
+/**
+ * The tool of a store that is free the soonest for a requested rental period
+ * @param storeId - The store holding the tool
+ * @param window - The tool and the period it is free for
+ */
+public record StoreAvailability(String storeId, AvailableWindow window) {
+}
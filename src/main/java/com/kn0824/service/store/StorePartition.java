@@ -0,0 +1,42 @@
+package com.kn0824.service.store;
+
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import com.kn0824.service.reservation.ReservationBook;
+
+/**
+ * The inventory of one store location: its own catalog, bookings, and checkout service. Nothing a partition holds is
+ * shared with another partition, so checkouts at different stores never contend on a lock or a cache entry.
+ * @param storeId - Identifies the store the partition serves
+ * @param service - Prices and books the store's checkouts
+ * @param reservationBook - Bookings of the store's tools, the book the service was built with
+ */
+public record StorePartition(String storeId, CheckoutService service, ReservationBook reservationBook) {
+
+    public StorePartition {
+        if (storeId == null || service == null || reservationBook == null) {
+            throw new IllegalArgumentException("A store partition needs a store id, a checkout service, and a reservation book. ");
+        }
+    }
+
+    /**
+     * Creates a partition with its own reservation book
+     * @param storeId - Identifies the store
+     * @param catalogProvider - Source of the store's tool catalog
+     */
+    public static StorePartition of(String storeId, ToolCatalogProvider catalogProvider) {
+        ReservationBook reservationBook = new ReservationBook();
+        return new StorePartition(storeId, CheckoutService.builder().catalogProvider(catalogProvider).reservationBook(reservationBook).build(), reservationBook);
+    }
+
+    /**
+     * Creates a partition around a configured service, for instance one with its own ledger or quote cache. The
+     * builder's reservation book is replaced by a new one owned by the partition.
+     * @param storeId - Identifies the store
+     * @param serviceBuilder - Builder of the store's service, including its catalog provider
+     */
+    public static StorePartition of(String storeId, CheckoutService.Builder serviceBuilder) {
+        ReservationBook reservationBook = new ReservationBook();
+        return new StorePartition(storeId, serviceBuilder.reservationBook(reservationBook).build(), reservationBook);
+    }
+}
@@ -0,0 +1,154 @@
+package com.kn0824.service.store;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.service.reservation.AvailableWindow;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Routes checkouts to the {@link StorePartition} of their store, and answers availability questions across stores.
+ * <p>
+ * The partitions are fixed when the router is created and kept in an unmodifiable map, so routing is a lock-free
+ * lookup and the only state a checkout touches is that of its own store. Cross-store queries fan out over the
+ * partitions on a fork-join pool and merge the answers of the stores.
+ */
+public class StoreRouter {
+
+    private static final Comparator<StoreAvailability> SOONEST_FIRST = Comparator
+            .comparing((StoreAvailability availability) -> availability.window().checkoutDate())
+            .thenComparing(StoreAvailability::storeId);
+
+    private final Map<String, StorePartition> partitions;
+    private final StorePartition[] ordered;
+
+    /**
+     * @param partitions - The stores to route to, each with a distinct store id
+     * @throws IllegalArgumentException If two partitions have the same store id
+     */
+    public StoreRouter(Collection<StorePartition> partitions) {
+        Map<String, StorePartition> byStoreId = new HashMap<>();
+        for (StorePartition partition : partitions) {
+            if (byStoreId.putIfAbsent(partition.storeId(), partition) != null) {
+                throw new IllegalArgumentException("Store " + partition.storeId() + " has more than one partition. ");
+            }
+        }
+        this.partitions = Map.copyOf(byStoreId);
+        this.ordered = byStoreId.values().stream().sorted(Comparator.comparing(StorePartition::storeId)).toArray(StorePartition[]::new);
+    }
+
+    /**
+     * @throws IllegalArgumentException If there is no partition for the store
+     */
+    public StorePartition partition(String storeId) {
+        StorePartition partition = storeId == null ? null : partitions.get(storeId);
+        if (partition == null) {
+            throw new IllegalArgumentException("There is no store with the id " + storeId + ". ");
+        }
+        return partition;
+    }
+
+    public Set<String> storeIds() {
+        return partitions.keySet();
+    }
+
+    /**
+     * Generates a Rental Agreement for a tool of the given store
+     * @param storeId - The store the tool is checked out from
+     * @throws IllegalArgumentException If there is no partition for the store, or for any reason the store's
+     * {@link com.kn0824.service.CheckoutService#checkout(String, LocalDate, int, int) checkout} rejects the request
+     * @see com.kn0824.service.CheckoutService#checkout(String, LocalDate, int, int)
+     */
+    public RentalAgreement checkout(String storeId, String toolCode, LocalDate checkoutDate, int rentalDays, int discount) {
+        return partition(storeId).service().checkout(toolCode, checkoutDate, rentalDays, discount);
+    }
+
+    /**
+     * Finds, in every store, the tool of a tool type that is free for the rental period the soonest, on the common
+     * fork-join pool
+     * @see #findAvailableTools(String, LocalDate, int, ForkJoinPool)
+     */
+    public List<StoreAvailability> findAvailableTools(String type, LocalDate earliestDate, int rentalDays) {
+        return findAvailableTools(type, earliestDate, rentalDays, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Finds, in every store, the tool of a tool type that is free for the rental period the soonest. Each store answers
+     * from its own bookings, so the stores are queried in parallel. Like a single store's answer, the result can be out
+     * of date as soon as it is returned.
+     * @param type - Tool type name, for example "Jackhammer"
+     * @param earliestDate - Earliest acceptable checkout date
+     * @param rentalDays - Number of days the tool is needed
+     * @param pool - Pool the stores are queried on
+     * @return One window for each store that has tools of the type, soonest first and then by store id
+     */
+    public List<StoreAvailability> findAvailableTools(String type, LocalDate earliestDate, int rentalDays, ForkJoinPool pool) {
+        if (rentalDays < 1) {
+            throw new IllegalArgumentException("The number of days chosen for rental must be at least 1 day. ");
+        }
+        List<StoreAvailability> availability = pool.invoke(new FindAvailableTask(ordered, 0, ordered.length, type, earliestDate, rentalDays));
+        availability.sort(SOONEST_FIRST);
+        return availability;
+    }
+
+    /**
+     * @return The store whose tool of the type is free the soonest, ties going to the lowest store id, or null if no store has tools of the type
+     * @see #findAvailableTools(String, LocalDate, int)
+     */
+    public StoreAvailability findFirstAvailableTool(String type, LocalDate earliestDate, int rentalDays) {
+        List<StoreAvailability> availability = findAvailableTools(type, earliestDate, rentalDays);
+        return availability.isEmpty() ? null : availability.get(0);
+    }
+
+    /*
+    Queries a contiguous range of the partitions, ordered by store id, splitting the range in halves until it is small
+    enough to query directly. Each half collects into its own list and the lists are joined on the way back up.
+     */
+    private static final class FindAvailableTask extends RecursiveTask<List<StoreAvailability>> {
+        private static final int STORES_PER_TASK = 8;
+
+        private final StorePartition[] partitions;
+        private final int from;
+        private final int to;
+        private final String type;
+        private final LocalDate earliestDate;
+        private final int rentalDays;
+
+        private FindAvailableTask(StorePartition[] partitions, int from, int to, String type, LocalDate earliestDate, int rentalDays) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+            this.type = type;
+            this.earliestDate = earliestDate;
+            this.rentalDays = rentalDays;
+        }
+
+        @Override
+        protected List<StoreAvailability> compute() {
+            if (to - from > STORES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                FindAvailableTask upper = new FindAvailableTask(partitions, middle, to, type, earliestDate, rentalDays);
+                upper.fork();
+                List<StoreAvailability> availability = new FindAvailableTask(partitions, from, middle, type, earliestDate, rentalDays).compute();
+                availability.addAll(upper.join());
+                return availability;
+            }
+            List<StoreAvailability> availability = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                AvailableWindow window = partitions[i].service().findAvailableTool(type, earliestDate, rentalDays);
+                if (window != null) {
+                    availability.add(new StoreAvailability(partitions[i].storeId(), window));
+                }
+            }
+            return availability;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.kn0824.core.agreement;
+
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class RentalAgreementRendererTest {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yy");
+    private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance(Locale.US);
+
+    @Test
+    public void matchesFormatterOutputForRandomAgreements() {
+        Random random = new Random(1234L);
+        for (int i = 0; i < 5_000; i++) {
+            RentalAgreement agreement = randomAgreement(random);
+            Assertions.assertEquals(formatterOutput(agreement), agreement.prettyPrint());
+        }
+    }
+
+    @Test
+    public void rendersUtf8IntoByteBuffer() {
+        Tool tool = new Tool("SCAF", new ToolType("\u00c9chafaudage", new BigDecimal("12.50"), true, true, true), "Brand \ud83d\udee0");
+        RentalAgreement agreement = agreement(tool, LocalDate.of(2024, 2, 28), new BigDecimal("1234567.891"));
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        RentalAgreementRenderer.DEFAULT.render(agreement, buffer);
+
+        Assertions.assertArrayEquals(agreement.prettyPrint().getBytes(StandardCharsets.UTF_8), copyOf(buffer.flip()));
+    }
+
+    @Test
+    public void rendersManyAgreementsIntoOneChannel() throws IOException {
+        Random random = new Random(99L);
+        List<RentalAgreement> agreements = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            RentalAgreement agreement = randomAgreement(random);
+            agreements.add(agreement);
+            expected.append(i == 0 ? "" : "\n\n").append(agreement.prettyPrint());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(bytes)) {
+            RentalAgreementRenderer.DEFAULT.renderAll(agreements, channel, "\n\n");
+        }
+        Assertions.assertEquals(expected.toString(), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Unpaired surrogates, including one at the very end of the text, come out as '?' like String.getBytes does
+     */
+    @Test
+    public void unpairedSurrogatesMatchTheStringOutput() throws IOException {
+        RentalAgreementTemplate template = RentalAgreementTemplate.compile("{toolCode} {brand}");
+        String[] brands = {"end \ud83d", "\ud83d\ud83d\udee0", "\udee0 lone low", "\ud83d\u00e9", "\ud83d"};
+        for (String brand : brands) {
+            Tool tool = new Tool("SCAF", new ToolType("Scaffold", new BigDecimal("12.50"), true, true, true), brand);
+            RentalAgreement agreement = agreement(tool, LocalDate.of(2024, 2, 28), new BigDecimal("12.50"));
+            for (RentalAgreementRenderer renderer : List.of(RentalAgreementRenderer.DEFAULT, new RentalAgreementRenderer(template))) {
+                byte[] expected = renderer.render(agreement).getBytes(StandardCharsets.UTF_8);
+                ByteBuffer buffer = ByteBuffer.allocate(1024);
+                renderer.render(agreement, buffer);
+                Assertions.assertArrayEquals(expected, copyOf(buffer.flip()), brand);
+
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (WritableByteChannel channel = Channels.newChannel(bytes)) {
+                    renderer.renderAll(List.of(agreement), channel, "");
+                }
+                Assertions.assertArrayEquals(expected, bytes.toByteArray(), brand);
+            }
+        }
+    }
+
+    @Test
+    public void customTemplate() {
+        RentalAgreementTemplate template = RentalAgreementTemplate.compile("{toolCode} due {dueDate}: {finalAmount}");
+        Tool tool = new Tool("JAKR", new ToolType("Jackhammer", new BigDecimal("2.99"), true, false, false), "Ridgid");
+        RentalAgreement agreement = agreement(tool, LocalDate.of(2015, 7, 2), new BigDecimal("20.93"));
+
+        Assertions.assertEquals("JAKR due 07/07/15: $21.93", new RentalAgreementRenderer(template).render(agreement));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RentalAgreementTemplate.compile("{unknown}"));
+    }
+
+    private static RentalAgreement randomAgreement(Random random) {
+        Tool tool = new Tool("T" + random.nextInt(1000), new ToolType("Type", BigDecimal.valueOf(random.nextInt(100_000), 2), true, true, true), "Brand");
+        LocalDate checkoutDate = LocalDate.ofEpochDay(random.nextInt(200_000) - 100_000);
+        BigDecimal amount = switch (random.nextInt(4)) {
+            case 0 -> BigDecimal.valueOf(random.nextLong() % 100_000_000_000L, 2);
+            case 1 -> BigDecimal.valueOf(random.nextInt(1_000_000), 4);
+            case 2 -> new BigDecimal(random.nextDouble() * 1e6);
+            default -> new BigDecimal("98765432109876543210.123");
+        };
+        return agreement(tool, checkoutDate, amount);
+    }
+
+    private static RentalAgreement agreement(Tool tool, LocalDate checkoutDate, BigDecimal amount) {
+        return new RentalAgreement(tool, 5, checkoutDate, checkoutDate.plusDays(5), tool.getToolType().getDailyCharge(), 3,
+                amount, 10, amount.negate(), amount.add(BigDecimal.ONE));
+    }
+
+    // The String.format based implementation the renderer replaced
+    private static String formatterOutput(RentalAgreement agreement) {
+        return String.format("Tool code: %s\n", agreement.getTool().getToolCode()) +
+                String.format("Tool type: %s\n", agreement.getTool().getToolType().getType()) +
+                String.format("Tool brand: %s\n", agreement.getTool().getBrand()) +
+                String.format("Rental days: %d\n", agreement.getRentalDays()) +
+                String.format("Check out date: %s\n", agreement.getCheckoutDate().format(DATE_FORMAT)) +
+                String.format("Due date: %s\n", agreement.getDueDate().format(DATE_FORMAT)) +
+                String.format("Daily rental charge: %s\n", CURRENCY_FORMAT.format(agreement.getDailyRentalCharge().setScale(2, RoundingMode.CEILING))) +
+                String.format("Charge days: %d\n", agreement.getChargeDays()) +
+                String.format("Pre-discount charge: %s\n", CURRENCY_FORMAT.format(agreement.getPreDiscountCharge().setScale(2, RoundingMode.CEILING))) +
+                String.format("Discount percent: %d%%\n", agreement.getDiscountPercent()) +
+                String.format("Discount amount: %s\n", CURRENCY_FORMAT.format(agreement.getDiscountAmount().setScale(2, RoundingMode.CEILING))) +
+                String.format("Final charge: %s", CURRENCY_FORMAT.format(agreement.getFinalAmount().setScale(2, RoundingMode.CEILING)));
+    }
+
+    private static byte[] copyOf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,208 @@
+package com.kn0824.core.agreement.codec;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AgreementCodecTest {
+
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+
+    @Test
+    public void binaryRoundTripThroughChannels() throws IOException {
+        List<RentalAgreement> agreements = checkouts(10_000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryAgreementWriter writer = new BinaryAgreementWriter(Channels.newChannel(bytes), 1024)) {
+            writer.writeAll(agreements);
+        }
+
+        List<RentalAgreement> decoded;
+        try (BinaryAgreementReader reader = new BinaryAgreementReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())), 512)) {
+            decoded = reader.readAll();
+        }
+
+        assertSameAgreements(agreements, decoded);
+        // Amounts keep their scale, so the agreements are equal and not only of equal value
+        Assertions.assertEquals(agreements, decoded);
+        long textBytes = agreements.stream().mapToLong(agreement -> agreement.prettyPrint().getBytes(StandardCharsets.UTF_8).length).sum();
+        Assertions.assertTrue(bytes.size() * 10L < textBytes, "binary " + bytes.size() + " bytes, text " + textBytes + " bytes");
+        // Agreements for the same tool share one decoded Tool
+        Assertions.assertSame(decoded.get(0).getTool(), decoded.get(TOOL_CODES.length).getTool());
+    }
+
+    @Test
+    public void jsonRoundTrip() throws IOException {
+        List<RentalAgreement> agreements = checkouts(2_000);
+        StringWriter json = new StringWriter();
+        try (JsonAgreementWriter writer = new JsonAgreementWriter(json)) {
+            writer.writeAll(agreements);
+        }
+
+        List<RentalAgreement> decoded;
+        try (JsonAgreementReader reader = new JsonAgreementReader(new StringReader(json.toString()))) {
+            decoded = reader.readAll();
+        }
+        Assertions.assertEquals(agreements, decoded);
+    }
+
+    @Test
+    public void jsonFormat() throws IOException {
+        RentalAgreement agreement = new CheckoutService().checkout("LADW", LocalDate.of(2020, 7, 2), 3, 10);
+        StringWriter json = new StringWriter();
+        new JsonAgreementWriter(json).write(agreement);
+        Assertions.assertEquals("{\"toolCode\":\"LADW\",\"toolType\":\"Ladder\",\"brand\":\"Werner\",\"weekdayCharge\":true,"
+                + "\"weekendCharge\":true,\"holidayCharge\":false,\"rentalDays\":3,\"checkoutDate\":\"2020-07-02\","
+                + "\"dueDate\":\"2020-07-05\",\"dailyRentalCharge\":1.99,\"chargeDays\":2,\"preDiscountCharge\":3.9800,"
+                + "\"discountPercent\":10,\"discountAmount\":0.40,\"finalAmount\":3.5800}\n", json.toString());
+    }
+
+    @Test
+    public void unusualValuesSurviveBothFormats() throws IOException {
+        Tool tool = new Tool("Q\"\\\u00e9\n", new ToolType(null, new BigDecimal("0.125"), false, true, false), null);
+        RentalAgreement agreement = new RentalAgreement(tool, 2, LocalDate.of(-40, 2, 29), LocalDate.of(12_000, 1, 1),
+                new BigDecimal("0.125"), 0, new BigDecimal("-12345678901234567890.5"), 0, null, BigDecimal.ZERO);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryAgreementWriter writer = new BinaryAgreementWriter(Channels.newChannel(bytes))) {
+            writer.write(agreement);
+        }
+        RentalAgreement binary = new BinaryAgreementReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))).read();
+
+        StringWriter json = new StringWriter();
+        new JsonAgreementWriter(json).write(agreement);
+        RentalAgreement fromJson = new JsonAgreementReader(new StringReader(json.toString())).read();
+
+        assertSameAgreements(List.of(agreement, agreement), List.of(binary, fromJson));
+    }
+
+    @Test
+    public void toolRatesSurviveBothFormats() throws IOException {
+        ToolType tiered = new ToolType("Ladder", new BigDecimal("1.99"), true, true, false, new BigDecimal("9.95"), new BigDecimal("29.00"));
+        ToolType weeklyOnly = new ToolType("Jackhammer", new BigDecimal("2.99"), true, false, false, new BigDecimal("11.999"), null);
+        ToolType monthlyOnly = new ToolType("Chainsaw", new BigDecimal("1.49"), true, false, true, null, new BigDecimal("30"));
+        ToolType flat = new ToolType("Jackhammer", new BigDecimal("2.99"), true, false, false);
+        ToolCatalog catalog = new ToolCatalog(List.of(tiered, weeklyOnly, monthlyOnly, flat), List.of(new Tool("LADW", tiered, "Werner"),
+                new Tool("JAKR", weeklyOnly, "Ridgid"), new Tool("CHNS", monthlyOnly, "Stihl"), new Tool("JAKD", flat, "DeWalt")));
+        CheckoutService checkoutService = new CheckoutService(ToolCatalogProvider.of(catalog));
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            agreements.add(checkoutService.checkout(TOOL_CODES[i % TOOL_CODES.length], LocalDate.of(2020, 8, 1).plusDays(i), 1 + i, 0));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryAgreementWriter writer = new BinaryAgreementWriter(Channels.newChannel(bytes))) {
+            writer.writeAll(agreements);
+        }
+        List<RentalAgreement> binary = new BinaryAgreementReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))).readAll();
+
+        StringWriter json = new StringWriter();
+        new JsonAgreementWriter(json).writeAll(agreements);
+        List<RentalAgreement> fromJson = new JsonAgreementReader(new StringReader(json.toString())).readAll();
+
+        for (List<RentalAgreement> decoded : List.of(binary, fromJson)) {
+            Assertions.assertEquals(agreements, decoded);
+            for (int i = 0; i < agreements.size(); i++) {
+                ToolType expected = agreements.get(i).getTool().getToolType();
+                ToolType actual = decoded.get(i).getTool().getToolType();
+                Assertions.assertEquals(expected.getWeeklyChargeCents(), actual.getWeeklyChargeCents());
+                Assertions.assertEquals(expected.getMonthlyChargeCents(), actual.getMonthlyChargeCents());
+                assertSameAmount(expected.getWeeklyCharge(), actual.getWeeklyCharge());
+                assertSameAmount(expected.getMonthlyCharge(), actual.getMonthlyCharge());
+            }
+        }
+    }
+
+    @Test
+    public void readsVersionOneBinaryStreams() throws IOException {
+        // Tools without rates are written exactly as before, only the header says "RAG2" instead of "RAG1"
+        List<RentalAgreement> agreements = checkouts(100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryAgreementWriter writer = new BinaryAgreementWriter(Channels.newChannel(bytes))) {
+            writer.writeAll(agreements);
+        }
+        byte[] stream = bytes.toByteArray();
+        Assertions.assertEquals('2', stream[3]);
+        stream[3] = '1';
+        assertSameAgreements(agreements, new BinaryAgreementReader(Channels.newChannel(new ByteArrayInputStream(stream))).readAll());
+        stream[3] = '3';
+        Assertions.assertThrows(StreamCorruptedException.class, () -> new BinaryAgreementReader(Channels.newChannel(new ByteArrayInputStream(stream))).read());
+    }
+
+    @Test
+    public void malformedJsonIsRejected() throws IOException {
+        String[] malformed = {
+                "{\"toolCode\":\"LADW\",}",
+                "{\"toolCode\":\"LADW\" \"rentalDays\":3}",
+                "{\"toolCode\":\"LA\\u00zzDW\"}",
+                "{\"toolCode\":\"LA\\u00",
+                "{\"toolCode\":\"LA\\qDW\"}",
+                "{\"toolCode\":\"LADW",
+                "{\"rentalDays\":3x}",
+                "{\"rentalDays\":99999999999}",
+                "{\"weekdayCharge\":yes}",
+                "{\"checkoutDate\":\"2020-13-01\"}",
+                "{\"finalAmount\":1.2.3}",
+                "{\"finalAmount\":}",
+                "[]",
+        };
+        for (String json : malformed) {
+            Assertions.assertThrows(StreamCorruptedException.class, () -> new JsonAgreementReader(new StringReader(json)).read(), json);
+        }
+        // Escapes that are valid JSON still decode
+        RentalAgreement agreement = new JsonAgreementReader(new StringReader("{\"toolCode\":\"\\\"L\\/A\\u0044W\"}")).read();
+        Assertions.assertEquals("\"L/ADW", agreement.getTool().getToolCode());
+    }
+
+    private static List<RentalAgreement> checkouts(int count) {
+        CheckoutService checkoutService = new CheckoutService();
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            agreements.add(checkoutService.checkout(TOOL_CODES[i % TOOL_CODES.length], LocalDate.of(2015, 1, 1).plusDays(i % 3000), 1 + i % 40, i % 101));
+        }
+        return agreements;
+    }
+
+    private static void assertSameAgreements(List<RentalAgreement> expected, List<RentalAgreement> actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            RentalAgreement a = expected.get(i);
+            RentalAgreement b = actual.get(i);
+            Assertions.assertEquals(a.getTool(), b.getTool());
+            Assertions.assertEquals(a.getRentalDays(), b.getRentalDays());
+            Assertions.assertEquals(a.getCheckoutDate(), b.getCheckoutDate());
+            Assertions.assertEquals(a.getDueDate(), b.getDueDate());
+            Assertions.assertEquals(a.getChargeDays(), b.getChargeDays());
+            Assertions.assertEquals(a.getDiscountPercent(), b.getDiscountPercent());
+            assertSameAmount(a.getDailyRentalCharge(), b.getDailyRentalCharge());
+            assertSameAmount(a.getPreDiscountCharge(), b.getPreDiscountCharge());
+            assertSameAmount(a.getDiscountAmount(), b.getDiscountAmount());
+            assertSameAmount(a.getFinalAmount(), b.getFinalAmount());
+        }
+    }
+
+    private static void assertSameAmount(BigDecimal expected, BigDecimal actual) {
+        if (expected == null || actual == null) {
+            Assertions.assertSame(expected, actual);
+        } else {
+            Assertions.assertEquals(0, expected.compareTo(actual), expected + " != " + actual);
+        }
+    }
+}
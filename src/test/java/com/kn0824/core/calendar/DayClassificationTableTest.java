@@ -0,0 +1,65 @@
+package com.kn0824.core.calendar;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.Random;
+
+public class DayClassificationTableTest {
+
+    private static final HolidayCalendar RULES = new ObservedHolidayCalendar(List.of(HolidayRule.INDEPENDENCE_DAY, HolidayRule.LABOR_DAY,
+            HolidayRule.THANKSGIVING, HolidayRule.fixedDate(Month.JANUARY, 1)));
+
+    @Test
+    public void tableAnswersLikeItsRules() {
+        DayClassificationTable table = DayClassificationTable.build(RULES, 2000, 2030);
+        Assertions.assertEquals(LocalDate.of(2000, 1, 1).toEpochDay(), table.getFirstEpochDay());
+        Assertions.assertEquals(LocalDate.of(2030, 12, 31).toEpochDay(), table.getLastEpochDay());
+        // Days outside the table fall back to the rules
+        for (long epochDay = LocalDate.of(1995, 1, 1).toEpochDay(); epochDay <= LocalDate.of(2035, 12, 31).toEpochDay(); epochDay++) {
+            Assertions.assertEquals(RULES.isHoliday(epochDay), table.isHoliday(epochDay), LocalDate.ofEpochDay(epochDay).toString());
+        }
+        Random random = new Random(21);
+        long firstDay = LocalDate.of(1995, 1, 1).toEpochDay();
+        for (int i = 0; i < 50_000; i++) {
+            long from = firstDay + random.nextInt(41 * 365);
+            long to = from + random.nextInt(i % 10 == 0 ? 5_000 : 70) - 3;
+            Assertions.assertEquals(RULES.countWeekdayHolidays(from, to), table.countWeekdayHolidays(from, to), from + " to " + to);
+        }
+    }
+
+    @Test
+    public void chargeableDaysMatchPerDayLoop() {
+        DayClassificationTable table = DayClassificationTable.build(RULES, 2010, 2012);
+        long first = table.getFirstEpochDay();
+        long last = table.getLastEpochDay();
+        for (int flags = 0; flags < 8; flags++) {
+            boolean weekday = (flags & 1) != 0;
+            boolean weekend = (flags & 2) != 0;
+            boolean holiday = (flags & 4) != 0;
+            for (long from = first; from <= last; from += 37) {
+                int expected = 0;
+                for (long to = from; to <= last; to++) {
+                    boolean chargeable = EpochDays.isWeekend(to) ? weekend : weekday && (holiday || !RULES.isHoliday(to));
+                    expected += chargeable ? 1 : 0;
+                    Assertions.assertEquals(expected, table.chargeableDays(weekday, weekend, holiday, from, to));
+                }
+                Assertions.assertEquals(0, table.chargeableDays(weekday, weekend, holiday, from, from - 1));
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> table.chargeableDays(true, true, false, first - 1, first + 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> table.chargeableDays(true, true, false, last, last + 1));
+    }
+
+    @Test
+    public void defaultTableIsSharedAndCoversTheDefaultYears() {
+        Assertions.assertSame(DayClassificationTable.defaultTable(), HolidayCalendar.defaultCalendar());
+        DayClassificationTable table = DayClassificationTable.defaultTable();
+        Assertions.assertTrue(table.covers(LocalDate.of(1970, 1, 1).toEpochDay(), LocalDate.of(2100, 12, 31).toEpochDay()));
+        Assertions.assertFalse(table.covers(LocalDate.of(1969, 12, 31).toEpochDay(), LocalDate.of(1970, 1, 1).toEpochDay()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> DayClassificationTable.build(RULES, 2001, 2000));
+    }
+}
@@ -0,0 +1,56 @@
+package com.kn0824.core.calendar;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+
+public class ObservedHolidayCalendarTest {
+
+    @Test
+    public void epochDayArithmeticMatchesLocalDate() {
+        for (long epochDay = LocalDate.of(1600, 1, 1).toEpochDay(); epochDay <= LocalDate.of(2400, 12, 31).toEpochDay(); epochDay++) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            Assertions.assertEquals(date.getYear(), EpochDays.yearOf(epochDay), date.toString());
+            Assertions.assertEquals(date.getDayOfWeek().getValue(), EpochDays.dayOfWeek(epochDay), date.toString());
+        }
+        for (int year = 1600; year <= 2400; year++) {
+            Assertions.assertEquals(LocalDate.of(year, 1, 1).toEpochDay(), EpochDays.firstDayOfYear(year));
+        }
+    }
+
+    @Test
+    public void defaultCalendarObservesIndependenceDayAndLaborDay() {
+        HolidayCalendar calendar = HolidayCalendar.defaultCalendar();
+        // July 4th 2015 was a Saturday, observed on Friday the 3rd
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2015, 7, 3)));
+        Assertions.assertFalse(calendar.isHoliday(LocalDate.of(2015, 7, 4)));
+        // July 4th 2021 was a Sunday, observed on Monday the 5th
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2021, 7, 5)));
+        // Every Monday of September counts as Labor Day
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2015, 9, 7)));
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2015, 9, 28)));
+        Assertions.assertFalse(calendar.isHoliday(LocalDate.of(2015, 10, 5)));
+        Assertions.assertEquals(5, calendar.countWeekdayHolidays(LocalDate.of(2015, 1, 1).toEpochDay(), LocalDate.of(2015, 12, 31).toEpochDay()));
+        Assertions.assertEquals(53, calendar.countWeekdayHolidays(LocalDate.of(2010, 1, 1).toEpochDay(), LocalDate.of(2019, 12, 31).toEpochDay()));
+    }
+
+    @Test
+    public void additionalRulesAreObserved() {
+        HolidayRule newYearsDay = HolidayRule.fixedDate(Month.JANUARY, 1);
+        HolidayCalendar calendar = new ObservedHolidayCalendar(List.of(HolidayRule.MEMORIAL_DAY, HolidayRule.THANKSGIVING, newYearsDay), 2);
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2024, 5, 27)));
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2024, 11, 28)));
+        // January 1st 2022 was a Saturday, observed on Friday December 31st 2021
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2021, 12, 31)));
+        Assertions.assertFalse(calendar.isHoliday(LocalDate.of(2022, 1, 1)));
+        Assertions.assertEquals(1, calendar.countWeekdayHolidays(LocalDate.of(2021, 12, 30).toEpochDay(), LocalDate.of(2022, 1, 3).toEpochDay()));
+        // Looking years up again after they were evicted from the two slot cache gives the same answers
+        for (int year = 2000; year < 2030; year++) {
+            Assertions.assertTrue(calendar.isHoliday(LocalDate.ofEpochDay(HolidayRule.THANKSGIVING.observedEpochDay(year))));
+        }
+        Assertions.assertTrue(calendar.isHoliday(LocalDate.of(2024, 5, 27)));
+    }
+}
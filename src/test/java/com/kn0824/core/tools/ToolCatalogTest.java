@@ -0,0 +1,129 @@
+package com.kn0824.core.tools;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class ToolCatalogTest {
+
+    @Test
+    public void largeCatalogLookups() {
+        List<ToolType> toolTypes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            toolTypes.add(toolType("Type" + i, BigDecimal.valueOf(100 + i, 2), i % 2 == 0, i % 3 == 0, i % 5 == 0));
+        }
+        List<Tool> tools = new ArrayList<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 200_000; i++) {
+            tools.add(tool("SKU" + Integer.toString(i, 36).toUpperCase(), toolTypes.get(random.nextInt(toolTypes.size())), "Brand" + i % 17));
+        }
+
+        ToolCatalog catalog = new ToolCatalog(toolTypes, tools);
+        Assertions.assertEquals(200_000, catalog.size());
+        Assertions.assertEquals(100, catalog.toolTypeCount());
+        for (Tool tool : tools) {
+            int toolId = catalog.toolId(tool.getToolCode());
+            Assertions.assertSame(tool, catalog.getTool(toolId));
+            Assertions.assertSame(tool, catalog.getTool(tool.getToolCode()));
+            Assertions.assertEquals(tool.getToolCode(), catalog.toolCode(toolId));
+
+            int typeId = catalog.toolTypeId(toolId);
+            ToolType toolType = tool.getToolType();
+            Assertions.assertSame(toolType, catalog.getToolType(typeId));
+            Assertions.assertEquals(toolType.getDailyChargeCents(), catalog.dailyChargeCents(typeId));
+            Assertions.assertEquals(toolType.isWeekdayCharge(), (catalog.chargeFlags(typeId) & ToolCatalog.WEEKDAY_CHARGE) != 0);
+            Assertions.assertEquals(toolType.isWeekendCharge(), (catalog.chargeFlags(typeId) & ToolCatalog.WEEKEND_CHARGE) != 0);
+            Assertions.assertEquals(toolType.isHolidayCharge(), (catalog.chargeFlags(typeId) & ToolCatalog.HOLIDAY_CHARGE) != 0);
+        }
+        Assertions.assertEquals(ToolCatalog.NOT_FOUND, catalog.toolId("SKU-MISSING"));
+        Assertions.assertEquals(ToolCatalog.NOT_FOUND, catalog.toolId(null));
+        Assertions.assertNull(catalog.getTool("SKU-MISSING"));
+        Assertions.assertSame(toolTypes.get(42), catalog.getToolType("Type42"));
+    }
+
+    @Test
+    public void duplicatesKeepTheLastEntry() {
+        ToolType ladder = toolType("Ladder", new BigDecimal("1.99"), true, true, false);
+        ToolType newLadder = toolType("Ladder", new BigDecimal("2.49"), true, true, false);
+        // Not passed in as a tool type, only reachable through its tool
+        ToolType unregistered = toolType("Hoist", new BigDecimal("0.125"), true, false, false);
+        Tool oldLadder = tool("LADW", ladder, "Werner");
+        Tool currentLadder = tool("LADW", newLadder, "Werner");
+        Tool hoist = tool("HOIS", unregistered, "Acme");
+
+        ToolCatalog catalog = new ToolCatalog(List.of(ladder, newLadder), List.of(oldLadder, hoist, currentLadder));
+
+        Assertions.assertEquals(2, catalog.size());
+        Assertions.assertSame(currentLadder, catalog.getTool("LADW"));
+        Assertions.assertSame(newLadder, catalog.getToolType("Ladder"));
+        Assertions.assertEquals(List.of(newLadder), List.copyOf(catalog.getToolTypes()));
+        Assertions.assertNull(catalog.getToolType("Hoist"));
+
+        int hoistType = catalog.toolTypeId(catalog.toolId("HOIS"));
+        Assertions.assertSame(unregistered, catalog.getToolType(hoistType));
+        Assertions.assertEquals(ToolType.NOT_WHOLE_CENTS, catalog.dailyChargeCents(hoistType));
+        Assertions.assertEquals(ToolCatalog.WEEKDAY_CHARGE, catalog.chargeFlags(hoistType));
+        Assertions.assertEquals(249, catalog.dailyChargeCents(catalog.toolTypeId(catalog.toolId("LADW"))));
+    }
+
+    @Test
+    public void snapshotIgnoresChangedCopiesOfToolTypes() {
+        ToolType ladder = new ToolType("Ladder", new BigDecimal("1.99"), true, true, false);
+        ToolCatalog catalog = new ToolCatalog(List.of(ladder), List.of(new Tool("LADW", ladder, "Werner")));
+        ToolType changed = ladder.toBuilder().dailyCharge(new BigDecimal("9.99")).holidayCharge(true).build();
+        Assertions.assertEquals(new BigDecimal("9.99"), changed.getDailyCharge());
+        Assertions.assertTrue(changed.isHolidayCharge() && changed.isWeekendCharge());
+        Assertions.assertEquals(new BigDecimal("1.99"), ladder.getDailyCharge());
+        Assertions.assertEquals(ladder, catalog.getTool("LADW").getToolType());
+
+        int typeId = catalog.toolTypeId(catalog.toolId("LADW"));
+        Assertions.assertEquals(199, catalog.dailyChargeCents(typeId));
+        Assertions.assertEquals(0, new BigDecimal("1.99").compareTo(catalog.dailyCharge(typeId)));
+        Assertions.assertEquals(0, catalog.chargeFlags(typeId) & ToolCatalog.HOLIDAY_CHARGE);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void snapshotIgnoresLaterChangesToToolTypes() {
+        ToolType ladder = new ToolType("Ladder", new BigDecimal("1.99"), true, true, false);
+        Tool werner = new Tool("LADW", ladder, "Werner");
+        ToolCatalog catalog = new ToolCatalog(List.of(ladder), List.of(werner));
+        ladder.setDailyCharge(new BigDecimal("9.99"));
+        ladder.setHolidayCharge(true);
+        werner.setBrand("Little Giant");
+
+        int typeId = catalog.toolTypeId(catalog.toolId("LADW"));
+        Assertions.assertEquals(199, catalog.dailyChargeCents(typeId));
+        Assertions.assertEquals(0, new BigDecimal("1.99").compareTo(catalog.dailyCharge(typeId)));
+        Assertions.assertEquals(0, catalog.chargeFlags(typeId) & ToolCatalog.HOLIDAY_CHARGE);
+        Tool catalogTool = catalog.getTool("LADW");
+        Assertions.assertEquals("Werner", catalogTool.getBrand());
+        Assertions.assertEquals(0, new BigDecimal("1.99").compareTo(catalogTool.getToolType().getDailyCharge()));
+        Assertions.assertSame(catalogTool.getToolType(), catalog.getToolType("Ladder"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void catalogToolsCantBeChanged() {
+        ToolCatalog catalog = new ToolCatalog(List.of(), List.of(new Tool("LADW", new ToolType("Ladder", new BigDecimal("1.99"), true, true, false), "Werner")));
+        Tool tool = catalog.getTool("LADW");
+        Assertions.assertTrue(tool.isImmutable() && tool.getToolType().isImmutable());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> tool.setBrand("Little Giant"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> tool.getToolType().setDailyCharge(new BigDecimal("9.99")));
+        Assertions.assertEquals("Werner", tool.getBrand());
+        Assertions.assertEquals(199, tool.getToolType().getDailyChargeCents());
+    }
+
+    private static ToolType toolType(String type, BigDecimal dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        return ToolType.builder().type(type).dailyCharge(dailyCharge).weekdayCharge(weekdayCharge).weekendCharge(weekendCharge)
+                .holidayCharge(holidayCharge).build();
+    }
+
+    private static Tool tool(String toolCode, ToolType toolType, String brand) {
+        return Tool.builder().toolCode(toolCode).toolType(toolType).brand(brand).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.kn0824.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+public class CentsPricingTest {
+
+    private static final long SEED = 8241997L;
+
+    /**
+     * Random daily charges and charge days for every discount, compared against the original BigDecimal computation
+     */
+    @Test
+    public void matchesBigDecimalPricingForRandomAmounts() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < 20_000; i++) {
+            long dailyChargeCents = i % 2 == 0 ? random.nextInt(10_000) : random.nextInt(100_000_000);
+            int chargeDays = random.nextInt(4_000);
+            for (int discount = 0; discount <= 100; discount++) {
+                assertSamePricing(dailyChargeCents, chargeDays, discount);
+            }
+        }
+    }
+
+    /**
+     * Whole-cent discount amounts are where the double representation of the discount rate decides the rounding
+     */
+    @Test
+    public void matchesBigDecimalPricingForWholeCentDiscounts() {
+        for (long dailyChargeCents = 0; dailyChargeCents <= 1_000; dailyChargeCents += 25) {
+            for (int chargeDays = 0; chargeDays <= 40; chargeDays++) {
+                for (int discount = 0; discount <= 100; discount++) {
+                    assertSamePricing(dailyChargeCents, chargeDays, discount);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void largeAmountsAreOutOfRange() {
+        Assertions.assertEquals(CentsPricing.OUT_OF_RANGE, CentsPricing.preDiscountCents(Long.MAX_VALUE / 2, 3));
+        Assertions.assertEquals(CentsPricing.OUT_OF_RANGE, CentsPricing.preDiscountCents(-1, 3));
+        Assertions.assertEquals(0, CentsPricing.preDiscountCents(Long.MAX_VALUE / 2, 0));
+    }
+
+    @Test
+    public void amountsTakeTheRequestedScale() {
+        Assertions.assertEquals(new BigDecimal("3.9800"), CentsPricing.toAmount(398, 4));
+        Assertions.assertEquals(new BigDecimal("-3.98000000"), CentsPricing.toAmount(-398, 8));
+        Assertions.assertEquals(new BigDecimal("92233720368547758.0700"), CentsPricing.toAmount(Long.MAX_VALUE, 4));
+        Assertions.assertEquals(new BigDecimal("4.0"), CentsPricing.toAmount(400, 1));
+        Assertions.assertThrows(ArithmeticException.class, () -> CentsPricing.toAmount(398, 1));
+    }
+
+    private static void assertSamePricing(long dailyChargeCents, int chargeDays, int discount) {
+        BigDecimal dailyCharge = BigDecimal.valueOf(dailyChargeCents, 2);
+        BigDecimal preDiscountCharge = dailyCharge.multiply(new BigDecimal(chargeDays).setScale(2, RoundingMode.CEILING));
+        BigDecimal discountAmount = preDiscountCharge.multiply(new BigDecimal(discount / 100.0)).setScale(2, RoundingMode.CEILING);
+        BigDecimal finalCharge = preDiscountCharge.subtract(discountAmount);
+
+        long preDiscountCents = CentsPricing.preDiscountCents(dailyChargeCents, chargeDays);
+        long discountCents = CentsPricing.discountCents(preDiscountCents, discount);
+        String context = "daily=" + dailyCharge + " days=" + chargeDays + " discount=" + discount;
+        // Equal including the scale, which is 4 before the discount and 2 for the discount
+        Assertions.assertEquals(preDiscountCharge, CentsPricing.toAmount(preDiscountCents, 4), context);
+        Assertions.assertEquals(discountAmount, CentsPricing.toAmount(discountCents), context);
+        Assertions.assertEquals(finalCharge, CentsPricing.toAmount(preDiscountCents - discountCents, 4), context);
+    }
+}
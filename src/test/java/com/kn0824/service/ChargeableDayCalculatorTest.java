@@ -0,0 +1,129 @@
+package com.kn0824.service;
+
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Random;
+
+public class ChargeableDayCalculatorTest {
+
+    private static final long SEED = 20240806L;
+
+    private final ChargeableDayCalculator calculator = new ChargeableDayCalculator(HolidayCalendar.defaultCalendar());
+
+    /**
+     * Compares the closed form calculation against the original per-day loop for every combination of charge flags
+     */
+    @Test
+    public void matchesPerDayLoopForRandomRentals() {
+        Random random = new Random(SEED);
+        long firstCheckout = LocalDate.of(1950, 1, 1).toEpochDay();
+        long lastCheckout = LocalDate.of(2150, 12, 31).toEpochDay();
+        for (int flags = 0; flags < 8; flags++) {
+            ToolType toolType = toolType(flags);
+            for (int i = 0; i < 2_000; i++) {
+                LocalDate checkoutDate = LocalDate.ofEpochDay(firstCheckout + (long) (random.nextDouble() * (lastCheckout - firstCheckout)));
+                int rentalDays = 1 + (i % 4 == 0 ? random.nextInt(3650) : random.nextInt(30));
+                Assertions.assertEquals(baselineChargeableDays(toolType, checkoutDate, rentalDays),
+                        calculator.calculate(toolType, checkoutDate, rentalDays),
+                        "flags=" + flags + " checkout=" + checkoutDate + " days=" + rentalDays);
+            }
+        }
+    }
+
+    /**
+     * Every checkout date around July 4th and the Mondays of September, covering each weekday the holidays can land on
+     */
+    @Test
+    public void matchesPerDayLoopAroundHolidays() {
+        for (int flags = 0; flags < 8; flags++) {
+            ToolType toolType = toolType(flags);
+            for (int year = 2010; year <= 2030; year++) {
+                for (LocalDate checkoutDate = LocalDate.of(year, 6, 25); checkoutDate.isBefore(LocalDate.of(year, 10, 1)); checkoutDate = checkoutDate.plusDays(1)) {
+                    for (int rentalDays = 1; rentalDays <= 10; rentalDays++) {
+                        Assertions.assertEquals(baselineChargeableDays(toolType, checkoutDate, rentalDays),
+                                calculator.calculate(toolType, checkoutDate, rentalDays),
+                                "flags=" + flags + " checkout=" + checkoutDate + " days=" + rentalDays);
+                    }
+                }
+            }
+        }
+    }
+
+    private static ToolType toolType(int flags) {
+        return new ToolType("Test", new BigDecimal("1.00"), (flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0);
+    }
+
+    private static int baselineChargeableDays(ToolType toolType, LocalDate checkoutDate, int remainingRentalDays) {
+        return new BaselineCheckoutService().calculateChargeableDays(new Tool("TEST", toolType, "Test"), checkoutDate, remainingRentalDays);
+    }
+
+    // The day counting of the original CheckoutService, copied verbatim
+    private static final class BaselineCheckoutService {
+
+        /*
+        Method calculates the number of days we can actually charge the user based on the Tool settings (holidays, weekends, etc.)
+        The starting checkoutDate is NOT inclusive. In other words, with a checkout date of Aug 1, and remaining rental days is 3,
+        we will consider the date range as Aug 2, Aug 3, Aug 4.
+         */
+        private int calculateChargeableDays(Tool toolBeingRequested, LocalDate checkoutDate, int remainingRentalDays) {
+            int chargeableDays = 0;
+            LocalDate startingDate = checkoutDate.plusDays(1);
+            LocalDate endDate = checkoutDate.plusDays(remainingRentalDays);
+            boolean chargeOnHolidays = toolBeingRequested.getToolType().isHolidayCharge();
+            boolean chargeOnWeekends = toolBeingRequested.getToolType().isWeekendCharge();
+            boolean chargeOnWeekdays = toolBeingRequested.getToolType().isWeekdayCharge();
+            for (LocalDate date = startingDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                boolean isWeekday = isWeekday(date);
+                boolean isHoliday = isHoliday(date);
+                boolean isObservedHoliday = isObservedHoliday(date);
+                boolean isWeekend = isWeekend(date);
+
+                if (isWeekday) {
+                    if (chargeOnWeekdays) {
+                        if (!isHoliday && !isObservedHoliday) {
+                            chargeableDays++;
+                        } else if (chargeOnHolidays && (isHoliday || isObservedHoliday)) {
+                            chargeableDays++;
+                        }
+                    }
+                } else if (isWeekend && chargeOnWeekends) {
+                    chargeableDays++;
+                }
+            }
+            return chargeableDays;
+        }
+
+        private boolean isHoliday(LocalDate date) {
+            return date.equals(LocalDate.of(date.getYear(), Month.JULY, 4)) || isLaborDay(date);
+        }
+
+        private boolean isObservedHoliday(LocalDate date) {
+            LocalDate july3rd = LocalDate.of(date.getYear(), Month.JULY, 3);
+            LocalDate july5th = LocalDate.of(date.getYear(), Month.JULY, 5);
+
+            return (date.equals(july3rd) && july3rd.getDayOfWeek() == DayOfWeek.FRIDAY) || (date.equals(july5th) && july5th.getDayOfWeek() == DayOfWeek.MONDAY);
+        }
+
+        private boolean isLaborDay(LocalDate date) {
+            return date.getMonth() == Month.SEPTEMBER && date.getDayOfWeek() == DayOfWeek.MONDAY && date.with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY)).getDayOfMonth() <= 7;
+        }
+
+        private boolean isWeekend(LocalDate date) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+        }
+
+        private boolean isWeekday(LocalDate date) {
+            return !isWeekend(date);
+        }
+    }
+}
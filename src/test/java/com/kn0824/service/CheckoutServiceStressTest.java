@@ -0,0 +1,145 @@
+package com.kn0824.service;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import com.kn0824.service.metrics.CheckoutMetrics;
+import com.kn0824.service.metrics.MetricsSnapshot;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hammers a shared {@link CheckoutService} from several threads while another thread keeps replacing its catalog.
+ * Every agreement has to match one catalog version exactly. A mix of fields from two versions would be a torn read.
+ */
+public class CheckoutServiceStressTest {
+
+    private static final int CHECKOUT_THREADS = 8;
+    private static final int CHECKOUTS_PER_THREAD = 20_000;
+    private static final String[] TOOL_CODES = {"LADW", "CHNS", "JAKR", "JAKD"};
+
+    @Test
+    public void checkoutsNeverMixCatalogVersions() throws Exception {
+        AtomicReference<ToolCatalog> current = new AtomicReference<>(catalogA());
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        CheckoutService shared = CheckoutService.builder().catalogProvider(current::get).quoteCache(new QuoteCache(256)).metrics(metrics).build();
+        AtomicBoolean nextIsB = new AtomicBoolean(true);
+        long agreements = hammer(shared, () -> current.set(nextIsB.getAndSet(!nextIsB.get()) ? catalogB() : catalogA()));
+        Assertions.assertEquals(agreements, metrics.snapshot().counters().stream()
+                .filter(counter -> counter.name().equals(CheckoutMetrics.CHECKOUTS)).mapToLong(MetricsSnapshot.CounterSample::value).sum());
+    }
+
+    @Test
+    public void catalogsPublishedWithoutSynchronizationAreComplete() throws Exception {
+        RacyHolder holder = new RacyHolder();
+        holder.catalog = catalogA();
+        CheckoutService shared = new CheckoutService(() -> holder.catalog);
+        AtomicBoolean nextIsB = new AtomicBoolean(true);
+        hammer(shared, () -> holder.catalog = nextIsB.getAndSet(!nextIsB.get()) ? catalogB() : catalogA());
+    }
+
+    /* Runs the checkout threads against the shared service while the swap runs in a loop, returns the number of agreements */
+    private long hammer(CheckoutService shared, Runnable swapCatalog) throws Exception {
+        CheckoutService serviceA = new CheckoutService(ToolCatalogProvider.of(catalogA()));
+        CheckoutService serviceB = new CheckoutService(ToolCatalogProvider.of(catalogB()));
+        ExecutorService executor = Executors.newFixedThreadPool(CHECKOUT_THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            Future<?> swapper = executor.submit(() -> {
+                start.await();
+                while (!done.get()) {
+                    swapCatalog.run();
+                }
+                return null;
+            });
+            List<Future<Long>> workers = new ArrayList<>();
+            for (int thread = 0; thread < CHECKOUT_THREADS; thread++) {
+                long seed = thread;
+                workers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    long agreements = 0;
+                    start.await();
+                    for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                        String toolCode = TOOL_CODES[random.nextInt(TOOL_CODES.length)];
+                        LocalDate checkoutDate = LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3_000));
+                        int rentalDays = 1 + random.nextInt(60);
+                        int discount = random.nextInt(101);
+                        if (toolCode.equals("JAKD")) {
+                            // Only in catalog B, rejected while A is current
+                            try {
+                                assertMatchesOneVersion(shared.checkout(toolCode, checkoutDate, rentalDays, discount), null,
+                                        serviceB.checkout(toolCode, checkoutDate, rentalDays, discount));
+                                agreements++;
+                            } catch (IllegalArgumentException e) {
+                                Assertions.assertEquals(CheckoutValidationError.UNKNOWN_TOOL_CODE.getMessage(), e.getMessage());
+                            }
+                            continue;
+                        }
+                        assertMatchesOneVersion(shared.checkout(toolCode, checkoutDate, rentalDays, discount),
+                                serviceA.checkout(toolCode, checkoutDate, rentalDays, discount), serviceB.checkout(toolCode, checkoutDate, rentalDays, discount));
+                        agreements++;
+                    }
+                    return agreements;
+                }));
+            }
+            start.countDown();
+            long agreements = 0;
+            for (Future<Long> worker : workers) {
+                agreements += worker.get(60, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            swapper.get(10, TimeUnit.SECONDS);
+            return agreements;
+        } finally {
+            done.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertMatchesOneVersion(RentalAgreement agreement, RentalAgreement versionA, RentalAgreement versionB) {
+        Assertions.assertEquals(agreement.getTool().getToolType().getDailyCharge(), agreement.getDailyRentalCharge());
+        if (!agreement.equals(versionA) && !agreement.equals(versionB)) {
+            Assertions.fail("Agreement matches neither catalog version:\n" + agreement.prettyPrint());
+        }
+    }
+
+    // Version A is the bundled catalog
+    private static ToolCatalog catalogA() {
+        ToolType ladder = new ToolType("Ladder", new BigDecimal("1.99"), true, true, false);
+        ToolType chainsaw = new ToolType("Chainsaw", new BigDecimal("1.49"), true, false, true);
+        ToolType jackhammer = new ToolType("Jackhammer", new BigDecimal("2.99"), true, false, false);
+        return new ToolCatalog(List.of(ladder, chainsaw, jackhammer),
+                List.of(new Tool("LADW", ladder, "Werner"), new Tool("CHNS", chainsaw, "Stihl"), new Tool("JAKR", jackhammer, "Ridgid")));
+    }
+
+    // Version B changes every charge and flag, a brand, and adds a tool
+    private static ToolCatalog catalogB() {
+        ToolType ladder = ToolType.builder().type("Ladder").dailyCharge(new BigDecimal("2.49")).weekdayCharge(true).holidayCharge(true).build();
+        ToolType chainsaw = ToolType.builder().type("Chainsaw").dailyCharge(new BigDecimal("0.99")).weekendCharge(true).build();
+        ToolType jackhammer = ToolType.builder().type("Jackhammer").dailyCharge(new BigDecimal("3.25")).weekdayCharge(true).weekendCharge(true)
+                .weeklyCharge(new BigDecimal("15.00")).build();
+        return new ToolCatalog(List.of(ladder, chainsaw, jackhammer), List.of(new Tool("LADW", ladder, "Werner"), new Tool("CHNS", chainsaw, "Husqvarna"),
+                new Tool("JAKR", jackhammer, "Ridgid"), new Tool("JAKD", jackhammer, "DeWalt")));
+    }
+
+    // Deliberately not volatile, the catalog's final fields alone have to make it safe to read
+    private static final class RacyHolder {
+        private ToolCatalog catalog;
+    }
+}
@@ -10,6 +10,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Collectors;
 
 public class CheckoutServiceTest {
@@ -129,6 +131,58 @@ public class CheckoutServiceTest {
     }
 
 
+    @Test
+    public void testBatchCheckout() {
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR", "FOOBAR"};
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            requests.add(new CheckoutRequest(toolCodes[i % toolCodes.length], LocalDate.of(2015, 6, 1).plusDays(i % 120), i % 11, (i * 7) % 110));
+        }
+
+        BatchCheckoutResult result = checkoutService.checkoutAll(requests);
+
+        Assertions.assertEquals(requests.size(), result.size());
+        for (int row = 0; row < requests.size(); row++) {
+            CheckoutRequest request = requests.get(row);
+            try {
+                RentalAgreement expected = checkoutService.checkout(request.toolCode(), request.checkoutDate(), request.rentalDays(), request.discount());
+                Assertions.assertTrue(result.isSuccessful(row));
+                Assertions.assertEquals(expected.prettyPrint(), result.getAgreement(row).prettyPrint());
+            } catch (IllegalArgumentException e) {
+                Assertions.assertFalse(result.isSuccessful(row));
+                Assertions.assertEquals(e.getMessage(), CheckoutValidationError.describe(result.getErrors(row)));
+            }
+        }
+        Assertions.assertEquals(requests.size(), result.getAgreements().size() + result.getFailedRows().size());
+    }
+
+    @Test
+    public void testValidationWithoutExceptions() {
+        CheckoutValidation validation = checkoutService.validate("NOPE", 0, 101);
+        Assertions.assertFalse(validation.isValid());
+        Assertions.assertTrue(validation.has(CheckoutValidationError.UNKNOWN_TOOL_CODE));
+        Assertions.assertFalse(validation.has(CheckoutValidationError.TOOL_UNAVAILABLE));
+        Assertions.assertSame(validation, checkoutService.validate("ALSO", -3, -1));
+        Assertions.assertSame(CheckoutValidation.VALID, checkoutService.validate("JAKR", 5, 100));
+        Assertions.assertSame(CheckoutValidation.of(CheckoutValidationError.INVALID_DISCOUNT), checkoutService.validate("JAKR", 5, 101));
+
+        CheckoutValidationException e = Assertions.assertThrows(CheckoutValidationException.class, () -> checkoutService.checkout("NOPE", LocalDate.of(2015, 9, 3), 0, 101));
+        Assertions.assertSame(validation, e.getValidation());
+        Assertions.assertEquals(validation.message(), e.getMessage());
+        Assertions.assertEquals(0, e.getStackTrace().length);
+
+        List<CheckoutRequest> requests = List.of(new CheckoutRequest("LADW", LocalDate.of(2020, 7, 2), 3, 10), new CheckoutRequest("LADW", LocalDate.of(2020, 7, 2), 0, 10),
+                new CheckoutRequest(null, LocalDate.of(2020, 7, 2), 3, 10));
+        CheckoutValidation[] validations = checkoutService.validateAll(requests);
+        BatchCheckoutResult result = checkoutService.checkoutAll(requests);
+        for (int row = 0; row < requests.size(); row++) {
+            Assertions.assertSame(validations[row], result.getValidation(row));
+        }
+        Assertions.assertEquals(CheckoutValidationError.UNKNOWN_TOOL_CODE.bit(), validations[2].bits());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CheckoutValidation.of(1 << 4));
+    }
+
+
     private String readExpectedResultsFromFile(String fileName) throws IOException {
         // Use class loader to get resource as stream
         try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName)) {
@@ -0,0 +1,101 @@
+package com.kn0824.service;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.ToolType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class QuoteCacheTest {
+
+    private static final ChargeableDayCalculator CALCULATOR = new ChargeableDayCalculator(HolidayCalendar.defaultCalendar());
+    private static final List<ToolType> TOOL_TYPES = allFlagCombinations();
+
+    @Test
+    public void cachedCountsMatchCalculator() {
+        QuoteCache cache = new QuoteCache(1024);
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            ToolType toolType = TOOL_TYPES.get(random.nextInt(TOOL_TYPES.size()));
+            // A small pool of popular quotes mixed with one-off ones
+            LocalDate checkoutDate = LocalDate.of(2020, 1, 1).plusDays(i % 3 == 0 ? random.nextInt(20_000) : random.nextInt(5));
+            int rentalDays = i % 3 == 0 ? random.nextInt(400) : 1 + random.nextInt(5);
+            Assertions.assertEquals(CALCULATOR.calculate(toolType, checkoutDate, rentalDays), cache.chargeableDays(CALCULATOR, toolType, checkoutDate, rentalDays));
+        }
+        Assertions.assertEquals(100_000, cache.getHits() + cache.getMisses());
+        Assertions.assertTrue(cache.getHitRate() > 0.5, "hit rate " + cache.getHitRate());
+        Assertions.assertTrue(cache.getEvictions() > 0);
+        Assertions.assertEquals(1024, cache.capacity());
+    }
+
+    @Test
+    public void invalidateAllForcesRecount() {
+        QuoteCache cache = new QuoteCache(16);
+        LocalDate checkoutDate = LocalDate.of(2020, 7, 2);
+        cache.chargeableDays(CALCULATOR, TOOL_TYPES.get(0), checkoutDate, 5);
+        cache.chargeableDays(CALCULATOR, TOOL_TYPES.get(0), checkoutDate, 5);
+        Assertions.assertEquals(1, cache.getHits());
+
+        cache.invalidateAll();
+        cache.chargeableDays(CALCULATOR, TOOL_TYPES.get(0), checkoutDate, 5);
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(2, cache.getMisses());
+        Assertions.assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void checkoutWithCacheMatchesWithout() {
+        CheckoutService uncached = new CheckoutService();
+        CheckoutService cached = CheckoutService.builder().quoteCache(new QuoteCache(64)).build();
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR"};
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate checkoutDate = LocalDate.of(2015, 6, 25).plusDays(i % 30);
+            RentalAgreement expected = uncached.checkout(toolCodes[i % 4], checkoutDate, 1 + i % 9, i % 101);
+            Assertions.assertEquals(expected.prettyPrint(), cached.checkout(toolCodes[i % 4], checkoutDate, 1 + i % 9, i % 101).prettyPrint());
+        }
+    }
+
+    @Test
+    public void concurrentLookupsAreConsistent() throws Exception {
+        QuoteCache cache = new QuoteCache(64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                long seed = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 50_000; i++) {
+                        ToolType toolType = TOOL_TYPES.get(random.nextInt(TOOL_TYPES.size()));
+                        LocalDate checkoutDate = LocalDate.of(2019, 6, 1).plusDays(random.nextInt(100));
+                        int rentalDays = 1 + random.nextInt(30);
+                        Assertions.assertEquals(CALCULATOR.calculate(toolType, checkoutDate, rentalDays), cache.chargeableDays(CALCULATOR, toolType, checkoutDate, rentalDays));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(400_000, cache.getHits() + cache.getMisses());
+    }
+
+    private static List<ToolType> allFlagCombinations() {
+        List<ToolType> toolTypes = new ArrayList<>();
+        for (int flags = 0; flags < 8; flags++) {
+            toolTypes.add(new ToolType("Type" + flags, new BigDecimal("1.99"), (flags & 4) != 0, (flags & 2) != 0, (flags & 1) != 0));
+        }
+        return toolTypes;
+    }
+}
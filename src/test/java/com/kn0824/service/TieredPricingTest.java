@@ -0,0 +1,140 @@
+package com.kn0824.service;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.catalog.ToolCatalogLoader;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+public class TieredPricingTest {
+
+    private static final String TOOL_TYPES = """
+            Ladder,1.99,true,true,false,9.95,29.00
+            Chainsaw,1.49,true,false,true,,
+            Jackhammer,2.99,true,false,false,11.99
+            """;
+    private static final String TOOLS = """
+            LADW,Ladder,Werner
+            CHNS,Chainsaw,Stihl
+            JAKR,Jackhammer,Ridgid
+            """;
+
+    private final ChargeableDayCalculator calculator = new ChargeableDayCalculator(HolidayCalendar.defaultCalendar());
+
+    @Test
+    public void loaderReadsOptionalRates() throws IOException {
+        ToolCatalog catalog = ToolCatalogLoader.load(new StringReader(TOOL_TYPES), new StringReader(TOOLS));
+        ToolType ladder = catalog.getToolType("Ladder");
+        Assertions.assertEquals(new BigDecimal("9.95"), ladder.getWeeklyCharge());
+        Assertions.assertEquals(2900, ladder.getMonthlyChargeCents());
+        Assertions.assertNull(catalog.getToolType("Chainsaw").getWeeklyCharge());
+        Assertions.assertNull(catalog.getToolType("Jackhammer").getMonthlyCharge());
+        int jackhammer = catalog.toolTypeId(catalog.toolId("JAKR"));
+        Assertions.assertEquals(1199, catalog.weeklyChargeCents(jackhammer));
+        Assertions.assertEquals(ToolType.NOT_WHOLE_CENTS, catalog.monthlyChargeCents(jackhammer));
+
+        IOException e = Assertions.assertThrows(IOException.class,
+                () -> ToolCatalogLoader.load(new StringReader("Ladder,1.999,true,true,false,9.95\n"), new StringReader("")));
+        Assertions.assertEquals("Tool type Ladder has weekly or monthly rates, so its charges must be whole cents", e.getMessage());
+        Assertions.assertThrows(IOException.class, () -> ToolCatalogLoader.load(new StringReader("Ladder,1.99,true,true,false,weekly\n"), new StringReader("")));
+    }
+
+    @Test
+    public void checkoutBillsTheCheapestBlocks() throws IOException {
+        ToolCatalog catalog = ToolCatalogLoader.load(new StringReader(TOOL_TYPES), new StringReader(TOOLS));
+        CheckoutService checkoutService = new CheckoutService(ToolCatalogProvider.of(catalog));
+
+        // 7 days: 7 chargeable days at 1.99 is 13.93, one week is 9.95
+        RentalAgreement week = checkoutService.checkout("LADW", LocalDate.of(2020, 8, 6), 7, 10);
+        Assertions.assertEquals(7, week.getChargeDays());
+        Assertions.assertEquals(new BigDecimal("9.9500"), week.getPreDiscountCharge());
+        Assertions.assertEquals(new BigDecimal("1.00"), week.getDiscountAmount());
+        Assertions.assertEquals(new BigDecimal("8.9500"), week.getFinalAmount());
+
+        // 6 days still cost 11.94 daily, so the week running past the due date is cheaper
+        Assertions.assertEquals(new BigDecimal("9.9500"), checkoutService.checkout("LADW", LocalDate.of(2020, 8, 6), 6, 0).getPreDiscountCharge());
+        // 3 days are cheaper daily
+        Assertions.assertEquals(new BigDecimal("5.9700"), checkoutService.checkout("LADW", LocalDate.of(2020, 8, 6), 3, 0).getPreDiscountCharge());
+        // 37 days: a month and a week
+        Assertions.assertEquals(new BigDecimal("38.9500"), checkoutService.checkout("LADW", LocalDate.of(2020, 8, 6), 37, 0).getPreDiscountCharge());
+        // 33 days: a month and 3 days, one of them Labor Day
+        Assertions.assertEquals(new BigDecimal("32.9800"), checkoutService.checkout("LADW", LocalDate.of(2020, 8, 6), 33, 0).getPreDiscountCharge());
+
+        // Tool types without rates are priced as before
+        CheckoutService flat = new CheckoutService();
+        Assertions.assertEquals(flat.checkout("CHNS", LocalDate.of(2015, 7, 2), 40, 25).prettyPrint(),
+                checkoutService.checkout("CHNS", LocalDate.of(2015, 7, 2), 40, 25).prettyPrint());
+    }
+
+    @Test
+    public void weeklyRatesMatchExhaustiveSearch() {
+        Random random = new Random(15);
+        for (int i = 0; i < 5_000; i++) {
+            int flags = random.nextInt(8);
+            long firstDay = LocalDate.of(2015, 1, 1).toEpochDay() + random.nextInt(4_000);
+            int rentalDays = 1 + random.nextInt(120);
+            long daily = 1 + random.nextInt(500);
+            long weekly = random.nextInt(3_500);
+            long monthly = random.nextBoolean() ? ToolType.NOT_WHOLE_CENTS : random.nextInt(15_000);
+            int chargeDays = chargeDays(flags, firstDay, firstDay + rentalDays - 1);
+
+            long cheapest = TieredPricing.cheapestCents(calculator, flags, firstDay, rentalDays, chargeDays, daily, weekly, monthly);
+            long exhaustive = exhaustiveCents(flags, firstDay, rentalDays, daily, weekly, monthly);
+            Assertions.assertEquals(exhaustive, cheapest, "flags=" + flags + " firstDay=" + firstDay + " days=" + rentalDays);
+        }
+    }
+
+    @Test
+    public void holidaysAndMonthStartsDontHideCheaperMixes() {
+        // Weekday tool: 10 weeks and a day would bill 236.90, but the week with Independence Day is cheaper daily
+        long firstDay = LocalDate.of(2023, 5, 7).toEpochDay();
+        Assertions.assertEquals(23_308, TieredPricing.cheapestCents(calculator, ToolCatalog.WEEKDAY_CHARGE, firstDay, 71,
+                chargeDays(ToolCatalog.WEEKDAY_CHARGE, firstDay, firstDay + 70), 484, 2_369, ToolType.NOT_WHOLE_CENTS));
+        int flags = ToolCatalog.WEEKDAY_CHARGE | ToolCatalog.HOLIDAY_CHARGE;
+        // Whole blocks from the start would bill 307.97
+        firstDay = LocalDate.of(2016, 12, 27).toEpochDay();
+        Assertions.assertEquals(30_238, TieredPricing.cheapestCents(calculator, flags, firstDay, 94,
+                chargeDays(flags, firstDay, firstDay + 93), 455, 2_594, 9_659));
+    }
+
+    @Test
+    public void withoutRatesEveryDayIsBilledDaily() {
+        Assertions.assertFalse(TieredPricing.isTiered(ToolType.NOT_WHOLE_CENTS, ToolType.NOT_WHOLE_CENTS));
+        Assertions.assertTrue(TieredPricing.isTiered(ToolType.NOT_WHOLE_CENTS, 0));
+        long firstDay = LocalDate.of(2020, 7, 3).toEpochDay();
+        Assertions.assertEquals(199 * 40, TieredPricing.cheapestCents(calculator, 3, firstDay, 40, 40, 199,
+                ToolType.NOT_WHOLE_CENTS, ToolType.NOT_WHOLE_CENTS));
+        Assertions.assertEquals(CentsPricing.OUT_OF_RANGE, TieredPricing.cheapestCents(calculator, 3, firstDay, 40, 40, Long.MAX_VALUE / 2,
+                Long.MAX_VALUE / 2, Long.MAX_VALUE / 2));
+    }
+
+    private int chargeDays(int flags, long firstDay, long lastDay) {
+        return calculator.calculate((flags & ToolCatalog.WEEKDAY_CHARGE) != 0, (flags & ToolCatalog.WEEKEND_CHARGE) != 0,
+                (flags & ToolCatalog.HOLIDAY_CHARGE) != 0, firstDay, lastDay);
+    }
+
+    private long exhaustiveCents(int flags, long firstDay, int rentalDays, long daily, long weekly, long monthly) {
+        long lastDay = firstDay + rentalDays - 1;
+        long cheapest = Long.MAX_VALUE;
+        int maxMonths = monthly == ToolType.NOT_WHOLE_CENTS ? 0 : (rentalDays + 29) / 30;
+        for (int months = 0; months <= maxMonths; months++) {
+            int afterMonths = Math.max(0, rentalDays - months * 30);
+            for (int weeks = 0; weeks <= (afterMonths + 6) / 7; weeks++) {
+                int leftover = Math.max(0, afterMonths - weeks * 7);
+                long cost = months * (monthly == ToolType.NOT_WHOLE_CENTS ? 0 : monthly) + weeks * weekly
+                        + daily * chargeDays(flags, lastDay - leftover + 1, lastDay);
+                cheapest = Math.min(cheapest, cost);
+            }
+        }
+        return cheapest;
+    }
+}
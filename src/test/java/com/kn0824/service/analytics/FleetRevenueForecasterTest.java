@@ -0,0 +1,129 @@
+package com.kn0824.service.analytics;
+
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.ChargeableDayCalculator;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.catalog.ToolCatalogLoader;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class FleetRevenueForecasterTest {
+
+    private static final LocalDate TABLE_START = LocalDate.of(2015, 1, 1);
+    private static final LocalDate TABLE_END = LocalDate.of(2035, 12, 31);
+    private static final ChargeableDayTable TABLE = ChargeableDayTable.build(HolidayCalendar.defaultCalendar(), TABLE_START, TABLE_END);
+
+    private static ToolCatalog bundledCatalog;
+
+    @BeforeAll
+    public static void setup() throws IOException {
+        bundledCatalog = ToolCatalogLoader.fromClasspath();
+    }
+
+    @Test
+    public void tableMatchesCalculator() {
+        ChargeableDayCalculator calculator = new ChargeableDayCalculator(HolidayCalendar.defaultCalendar());
+        Random random = new Random(16);
+        long firstDay = TABLE_START.toEpochDay();
+        long lastDay = TABLE_END.toEpochDay();
+        for (int i = 0; i < 100_000; i++) {
+            int flags = random.nextInt(8);
+            long from = firstDay + random.nextInt((int) (lastDay - firstDay + 1));
+            long to = Math.min(lastDay, from + random.nextInt(800) - 5);
+            int expected = calculator.calculate((flags & ToolCatalog.WEEKDAY_CHARGE) != 0, (flags & ToolCatalog.WEEKEND_CHARGE) != 0,
+                    (flags & ToolCatalog.HOLIDAY_CHARGE) != 0, from, to);
+            Assertions.assertEquals(expected, TABLE.chargeableDays(flags, from, to));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TABLE.chargeableDays(1, firstDay - 1, firstDay + 3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TABLE.chargeableDays(1, lastDay, lastDay + 1));
+    }
+
+    @Test
+    public void forecastMatchesCheckoutsOfTheBundledCatalog() {
+        CheckoutService checkoutService = new CheckoutService();
+        LocalDate from = LocalDate.of(2020, 7, 1);
+        LocalDate until = from.plusMonths(12);
+        int days = (int) (until.toEpochDay() - from.toEpochDay());
+
+        FleetRevenueForecaster forecaster = new FleetRevenueForecaster(ToolCatalogProvider.of(bundledCatalog), TABLE);
+        FleetForecast forecast = forecaster.forecast(from, until, 0.8);
+
+        BigDecimal grossRevenue = BigDecimal.ZERO;
+        for (Tool tool : bundledCatalog.getTools()) {
+            // A checkout charges from the day after the checkout date
+            grossRevenue = grossRevenue.add(checkoutService.checkout(tool.getToolCode(), from.minusDays(1), days, 0).getPreDiscountCharge());
+        }
+        Assertions.assertEquals(0, grossRevenue.compareTo(forecast.grossRevenue()));
+
+        ToolTypeForecast chainsaws = forecast.forType("Chainsaw");
+        BigDecimal chainsawRevenue = checkoutService.checkout("CHNS", from.minusDays(1), days, 0).getPreDiscountCharge();
+        Assertions.assertEquals(1, chainsaws.tools());
+        Assertions.assertEquals(0, chainsawRevenue.compareTo(chainsaws.grossRevenue()));
+        Assertions.assertEquals(chainsawRevenue.multiply(new BigDecimal("0.8")).setScale(2, RoundingMode.HALF_UP), chainsaws.projectedRevenue());
+        Assertions.assertEquals(2, forecast.forType("Jackhammer").tools());
+        Assertions.assertNull(forecast.forType("Forklift"));
+        Assertions.assertEquals(List.of("Chainsaw", "Jackhammer", "Ladder"), forecast.toolTypes().stream().map(type -> type.toolType().getType()).toList());
+    }
+
+    @Test
+    public void largeFleetsAreCountedByToolType() {
+        List<ToolType> types = List.of(
+                new ToolType("Ladder", new BigDecimal("1.99"), true, true, false),
+                new ToolType("Saw", new BigDecimal("0.125"), true, false, true),
+                new ToolType("Drill", new BigDecimal("3.00"), false, true, false));
+        Random random = new Random(61);
+        List<Tool> tools = new ArrayList<>();
+        int[] expectedCounts = new int[types.size()];
+        for (int i = 0; i < 100_000; i++) {
+            int type = random.nextInt(types.size());
+            expectedCounts[type]++;
+            tools.add(new Tool("T" + i, types.get(type), "Brand"));
+        }
+        ToolCatalog catalog = new ToolCatalog(types, tools);
+        LocalDate from = LocalDate.of(2024, 3, 10);
+        LocalDate until = LocalDate.of(2025, 3, 10);
+
+        FleetForecast forecast = new FleetRevenueForecaster(ToolCatalogProvider.of(catalog), TABLE).forecast(from, until, 1);
+
+        BigDecimal grossRevenue = BigDecimal.ZERO;
+        for (int type = 0; type < types.size(); type++) {
+            ToolTypeForecast typeForecast = forecast.forType(types.get(type).getType());
+            int days = TABLE.chargeableDays(flags(types.get(type)), from.toEpochDay(), until.toEpochDay() - 1);
+            BigDecimal expected = types.get(type).getDailyCharge().multiply(BigDecimal.valueOf((long) days * expectedCounts[type]));
+            Assertions.assertEquals(expectedCounts[type], typeForecast.tools());
+            Assertions.assertEquals(days, typeForecast.chargeableDaysPerTool());
+            Assertions.assertEquals(0, expected.compareTo(typeForecast.grossRevenue()));
+            grossRevenue = grossRevenue.add(expected);
+        }
+        Assertions.assertEquals(0, grossRevenue.compareTo(forecast.grossRevenue()));
+        Assertions.assertEquals(grossRevenue.setScale(2, RoundingMode.HALF_UP), forecast.projectedRevenue());
+    }
+
+    @Test
+    public void invalidForecastsAreRejected() {
+        FleetRevenueForecaster forecaster = new FleetRevenueForecaster(ToolCatalogProvider.of(bundledCatalog), TABLE);
+        LocalDate from = LocalDate.of(2020, 1, 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> forecaster.forecast(from, from, 0.5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> forecaster.forecast(from, from.plusDays(1), 1.5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> forecaster.forecast(from, from.plusDays(1), Double.NaN));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> forecaster.forecast(from, TABLE_END.plusDays(2), 0.5));
+    }
+
+    private static int flags(ToolType type) {
+        return (type.isWeekdayCharge() ? ToolCatalog.WEEKDAY_CHARGE : 0) | (type.isWeekendCharge() ? ToolCatalog.WEEKEND_CHARGE : 0)
+                | (type.isHolidayCharge() ? ToolCatalog.HOLIDAY_CHARGE : 0);
+    }
+}
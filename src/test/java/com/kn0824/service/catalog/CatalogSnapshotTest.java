@@ -0,0 +1,93 @@
+package com.kn0824.service.catalog;
+
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.CheckoutService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+public class CatalogSnapshotTest {
+
+    @Test
+    public void bundledSnapshotMatchesTheCsvFiles() throws IOException {
+        assertSameCatalog(ToolCatalogLoader.fromClasspath(), SnapshotToolCatalogProvider.bundled().current());
+        Assertions.assertSame(SnapshotToolCatalogProvider.bundled().current(), SnapshotToolCatalogProvider.bundled().current());
+    }
+
+    @Test
+    public void roundTripKeepsEveryField() throws IOException {
+        ToolType ladder = ToolType.builder().type("Ladder").dailyCharge(new BigDecimal("1.99")).weekdayCharge(true).weekendCharge(true)
+                .weeklyCharge(new BigDecimal("9.95")).monthlyCharge(new BigDecimal("29.00")).build();
+        ToolType saw = new ToolType("Saw \u00e9", new BigDecimal("0.125"), false, false, true);
+        ToolType unregistered = new ToolType(null, null, true, false, false);
+        ToolCatalog catalog = new ToolCatalog(List.of(ladder, saw), List.of(new Tool("LADW", ladder, "Werner"), new Tool("SAWX", saw, null),
+                new Tool("HOIS", unregistered, "Acme"), new Tool("NONE", null, "Acme")));
+
+        ToolCatalog copy = CatalogSnapshot.read(ByteBuffer.wrap(CatalogSnapshot.toBytes(catalog)));
+
+        assertSameCatalog(catalog, copy);
+        Assertions.assertEquals(List.of(ladder, saw), List.copyOf(copy.getToolTypes()));
+        Assertions.assertNull(copy.getTool("NONE").getToolType());
+        Assertions.assertEquals(2900, copy.monthlyChargeCents(copy.toolTypeId(copy.toolId("LADW"))));
+    }
+
+    @Test
+    public void mapsSnapshotFilesLazily(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        SnapshotToolCatalogProvider provider = SnapshotToolCatalogProvider.of(file);
+        Assertions.assertFalse(provider.isLoaded());
+        Assertions.assertThrows(UncheckedIOException.class, provider::current);
+
+        CatalogSnapshot.main(new String[]{getClass().getResource("/tools.csv").getPath().replace("tools.csv", ""), file.toString()});
+        ToolCatalog catalog = provider.current();
+        Assertions.assertTrue(provider.isLoaded());
+        assertSameCatalog(ToolCatalogLoader.fromClasspath(), catalog);
+
+        // Once loaded the mapping is no longer needed
+        Files.delete(file);
+        Assertions.assertSame(catalog, provider.current());
+    }
+
+    @Test
+    public void corruptedSnapshotsAreRejected() throws IOException {
+        byte[] image = CatalogSnapshot.toBytes(ToolCatalogLoader.fromClasspath());
+        image[image.length / 2] ^= 1;
+        Assertions.assertThrows(StreamCorruptedException.class, () -> CatalogSnapshot.read(ByteBuffer.wrap(image)));
+        Assertions.assertThrows(StreamCorruptedException.class, () -> CatalogSnapshot.read(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+    }
+
+    @Test
+    public void lazyServicePricesLikeTheDefault() {
+        CheckoutService lazy = CheckoutService.builder().lazyCatalog().build();
+        CheckoutService eager = new CheckoutService();
+        for (String toolCode : List.of("LADW", "CHNS", "JAKD", "JAKR")) {
+            Assertions.assertEquals(eager.checkout(toolCode, LocalDate.of(2015, 7, 2), 40, 15), lazy.checkout(toolCode, LocalDate.of(2015, 7, 2), 40, 15));
+        }
+    }
+
+    private static void assertSameCatalog(ToolCatalog expected, ToolCatalog actual) {
+        Assertions.assertEquals(expected.size(), actual.size());
+        Assertions.assertEquals(expected.toolTypeCount(), actual.toolTypeCount());
+        for (int toolId = 0; toolId < expected.size(); toolId++) {
+            Assertions.assertEquals(expected.getTool(toolId), actual.getTool(toolId));
+            Assertions.assertEquals(expected.toolTypeId(toolId), actual.toolTypeId(toolId));
+        }
+        for (int toolTypeId = 0; toolTypeId < expected.toolTypeCount(); toolTypeId++) {
+            Assertions.assertEquals(expected.getToolType(toolTypeId), actual.getToolType(toolTypeId));
+            Assertions.assertEquals(expected.dailyChargeCents(toolTypeId), actual.dailyChargeCents(toolTypeId));
+            Assertions.assertEquals(expected.chargeFlags(toolTypeId), actual.chargeFlags(toolTypeId));
+        }
+    }
+}
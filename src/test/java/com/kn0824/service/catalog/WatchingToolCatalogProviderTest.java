@@ -0,0 +1,85 @@
+package com.kn0824.service.catalog;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.service.CheckoutService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+public class WatchingToolCatalogProviderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void reloadPublishesNewSnapshot() throws IOException {
+        writeCatalog("Ladder,1.99,true,true,false");
+        try (WatchingToolCatalogProvider provider = new WatchingToolCatalogProvider(directory)) {
+            CheckoutService checkoutService = new CheckoutService(provider);
+            RentalAgreement before = checkoutService.checkout("LADW", LocalDate.of(2020, 7, 2), 3, 10);
+            Assertions.assertEquals(0, new BigDecimal("1.99").compareTo(before.getDailyRentalCharge()));
+
+            writeCatalog("Ladder,2.49,true,true,false");
+            Assertions.assertTrue(provider.reload());
+
+            RentalAgreement after = checkoutService.checkout("LADW", LocalDate.of(2020, 7, 2), 3, 10);
+            Assertions.assertEquals(0, new BigDecimal("2.49").compareTo(after.getDailyRentalCharge()));
+            Assertions.assertEquals(0, provider.getFailedLoads());
+        }
+    }
+
+    @Test
+    public void failedReloadKeepsPreviousSnapshot() throws IOException {
+        writeCatalog("Ladder,1.99,true,true,false");
+        try (WatchingToolCatalogProvider provider = new WatchingToolCatalogProvider(directory)) {
+            writeCatalog("Ladder,not-a-price,true,true,false");
+
+            Assertions.assertFalse(provider.reload());
+            Assertions.assertEquals(1, provider.getFailedLoads());
+            Assertions.assertNotNull(provider.getLastFailure());
+            Assertions.assertEquals(0, new BigDecimal("1.99").compareTo(provider.current().getTool("LADW").getToolType().getDailyCharge()));
+        }
+    }
+
+    @Test
+    public void initialLoadFailureIsReported() throws IOException {
+        Files.writeString(directory.resolve(ToolCatalogLoader.TOOLTYPE_CSV_FILE), "Ladder,1.99,true,true,false");
+        Files.writeString(directory.resolve(ToolCatalogLoader.TOOLS_CSV_FILE), "LADW,Scaffold,Werner");
+        Assertions.assertThrows(IOException.class, () -> new WatchingToolCatalogProvider(directory));
+    }
+
+    @Test
+    public void unwatchableDirectoryIsReported() throws IOException {
+        writeCatalog("Ladder,1.99,true,true,false");
+        Assertions.assertThrows(IOException.class, () -> new WatchingToolCatalogProvider(directory.resolve(ToolCatalogLoader.TOOLS_CSV_FILE)));
+        Assertions.assertThrows(IOException.class, () -> new WatchingToolCatalogProvider(directory.resolve("missing")));
+    }
+
+    @Test
+    public void fileChangeTriggersReload() throws IOException, InterruptedException {
+        writeCatalog("Ladder,1.99,true,true,false");
+        try (WatchingToolCatalogProvider provider = new WatchingToolCatalogProvider(directory)) {
+            Path staged = Files.writeString(directory.resolve("staged.tmp"), "Ladder,3.99,true,true,false");
+            Files.move(staged, directory.resolve(ToolCatalogLoader.TOOLTYPE_CSV_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (provider.current().getTool("LADW").getToolType().getDailyCharge().compareTo(new BigDecimal("3.99")) != 0) {
+                Assertions.assertTrue(System.currentTimeMillis() < deadline, "Catalog was not reloaded after the file changed");
+                Thread.sleep(50);
+            }
+            Assertions.assertTrue(provider.getSuccessfulLoads() >= 2);
+        }
+    }
+
+    private void writeCatalog(String ladderType) throws IOException {
+        Files.writeString(directory.resolve(ToolCatalogLoader.TOOLTYPE_CSV_FILE), ladderType);
+        Files.writeString(directory.resolve(ToolCatalogLoader.TOOLS_CSV_FILE), "LADW,Ladder,Werner");
+    }
+}
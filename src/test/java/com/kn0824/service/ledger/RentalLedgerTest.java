@@ -0,0 +1,221 @@
+package com.kn0824.service.ledger;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.service.CheckoutRequest;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.catalog.ToolCatalogLoader;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class RentalLedgerTest {
+
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR"};
+    private static final LedgerConfig SMALL_SEGMENTS = new LedgerConfig(100, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void checkoutRecordsAgreements() throws IOException {
+        try (RentalLedger ledger = RentalLedger.open(directory)) {
+            CheckoutService checkoutService = new CheckoutService(ToolCatalogProvider.of(ToolCatalogLoader.fromClasspath()), HolidayCalendar.defaultCalendar(), ledger);
+            RentalAgreement agreement = checkoutService.checkout("JAKR", LocalDate.of(2020, 7, 2), 9, 25);
+
+            Assertions.assertEquals(1, ledger.size());
+            LedgerEntry entry = ledger.get(0);
+            Assertions.assertEquals("JAKR", entry.toolCode());
+            Assertions.assertEquals(agreement.getCheckoutDate(), entry.checkoutDate());
+            Assertions.assertEquals(agreement.getDueDate(), entry.dueDate());
+            Assertions.assertEquals(agreement.getChargeDays(), entry.chargeDays());
+            Assertions.assertEquals(25, entry.discountPercent());
+            Assertions.assertEquals(0, agreement.getFinalAmount().compareTo(entry.finalAmount()));
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> ledger.get(1));
+        }
+    }
+
+    @Test
+    public void findByToolScansDateRange() throws IOException {
+        List<RentalAgreement> agreements = checkouts(1_000);
+        try (RentalLedger ledger = RentalLedger.open(directory, SMALL_SEGMENTS)) {
+            for (RentalAgreement agreement : agreements) {
+                ledger.append(agreement);
+            }
+            LocalDate from = LocalDate.of(2015, 3, 1);
+            LocalDate to = LocalDate.of(2015, 3, 31);
+            List<LedgerEntry> found = ledger.findByTool("JAKR", from, to);
+
+            List<RentalAgreement> expected = agreements.stream()
+                    .filter(agreement -> agreement.getTool().getToolCode().equals("JAKR"))
+                    .filter(agreement -> !agreement.getCheckoutDate().isBefore(from) && !agreement.getCheckoutDate().isAfter(to))
+                    .sorted(Comparator.comparing(RentalAgreement::getCheckoutDate))
+                    .toList();
+            Assertions.assertFalse(expected.isEmpty());
+            Assertions.assertEquals(expected.size(), found.size());
+            for (int i = 0; i < found.size(); i++) {
+                Assertions.assertEquals(expected.get(i).getCheckoutDate(), found.get(i).checkoutDate());
+                Assertions.assertEquals("JAKR", found.get(i).toolCode());
+            }
+            Assertions.assertTrue(ledger.findByTool("NONE", from, to).isEmpty());
+        }
+    }
+
+    @Test
+    public void reopenRebuildsIndexAcrossSegments() throws IOException {
+        List<RentalAgreement> agreements = checkouts(350);
+        try (RentalLedger ledger = RentalLedger.open(directory, SMALL_SEGMENTS)) {
+            for (RentalAgreement agreement : agreements) {
+                ledger.append(agreement);
+            }
+        }
+        Assertions.assertEquals(4, segmentFiles().size());
+
+        try (RentalLedger ledger = RentalLedger.open(directory, SMALL_SEGMENTS)) {
+            Assertions.assertEquals(350, ledger.size());
+            for (int i = 0; i < agreements.size(); i++) {
+                Assertions.assertEquals(agreements.get(i).getTool().getToolCode(), ledger.get(i).toolCode());
+                Assertions.assertEquals(0, agreements.get(i).getFinalAmount().compareTo(ledger.get(i).finalAmount()));
+            }
+            // Checkout dates repeat every 300 rows, which lines up with the same tool again
+            List<LedgerEntry> found = ledger.findByTool("LADW", LocalDate.of(2015, 1, 6), LocalDate.of(2015, 1, 6));
+            Assertions.assertEquals(List.of(5L, 305L), found.stream().map(LedgerEntry::sequence).toList());
+
+            Assertions.assertEquals(350, ledger.append(agreements.get(0)));
+        }
+    }
+
+    @Test
+    public void reopenWithDifferentSegmentSizeKeepsRecords() throws IOException {
+        List<RentalAgreement> agreements = checkouts(10);
+        try (RentalLedger ledger = RentalLedger.open(directory, new LedgerConfig(4, 1, 0))) {
+            for (RentalAgreement agreement : agreements) {
+                ledger.append(agreement);
+            }
+        }
+        try (RentalLedger ledger = RentalLedger.open(directory, new LedgerConfig(8, 1, 0))) {
+            Assertions.assertEquals(10, ledger.size());
+            // The last segment is filled up to its original 4 records before an 8 record segment is started
+            for (int i = 10; i < 20; i++) {
+                Assertions.assertEquals(i, ledger.append(agreements.get(i % 10)));
+            }
+        }
+        Assertions.assertEquals(4, segmentFiles().size());
+        try (RentalLedger ledger = RentalLedger.open(directory, new LedgerConfig(2, 1, 0))) {
+            Assertions.assertEquals(20, ledger.size());
+            for (int i = 0; i < 20; i++) {
+                Assertions.assertEquals(agreements.get(i % 10).getTool().getToolCode(), ledger.get(i).toolCode());
+            }
+        }
+    }
+
+    @Test
+    public void tornRecordEndsTheLedger() throws IOException {
+        List<RentalAgreement> agreements = checkouts(250);
+        try (RentalLedger ledger = RentalLedger.open(directory, SMALL_SEGMENTS)) {
+            for (RentalAgreement agreement : agreements) {
+                ledger.append(agreement);
+            }
+        }
+        // Corrupt record 120, in the middle of the second segment
+        Path second = segmentFiles().get(1);
+        try (FileChannel channel = FileChannel.open(second, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), 20L * LedgerSegment.RECORD_SIZE + 40);
+        }
+
+        try (RentalLedger ledger = RentalLedger.open(directory, SMALL_SEGMENTS)) {
+            Assertions.assertEquals(120, ledger.size());
+            Assertions.assertEquals(2, segmentFiles().size());
+            LocalDate lastDate = agreements.get(agreements.size() - 1).getCheckoutDate();
+            Assertions.assertTrue(ledger.findByTool(agreements.get(249).getTool().getToolCode(), lastDate, lastDate).isEmpty());
+
+            Assertions.assertEquals(120, ledger.append(agreements.get(200)));
+        }
+        try (RentalLedger ledger = RentalLedger.open(directory, SMALL_SEGMENTS)) {
+            Assertions.assertEquals(121, ledger.size());
+            Assertions.assertEquals(agreements.get(200).getTool().getToolCode(), ledger.get(120).toolCode());
+        }
+    }
+
+    @Test
+    public void rejectsAmountsThatAreNotWholeCents() throws IOException {
+        RentalAgreement agreement = checkouts(1).get(0);
+        RentalAgreement fractional = new RentalAgreement(agreement.getTool(), agreement.getRentalDays(), agreement.getCheckoutDate(),
+                agreement.getDueDate(), agreement.getDailyRentalCharge(), agreement.getChargeDays(), agreement.getPreDiscountCharge(),
+                agreement.getDiscountPercent(), agreement.getDiscountAmount(), new BigDecimal("1.005"));
+        try (RentalLedger ledger = RentalLedger.open(directory)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ledger.append(fractional));
+            Assertions.assertEquals(0, ledger.size());
+        }
+    }
+
+    @Test
+    public void batchWithSubCentChargeRecordsNothing() throws IOException {
+        ToolCatalog catalog = ToolCatalogLoader.load(new StringReader("Ladder,1.99,true,true,false\nPump,1.995,true,true,true\n"),
+                new StringReader("LADW,Ladder,Werner\nPMPX,Pump,Xylem\n"));
+        try (RentalLedger ledger = RentalLedger.open(directory)) {
+            CheckoutService checkoutService = new CheckoutService(ToolCatalogProvider.of(catalog), HolidayCalendar.defaultCalendar(), ledger);
+            List<CheckoutRequest> requests = List.of(new CheckoutRequest("LADW", LocalDate.of(2020, 7, 2), 3, 0),
+                    new CheckoutRequest("PMPX", LocalDate.of(2020, 7, 2), 3, 0));
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> checkoutService.checkoutAll(requests));
+            Assertions.assertEquals(0, ledger.size());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout("PMPX", LocalDate.of(2020, 7, 2), 3, 0));
+            Assertions.assertEquals(0, ledger.size());
+
+            checkoutService.checkoutAll(requests.subList(0, 1));
+            Assertions.assertEquals(1, ledger.size());
+        }
+    }
+
+    @Test
+    public void datesOutsideTheLedgerRangeRecordNothing() throws IOException {
+        RentalAgreement agreement = checkouts(1).get(0);
+        RentalAgreement farFuture = agreement.toBuilder().checkoutDate(LocalDate.of(100_000, 1, 1)).dueDate(LocalDate.of(100_000, 1, 5)).build();
+        RentalAgreement farDue = agreement.toBuilder().dueDate(LocalDate.MAX).build();
+        try (RentalLedger ledger = RentalLedger.open(directory)) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ledger.append(farFuture));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ledger.append(farDue));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ledger.appendAll(List.of(agreement, farDue)));
+            Assertions.assertEquals(0, ledger.size());
+
+            Assertions.assertEquals(0, ledger.append(agreement));
+            Assertions.assertEquals(agreement.getDueDate(), ledger.get(0).dueDate());
+            Assertions.assertEquals(1, ledger.findByTool(agreement.getTool().getToolCode(), LocalDate.MIN, LocalDate.MAX).size());
+        }
+        try (RentalLedger reopened = RentalLedger.open(directory)) {
+            Assertions.assertEquals(1, reopened.size());
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<RentalAgreement> checkouts(int count) {
+        CheckoutService checkoutService = new CheckoutService();
+        List<RentalAgreement> agreements = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            agreements.add(checkoutService.checkout(TOOL_CODES[i % TOOL_CODES.length], LocalDate.of(2015, 1, 1).plusDays(i % 300), 1 + i % 40, i % 101));
+        }
+        return agreements;
+    }
+}
@@ -0,0 +1,98 @@
+package com.kn0824.service.metrics;
+
+import com.kn0824.service.CheckoutRequest;
+import com.kn0824.service.CheckoutService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class CheckoutMetricsTest {
+
+    @Test
+    public void histogramBucketsStayWithinPrecision() {
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int index = LogHistogram.bucketIndex(value);
+            Assertions.assertTrue(LogHistogram.bucketLowerBound(index) <= value && value <= LogHistogram.bucketUpperBound(index), Long.toString(value));
+            Assertions.assertTrue(LogHistogram.bucketUpperBound(index) - LogHistogram.bucketLowerBound(index) <= Math.max(0, value / 8));
+        }
+        Assertions.assertEquals(Long.MAX_VALUE, LogHistogram.bucketUpperBound(LogHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LogHistogram histogram = new LogHistogram();
+        for (int value = 1; value <= 1_000; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+        MetricsSnapshot.HistogramSample sample = histogram.snapshot("test", Map.of());
+        Assertions.assertEquals(1_001, sample.count());
+        Assertions.assertEquals(500_500, sample.sum());
+        Assertions.assertEquals(1_000, sample.max());
+        Assertions.assertEquals(0, sample.valueAtPercentile(0));
+        Assertions.assertEquals(1_000, sample.valueAtPercentile(100));
+        long median = sample.valueAtPercentile(50);
+        Assertions.assertTrue(median >= 500 && median <= 500 * 9 / 8, Long.toString(median));
+    }
+
+    @Test
+    public void checkoutsAreCountedByToolTypeAndError() throws IOException {
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        CheckoutService checkoutService = CheckoutService.builder().metrics(metrics).build();
+        checkoutService.checkout("LADW", LocalDate.of(2020, 7, 2), 3, 10);
+        checkoutService.checkout("JAKR", LocalDate.of(2020, 7, 2), 30, 10);
+        checkoutService.checkout("JAKD", LocalDate.of(2020, 7, 2), 30, 10);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout("FOOBAR", LocalDate.of(2020, 7, 2), 0, 10));
+        checkoutService.checkoutAll(List.of(new CheckoutRequest("LADW", LocalDate.of(2020, 7, 2), 1, 0),
+                new CheckoutRequest("LADW", LocalDate.of(2020, 7, 2), 1, 101)));
+
+        InMemoryMetricsExporter exporter = new InMemoryMetricsExporter();
+        metrics.export(exporter);
+        MetricsSnapshot snapshot = exporter.getLastSnapshot();
+
+        Assertions.assertEquals(2, snapshot.counter(CheckoutMetrics.CHECKOUTS, Map.of(CheckoutMetrics.TOOL_TYPE_TAG, "Ladder")).value());
+        Assertions.assertEquals(2, snapshot.counter(CheckoutMetrics.CHECKOUTS, Map.of(CheckoutMetrics.TOOL_TYPE_TAG, "Jackhammer")).value());
+        Assertions.assertNull(snapshot.counter(CheckoutMetrics.CHECKOUTS, Map.of(CheckoutMetrics.TOOL_TYPE_TAG, "Chainsaw")));
+        Assertions.assertEquals(1, snapshot.counter(CheckoutMetrics.REJECTIONS, Map.of(CheckoutMetrics.ERROR_TAG, "UNKNOWN_TOOL_CODE")).value());
+        Assertions.assertEquals(1, snapshot.counter(CheckoutMetrics.REJECTIONS, Map.of(CheckoutMetrics.ERROR_TAG, "INVALID_RENTAL_DAYS")).value());
+        Assertions.assertEquals(1, snapshot.counter(CheckoutMetrics.REJECTIONS, Map.of(CheckoutMetrics.ERROR_TAG, "INVALID_DISCOUNT")).value());
+        Assertions.assertEquals(2, snapshot.counter(CheckoutMetrics.BATCH_ROWS, Map.of()).value());
+
+        // Batch rows count towards checkouts and rental days, but only single checkouts are timed
+        Assertions.assertEquals(1, snapshot.histogram(CheckoutMetrics.CHECKOUT_LATENCY, Map.of(CheckoutMetrics.TOOL_TYPE_TAG, "Ladder")).count());
+        MetricsSnapshot.HistogramSample rentalDays = snapshot.histogram(CheckoutMetrics.RENTAL_DAYS, Map.of(CheckoutMetrics.TOOL_TYPE_TAG, "Jackhammer"));
+        Assertions.assertEquals(2, rentalDays.count());
+        Assertions.assertEquals(30, rentalDays.max());
+        Assertions.assertEquals(1, snapshot.histogram(CheckoutMetrics.CATALOG_LOAD_TIME, Map.of()).count());
+    }
+
+    @Test
+    public void prometheusText() throws IOException {
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        metrics.recordCheckout("Ladder \"XL\"", 3, -1);
+        metrics.recordCheckout("Ladder \"XL\"", 12, -1);
+        StringBuilder text = new StringBuilder();
+        metrics.export(new PrometheusTextExporter(text));
+
+        String expectedRentalDays = """
+                # TYPE checkout_rental_days histogram
+                checkout_rental_days_bucket{tool_type="Ladder \\"XL\\"",le="3"} 1
+                checkout_rental_days_bucket{tool_type="Ladder \\"XL\\"",le="12"} 2
+                checkout_rental_days_bucket{tool_type="Ladder \\"XL\\"",le="+Inf"} 2
+                checkout_rental_days_sum{tool_type="Ladder \\"XL\\""} 15
+                checkout_rental_days_count{tool_type="Ladder \\"XL\\""} 2
+                """;
+        Assertions.assertTrue(text.toString().startsWith("# TYPE checkouts_total counter\ncheckouts_total{tool_type=\"Ladder \\\"XL\\\"\"} 2\n"), text.toString());
+        Assertions.assertTrue(text.toString().contains(expectedRentalDays), text.toString());
+        Assertions.assertTrue(text.toString().contains("checkout_rejections_total{error=\"INVALID_DISCOUNT\"} 0\n"));
+        Assertions.assertTrue(text.toString().contains("catalog_load_nanoseconds_bucket{le=\"+Inf\"} 0\n"));
+        Assertions.assertEquals(text.toString(), PrometheusTextExporter.format(metrics.snapshot()));
+    }
+}
@@ -0,0 +1,179 @@
+package com.kn0824.service.pipeline;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.catalog.ToolCatalogLoader;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import com.kn0824.service.ledger.RentalLedger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+public class BulkCheckoutPipelineTest {
+
+    private static final String[] TOOL_CODES = {"CHNS", "LADW", "JAKD", "JAKR", "FOOBAR"};
+
+    @Test
+    public void writesEveryRowInInputOrder() throws IOException {
+        CheckoutService checkoutService = new CheckoutService();
+        Random random = new Random(14);
+        StringBuilder csv = new StringBuilder("toolCode,checkoutDate,rentalDays,discount\n");
+        StringBuilder expected = new StringBuilder();
+        NdjsonCheckoutResultSink expectedSink = new NdjsonCheckoutResultSink(expected);
+        int rows = 20_000;
+        for (int line = 2; line < rows + 2; line++) {
+            String toolCode = TOOL_CODES[random.nextInt(TOOL_CODES.length)];
+            LocalDate checkoutDate = LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3_000));
+            int rentalDays = random.nextInt(40) - 2;
+            int discount = random.nextInt(110);
+            if (random.nextInt(50) == 0) {
+                csv.append(toolCode).append(",not a date,").append(rentalDays).append(',').append(discount).append('\n');
+                expectedSink.error(line, "Invalid checkout date not a date. ");
+                continue;
+            }
+            csv.append(toolCode).append(',').append(checkoutDate).append(',').append(rentalDays).append(',').append(discount).append('\n');
+            try {
+                expectedSink.agreement(line, checkoutService.checkout(toolCode, checkoutDate, rentalDays, discount));
+            } catch (IllegalArgumentException e) {
+                expectedSink.error(line, e.getMessage());
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PipelineResult result = new BulkCheckoutPipeline(checkoutService, 4, 7, 3)
+                .run(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), BulkCheckoutPipeline.Format.CSV, out);
+
+        Assertions.assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+        Assertions.assertEquals(rows, result.rows());
+        Assertions.assertEquals(rows, result.agreements() + result.errors());
+        Assertions.assertTrue(result.agreements() > 0 && result.errors() > 0);
+    }
+
+    @Test
+    public void readsNdjsonFiles(@TempDir Path directory) throws IOException {
+        Path input = directory.resolve("requests.ndjson");
+        Path output = directory.resolve("agreements.ndjson");
+        Files.writeString(input, """
+                {"toolCode":"LADW","checkoutDate":"2020-07-02","rentalDays":3,"discount":10}
+
+                {"rentalDays" : 5, "discount" : 25, "note" : "July 4th", "toolCode" : "CHNS", "checkoutDate" : "2015-07-02"}
+                {"toolCode":"LADW","checkoutDate":"2020-07-02","rentalDays":3}
+                {"toolCode":"LADW","rentalDays":3,"discount":10}
+                {"toolCode":"LADW","checkoutDate":"2020-07-02","rentalDays":"three","discount":10}
+                {"toolCode":"LADW","checkoutDate":"2020-07-02","rentalDays":0,"discount":10}
+                """);
+
+        PipelineResult result = new BulkCheckoutPipeline(new CheckoutService()).run(input, output);
+
+        CheckoutService checkoutService = new CheckoutService();
+        StringBuilder expected = new StringBuilder();
+        NdjsonCheckoutResultSink expectedSink = new NdjsonCheckoutResultSink(expected);
+        expectedSink.agreement(1, checkoutService.checkout("LADW", LocalDate.of(2020, 7, 2), 3, 10));
+        expectedSink.agreement(3, checkoutService.checkout("CHNS", LocalDate.of(2015, 7, 2), 5, 25));
+        expectedSink.agreement(4, checkoutService.checkout("LADW", LocalDate.of(2020, 7, 2), 3, 0));
+        expectedSink.error(5, "The checkout date is missing. ");
+        expectedSink.error(6, "Rental days and discount must be whole numbers. ");
+        expectedSink.error(7, "The number of days chosen for rental must be at least 1 day. ");
+        Assertions.assertEquals(expected.toString(), Files.readString(output));
+        Assertions.assertEquals(new PipelineResult(6, 3, 3, result.elapsedNanos()), result);
+    }
+
+    @Test
+    public void malformedCsvRowsAreReported() throws IOException {
+        CsvCheckoutRequestSource source = new CsvCheckoutRequestSource(new StringReader("LADW,2020-07-02,3\nLADW,2020-07-02,x,1\nLADW,2020-07-02,3,10\n"));
+        Assertions.assertEquals(SourceRow.malformed(1, "Expected the 4 columns toolCode,checkoutDate,rentalDays,discount but found 3. "), source.next());
+        Assertions.assertEquals(SourceRow.malformed(2, "Rental days and discount must be whole numbers. "), source.next());
+        Assertions.assertEquals(LocalDate.of(2020, 7, 2), source.next().request().checkoutDate());
+        Assertions.assertNull(source.next());
+    }
+
+    @Test
+    public void malformedNdjsonRowsAreReported() throws IOException {
+        NdjsonCheckoutRequestSource source = new NdjsonCheckoutRequestSource(new StringReader(String.join("\n",
+                "{\"toolCode\":\"LA\\u00zW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discount\":10}",
+                "{\"toolCode\":\"LADW\\u00",
+                "{\"toolCode\":\"LADW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discount\":10,}",
+                "{\"toolCode\":\"\\u004cADW\",\"checkoutDate\":\"2020-07-02\",\"rentalDays\":3,\"discount\":10}")));
+        Assertions.assertEquals(SourceRow.malformed(1, "Expected a hex digit in a \\u escape but found 'z'. "), source.next());
+        Assertions.assertEquals(SourceRow.malformed(2, "Expected a hex digit in a \\u escape but found end of input. "), source.next());
+        Assertions.assertEquals(SourceRow.malformed(3, "Expected '\"' but found '}'. "), source.next());
+        Assertions.assertEquals("LADW", source.next().request().toolCode());
+        Assertions.assertNull(source.next());
+    }
+
+    @Test
+    public void sinkFailureStopsTheRun() {
+        CheckoutRequestSource endless = new CheckoutRequestSource() {
+            private long line;
+
+            @Override
+            public SourceRow next() {
+                line++;
+                return SourceRow.malformed(line, "Endless. ");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        CheckoutResultSink failing = new CheckoutResultSink() {
+            @Override
+            public void agreement(long line, RentalAgreement agreement) {
+            }
+
+            @Override
+            public void error(long line, String message) throws IOException {
+                if (line == 1_000) {
+                    throw new IOException("Disk full");
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        IOException e = Assertions.assertThrows(IOException.class, () -> new BulkCheckoutPipeline(new CheckoutService(), 2, 16, 2).run(endless, failing));
+        Assertions.assertEquals("Disk full", e.getMessage());
+    }
+
+    @Test
+    public void ledgerThatCantHoldAnAgreementStopsTheRun(@TempDir Path directory) throws IOException {
+        ToolCatalog catalog = ToolCatalogLoader.load(new StringReader("Ladder,1.99,true,true,false\nPump,1.995,true,true,true\n"),
+                new StringReader("LADW,Ladder,Werner\nPMPX,Pump,Xylem\n"));
+        try (RentalLedger ledger = RentalLedger.open(directory)) {
+            CheckoutService checkoutService = new CheckoutService(ToolCatalogProvider.of(catalog), HolidayCalendar.defaultCalendar(), ledger);
+            String csv = "LADW,2020-07-02,3,0\nFOOBAR,2020-07-02,3,0\nPMPX,2020-07-02,3,0\n";
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BulkCheckoutPipeline pipeline = new BulkCheckoutPipeline(checkoutService, 1, 1, 1);
+
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> pipeline.run(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkCheckoutPipeline.Format.CSV, out));
+            Assertions.assertEquals(1, ledger.size());
+        }
+    }
+
+    @Test
+    public void formatFollowsTheFileExtension() {
+        Assertions.assertEquals(BulkCheckoutPipeline.Format.CSV, BulkCheckoutPipeline.Format.forFile(Path.of("exports", "requests.CSV")));
+        Assertions.assertEquals(BulkCheckoutPipeline.Format.NDJSON, BulkCheckoutPipeline.Format.forFile(Path.of("requests.jsonl")));
+        Assertions.assertEquals(List.of(BulkCheckoutPipeline.Format.CSV, BulkCheckoutPipeline.Format.NDJSON), List.of(BulkCheckoutPipeline.Format.values()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.kn0824.service.reservation;
+
+import com.kn0824.core.calendar.HolidayCalendar;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.service.CheckoutRequest;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.CheckoutValidationError;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ReservationBookTest {
+
+    private static final LocalDate JULY_1 = LocalDate.of(2020, 7, 1);
+
+    @Test
+    public void overlappingBookingsAreRejected() {
+        ReservationBook book = new ReservationBook();
+        Reservation reservation = book.tryReserve("JAKD", JULY_1, 5);
+        Assertions.assertNotNull(reservation);
+        Assertions.assertEquals(LocalDate.of(2020, 7, 6), reservation.dueDate());
+
+        Assertions.assertNull(book.tryReserve("JAKD", JULY_1.plusDays(4), 3));
+        Assertions.assertNull(book.tryReserve("JAKD", JULY_1.minusDays(2), 3));
+        Assertions.assertNull(book.tryReserve("JAKD", JULY_1.minusDays(2), 20));
+        // The tool can go out again on its due date, and other tools are unaffected
+        Assertions.assertNotNull(book.tryReserve("JAKD", JULY_1.plusDays(5), 2));
+        Assertions.assertNotNull(book.tryReserve("JAKD", JULY_1.minusDays(3), 3));
+        Assertions.assertNotNull(book.tryReserve("JAKR", JULY_1, 5));
+        Assertions.assertEquals(3, book.reservationCount("JAKD"));
+
+        Assertions.assertTrue(book.release(reservation));
+        Assertions.assertFalse(book.release(reservation));
+        Assertions.assertTrue(book.isAvailable("JAKD", JULY_1, 5));
+        Assertions.assertFalse(book.isAvailable("JAKD", JULY_1, 6));
+    }
+
+    @Test
+    public void firstAvailableDateSkipsBookedGaps() {
+        ReservationBook book = new ReservationBook();
+        book.tryReserve("JAKD", JULY_1, 3);
+        book.tryReserve("JAKD", JULY_1.plusDays(5), 3);
+        book.tryReserve("JAKD", JULY_1.plusDays(10), 2);
+
+        Assertions.assertEquals(JULY_1.plusDays(3), book.firstAvailableDate("JAKD", JULY_1, 2));
+        Assertions.assertEquals(JULY_1.plusDays(8), book.firstAvailableDate("JAKD", JULY_1.plusDays(4), 2));
+        Assertions.assertEquals(JULY_1.plusDays(12), book.firstAvailableDate("JAKD", JULY_1, 3));
+        Assertions.assertEquals(JULY_1.plusDays(12), book.firstAvailableDate("JAKD", JULY_1.plusDays(1), 4));
+        Assertions.assertEquals(JULY_1.minusDays(5), book.firstAvailableDate("JAKD", JULY_1.minusDays(5), 5));
+        Assertions.assertEquals(JULY_1, book.firstAvailableDate("LADW", JULY_1, 50));
+
+        book.releaseBefore(JULY_1.plusDays(8));
+        Assertions.assertEquals(1, book.reservationCount("JAKD"));
+    }
+
+    @Test
+    public void firstAvailableWindowPicksEarliestTool() {
+        ReservationBook book = new ReservationBook();
+        CheckoutService checkoutService = CheckoutService.builder().reservationBook(book).build();
+        checkoutService.checkout("JAKD", JULY_1, 10, 0);
+        checkoutService.checkout("JAKR", JULY_1, 4, 0);
+
+        AvailableWindow window = checkoutService.findAvailableTool("Jackhammer", JULY_1, 3);
+        Assertions.assertEquals("JAKR", window.tool().getToolCode());
+        Assertions.assertEquals(JULY_1.plusDays(4), window.checkoutDate());
+        Assertions.assertEquals(JULY_1.plusDays(7), window.dueDate());
+        Assertions.assertNull(checkoutService.findAvailableTool("Hovercraft", JULY_1, 3));
+
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> checkoutService.checkout("JAKD", JULY_1.plusDays(9), 1, 0));
+        Assertions.assertEquals(CheckoutValidationError.TOOL_UNAVAILABLE.getMessage(), e.getMessage());
+        checkoutService.checkout("JAKD", JULY_1.plusDays(10), 1, 0);
+    }
+
+    @Test
+    public void batchCheckoutReportsUnavailableRows() {
+        CheckoutService checkoutService = CheckoutService.builder().reservationBook(new ReservationBook()).build();
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            requests.add(new CheckoutRequest("LADW", JULY_1.plusDays(i / 2), 1, 0));
+        }
+        var result = checkoutService.checkoutAll(requests);
+        Assertions.assertEquals(1_000, result.getAgreements().size());
+        for (int row : result.getFailedRows()) {
+            Assertions.assertEquals(Collections.singleton(CheckoutValidationError.TOOL_UNAVAILABLE), result.getErrors(row));
+        }
+    }
+
+    @Test
+    public void failedBatchReleasesItsReservations() {
+        long failFrom = LocalDate.of(2021, 1, 1).toEpochDay();
+        HolidayCalendar failing = new HolidayCalendar() {
+            @Override
+            public boolean isHoliday(long epochDay) {
+                return false;
+            }
+
+            @Override
+            public int countWeekdayHolidays(long firstEpochDay, long lastEpochDay) {
+                if (lastEpochDay >= failFrom) {
+                    throw new IllegalStateException("No holidays known from 2021");
+                }
+                return 0;
+            }
+        };
+        ReservationBook book = new ReservationBook();
+        CheckoutService checkoutService = CheckoutService.builder().reservationBook(book).holidayCalendar(failing).build();
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            requests.add(new CheckoutRequest(i % 2 == 0 ? "LADW" : "JAKR", JULY_1.plusDays(i / 2 % 180), 1, 0));
+        }
+        requests.add(1_000, new CheckoutRequest("JAKD", LocalDate.of(2020, 12, 31), 3, 0));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> checkoutService.checkoutAll(requests));
+        Assertions.assertEquals(0, book.reservationCount("LADW"));
+        Assertions.assertEquals(0, book.reservationCount("JAKR"));
+        Assertions.assertEquals(0, book.reservationCount("JAKD"));
+
+        requests.remove(1_000);
+        var result = checkoutService.checkoutAll(requests);
+        Assertions.assertEquals(360, result.getAgreements().size());
+        Assertions.assertEquals(180, book.reservationCount("LADW"));
+    }
+
+    @Test
+    public void concurrentBookingsNeverOverlap() throws Exception {
+        ReservationBook book = new ReservationBook();
+        String[] toolCodes = {"CHNS", "LADW", "JAKD", "JAKR"};
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Reservation>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                long seed = thread;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    List<Reservation> booked = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        Reservation reservation = book.tryReserve(toolCodes[random.nextInt(toolCodes.length)], JULY_1.plusDays(random.nextInt(2_000)), 1 + random.nextInt(10));
+                        if (reservation != null) {
+                            booked.add(reservation);
+                        }
+                    }
+                    return booked;
+                }));
+            }
+            List<Reservation> all = new ArrayList<>();
+            for (Future<List<Reservation>> future : futures) {
+                all.addAll(future.get());
+            }
+            for (String toolCode : toolCodes) {
+                boolean[] days = new boolean[2_100];
+                int count = 0;
+                for (Reservation reservation : all) {
+                    if (!reservation.toolCode().equals(toolCode)) {
+                        continue;
+                    }
+                    count++;
+                    for (long day = reservation.checkoutEpochDay(); day < reservation.dueEpochDay(); day++) {
+                        int index = (int) (day - JULY_1.toEpochDay());
+                        Assertions.assertFalse(days[index], toolCode + " double booked");
+                        days[index] = true;
+                    }
+                }
+                Assertions.assertEquals(count, book.reservationCount(toolCode));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void windowNeedsAtLeastOneDay() {
+        List<Tool> tools = List.of();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ReservationBook().firstAvailableWindow(tools, JULY_1, 0));
+    }
+}
@@ -0,0 +1,144 @@
+package com.kn0824.service.store;
+
+import com.kn0824.core.agreement.RentalAgreement;
+import com.kn0824.core.tools.Tool;
+import com.kn0824.core.tools.ToolCatalog;
+import com.kn0824.core.tools.ToolType;
+import com.kn0824.service.CheckoutService;
+import com.kn0824.service.CheckoutValidationError;
+import com.kn0824.service.QuoteCache;
+import com.kn0824.service.catalog.ToolCatalogProvider;
+import com.kn0824.service.reservation.AvailableWindow;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class StoreRouterTest {
+
+    private static final int STORES = 200;
+    private static final LocalDate JULY_1 = LocalDate.of(2020, 7, 1);
+    private static final ToolType LADDER = new ToolType("Ladder", new BigDecimal("1.99"), true, true, false);
+    private static final ToolType JACKHAMMER = new ToolType("Jackhammer", new BigDecimal("2.99"), true, false, false);
+
+    @Test
+    public void checkoutsAreRoutedToTheirStore() {
+        StoreRouter router = new StoreRouter(List.of(
+                StorePartition.of("north", ToolCatalogProvider.of(catalog(1, 0))),
+                StorePartition.of("south", CheckoutService.builder().catalogProvider(ToolCatalogProvider.of(catalog(0, 2))).quoteCache(new QuoteCache(64)))));
+
+        RentalAgreement agreement = router.checkout("north", "LAD0", JULY_1, 3, 0);
+        Assertions.assertEquals(new CheckoutService(ToolCatalogProvider.of(catalog(1, 0))).checkout("LAD0", JULY_1, 3, 0), agreement);
+        Assertions.assertEquals(1, router.partition("north").reservationBook().reservationCount("LAD0"));
+        Assertions.assertEquals(0, router.partition("south").reservationBook().reservationCount("LAD0"));
+
+        // Each store only knows its own tools
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> router.checkout("south", "LAD0", JULY_1, 3, 0));
+        Assertions.assertEquals(CheckoutValidationError.UNKNOWN_TOOL_CODE.getMessage(), e.getMessage());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> router.checkout("east", "LAD0", JULY_1, 3, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> router.checkout(null, "LAD0", JULY_1, 3, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new StoreRouter(List.of(StorePartition.of("north", ToolCatalogProvider.of(catalog(1, 0))),
+                StorePartition.of("north", ToolCatalogProvider.of(catalog(0, 1))))));
+    }
+
+    @Test
+    public void bookingsOfOneStoreDontAffectAnother() throws Exception {
+        List<StorePartition> partitions = new ArrayList<>();
+        for (int store = 0; store < STORES; store++) {
+            partitions.add(StorePartition.of(storeId(store), ToolCatalogProvider.of(catalog(2, 2))));
+        }
+        StoreRouter router = new StoreRouter(partitions);
+
+        // Every store's threads book the same tool codes for the same days, only one booking per store may succeed
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> bookings = new ArrayList<>();
+            for (int attempt = 0; attempt < 4; attempt++) {
+                for (int store = 0; store < STORES; store++) {
+                    String storeId = storeId(store);
+                    bookings.add(executor.submit(() -> {
+                        try {
+                            router.checkout(storeId, "JAK1", JULY_1, 5, 10);
+                            return true;
+                        } catch (IllegalArgumentException e) {
+                            Assertions.assertEquals(CheckoutValidationError.TOOL_UNAVAILABLE.getMessage(), e.getMessage());
+                            return false;
+                        }
+                    }));
+                }
+            }
+            int booked = 0;
+            for (Future<Boolean> booking : bookings) {
+                booked += booking.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            Assertions.assertEquals(STORES, booked);
+        } finally {
+            executor.shutdownNow();
+        }
+        for (int store = 0; store < STORES; store++) {
+            Assertions.assertEquals(1, router.partition(storeId(store)).reservationBook().reservationCount("JAK1"));
+            Assertions.assertEquals(0, router.partition(storeId(store)).reservationBook().reservationCount("JAK0"));
+        }
+    }
+
+    @Test
+    public void availabilityIsMergedAcrossStores() {
+        Random random = new Random(19);
+        List<StorePartition> partitions = new ArrayList<>();
+        for (int store = 0; store < STORES; store++) {
+            // Some stores have no jackhammers at all
+            StorePartition partition = StorePartition.of(storeId(store), ToolCatalogProvider.of(catalog(1 + random.nextInt(3), random.nextInt(4))));
+            partitions.add(partition);
+            for (int booking = 0; booking < 10; booking++) {
+                partition.reservationBook().tryReserve("JAK" + random.nextInt(4), JULY_1.plusDays(random.nextInt(30)), 1 + random.nextInt(10));
+            }
+        }
+        StoreRouter router = new StoreRouter(partitions);
+
+        List<StoreAvailability> expected = new ArrayList<>();
+        for (StorePartition partition : partitions) {
+            AvailableWindow window = partition.service().findAvailableTool("Jackhammer", JULY_1, 4);
+            if (window != null) {
+                expected.add(new StoreAvailability(partition.storeId(), window));
+            }
+        }
+        expected.sort(Comparator.comparing((StoreAvailability availability) -> availability.window().checkoutDate()).thenComparing(StoreAvailability::storeId));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(expected, router.findAvailableTools("Jackhammer", JULY_1, 4, pool));
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertTrue(expected.size() < STORES);
+        Assertions.assertEquals(expected.get(0), router.findFirstAvailableTool("Jackhammer", JULY_1, 4));
+        Assertions.assertEquals(STORES, router.findAvailableTools("Ladder", JULY_1, 4).size());
+        Assertions.assertNull(router.findFirstAvailableTool("Forklift", JULY_1, 4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> router.findAvailableTools("Ladder", JULY_1, 0));
+    }
+
+    private static String storeId(int store) {
+        return String.format("store-%03d", store);
+    }
+
+    private static ToolCatalog catalog(int ladders, int jackhammers) {
+        List<Tool> tools = new ArrayList<>();
+        for (int i = 0; i < ladders; i++) {
+            tools.add(new Tool("LAD" + i, LADDER, "Werner"));
+        }
+        for (int i = 0; i < jackhammers; i++) {
+            tools.add(new Tool("JAK" + i, JACKHAMMER, "Ridgid"));
+        }
+        return new ToolCatalog(List.of(LADDER, JACKHAMMER), tools);
+    }
+}